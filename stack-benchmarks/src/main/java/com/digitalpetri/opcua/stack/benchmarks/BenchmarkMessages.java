@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import com.digitalpetri.opcua.stack.core.Identifiers;
+import com.digitalpetri.opcua.stack.core.serialization.UaStructure;
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.builtin.DiagnosticInfo;
+import com.digitalpetri.opcua.stack.core.types.builtin.ExpandedNodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
+import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
+import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
+import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
+import com.digitalpetri.opcua.stack.core.types.enumerated.NodeClass;
+import com.digitalpetri.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import com.digitalpetri.opcua.stack.core.types.structured.BrowseResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.BrowseResult;
+import com.digitalpetri.opcua.stack.core.types.structured.DataChangeNotification;
+import com.digitalpetri.opcua.stack.core.types.structured.MonitoredItemNotification;
+import com.digitalpetri.opcua.stack.core.types.structured.NotificationMessage;
+import com.digitalpetri.opcua.stack.core.types.structured.PublishResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import com.digitalpetri.opcua.stack.core.types.structured.ReferenceDescription;
+import com.digitalpetri.opcua.stack.core.types.structured.RequestHeader;
+import com.digitalpetri.opcua.stack.core.types.structured.ResponseHeader;
+import com.digitalpetri.opcua.stack.core.types.structured.WriteRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.WriteValue;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+
+/**
+ * Factories for the representative messages used by the serialization benchmarks.
+ */
+public class BenchmarkMessages {
+
+    private static final UInteger VALUE_ATTRIBUTE = uint(13);
+
+    public enum MessageKind {
+        ReadRequest,
+        ReadResponse,
+        PublishResponse,
+        BrowseResponse,
+        WriteRequest
+    }
+
+    public static UaStructure create(MessageKind kind, int count) {
+        switch (kind) {
+            case ReadRequest:
+                return readRequest(count);
+            case ReadResponse:
+                return readResponse(count);
+            case PublishResponse:
+                return publishResponse(count);
+            case BrowseResponse:
+                return browseResponse(count);
+            case WriteRequest:
+                return writeRequest(count);
+            default:
+                throw new IllegalArgumentException("kind: " + kind);
+        }
+    }
+
+    public static ReadRequest readRequest(int count) {
+        ReadValueId[] nodesToRead = new ReadValueId[count];
+
+        for (int i = 0; i < count; i++) {
+            nodesToRead[i] = new ReadValueId(
+                    new NodeId(2, "Device" + (i / 100) + ".Tag" + i),
+                    VALUE_ATTRIBUTE, null, QualifiedName.NULL_VALUE);
+        }
+
+        return new ReadRequest(requestHeader(), 0.0, TimestampsToReturn.Both, nodesToRead);
+    }
+
+    public static ReadResponse readResponse(int count) {
+        DataValue[] results = new DataValue[count];
+
+        for (int i = 0; i < count; i++) {
+            results[i] = dataValue(i);
+        }
+
+        return new ReadResponse(responseHeader(), results, new DiagnosticInfo[0]);
+    }
+
+    public static PublishResponse publishResponse(int count) {
+        MonitoredItemNotification[] monitoredItems = new MonitoredItemNotification[count];
+
+        for (int i = 0; i < count; i++) {
+            monitoredItems[i] = new MonitoredItemNotification(uint(i), dataValue(i));
+        }
+
+        DataChangeNotification notification =
+                new DataChangeNotification(monitoredItems, new DiagnosticInfo[0]);
+
+        NotificationMessage notificationMessage = new NotificationMessage(
+                uint(1), DateTime.now(), new ExtensionObject[]{ExtensionObject.encode(notification)});
+
+        return new PublishResponse(
+                responseHeader(),
+                uint(1),
+                new UInteger[]{uint(1)},
+                false,
+                notificationMessage,
+                new StatusCode[0],
+                new DiagnosticInfo[0]
+        );
+    }
+
+    public static BrowseResponse browseResponse(int count) {
+        ReferenceDescription[] references = new ReferenceDescription[count];
+
+        for (int i = 0; i < count; i++) {
+            String name = "Tag" + i;
+
+            references[i] = new ReferenceDescription(
+                    Identifiers.Organizes,
+                    true,
+                    new ExpandedNodeId(new NodeId(2, "Device" + (i / 100) + "." + name)),
+                    new QualifiedName(2, name),
+                    LocalizedText.english(name),
+                    NodeClass.Variable,
+                    new ExpandedNodeId(Identifiers.BaseDataVariableType)
+            );
+        }
+
+        BrowseResult result = new BrowseResult(StatusCode.GOOD, ByteString.NULL_VALUE, references);
+
+        return new BrowseResponse(responseHeader(), new BrowseResult[]{result}, new DiagnosticInfo[0]);
+    }
+
+    public static WriteRequest writeRequest(int count) {
+        WriteValue[] nodesToWrite = new WriteValue[count];
+
+        for (int i = 0; i < count; i++) {
+            nodesToWrite[i] = new WriteValue(
+                    new NodeId(2, "Device" + (i / 100) + ".Tag" + i),
+                    VALUE_ATTRIBUTE, null, new DataValue(new Variant((double) i)));
+        }
+
+        return new WriteRequest(requestHeader(), nodesToWrite);
+    }
+
+    private static DataValue dataValue(int i) {
+        DateTime now = DateTime.now();
+
+        return new DataValue(new Variant(i * 1.5d), StatusCode.GOOD, now, now);
+    }
+
+    private static RequestHeader requestHeader() {
+        return new RequestHeader(
+                NodeId.NULL_VALUE, DateTime.now(), uint(1), uint(0), null, uint(10000), null);
+    }
+
+    private static ResponseHeader responseHeader() {
+        return new ResponseHeader(
+                DateTime.now(), uint(1), StatusCode.GOOD, null, new String[0], null);
+    }
+
+}
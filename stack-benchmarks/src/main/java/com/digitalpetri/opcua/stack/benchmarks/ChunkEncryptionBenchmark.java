@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.digitalpetri.opcua.stack.SecureChannelFixture;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.ChannelParameters;
+import com.digitalpetri.opcua.stack.core.channel.ChunkEncoder;
+import com.digitalpetri.opcua.stack.core.channel.SecureChannel;
+import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
+import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
+import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.util.BufferUtil;
+import com.digitalpetri.opcua.stack.core.util.CryptoRestrictions;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the symmetric chunk encryption strategy {@link ChunkEncoder} used to have, copying each chunk body into a
+ * second buffer before encrypting it, with the in-place encryption it uses now.
+ * <p>
+ * Each operation handles one megabyte in default-sized chunks held in pooled buffers from {@link BufferUtil}.
+ * {@link #copyThenEncrypt()} reproduces the old strategy, which no longer exists in {@link ChunkEncoder}, on its own.
+ * The in-place strategy is measured through {@link ChunkEncoder#encodeSymmetricRequest} itself: the cost of encrypting
+ * is the difference between {@link #encodeSignAndEncrypt()} and {@link #encodeSign()}, which do the same work apart
+ * from encrypting.
+ * <p>
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is the number of heap bytes allocated per megabyte sent. The
+ * copy strategy additionally copies every chunk body into a pooled buffer, i.e. one extra megabyte of buffer traffic
+ * per megabyte sent.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkEncryptionBenchmark extends SecureChannelFixture {
+
+    static {
+        CryptoRestrictions.remove();
+    }
+
+    private static final int MEGABYTE = 1024 * 1024;
+
+    private static final ChannelParameters PARAMETERS = new ChannelParameters(
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT,
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
+    );
+
+    @Param({"Basic128Rsa15", "Basic256"})
+    public String securityPolicy;
+
+    private Cipher cipher;
+    private ByteBuf messageBuffer;
+    private int chunkBodySize;
+
+    private SecureChannel signChannel;
+    private SecureChannel encryptChannel;
+
+    private final ChunkEncoder signEncoder = new ChunkEncoder(PARAMETERS);
+    private final ChunkEncoder encryptEncoder = new ChunkEncoder(PARAMETERS);
+
+    @Setup
+    public void setup() throws Exception {
+        SecurityPolicy policy = SecurityPolicy.valueOf(securityPolicy);
+        int keyLength = policy == SecurityPolicy.Basic256 ? 32 : 16;
+
+        Random random = new Random(0);
+        byte[] key = new byte[keyLength];
+        byte[] iv = new byte[16];
+        random.nextBytes(key);
+        random.nextBytes(iv);
+
+        cipher = Cipher.getInstance(policy.getSymmetricEncryptionAlgorithm().getTransformation());
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+
+        int blockSize = cipher.getBlockSize();
+        chunkBodySize = (ChannelConfig.DEFAULT_MAX_CHUNK_SIZE / blockSize) * blockSize;
+
+        signChannel = generateChannels(policy, MessageSecurityMode.Sign)[0];
+        encryptChannel = generateChannels(policy, MessageSecurityMode.SignAndEncrypt)[0];
+
+        byte[] messageBytes = new byte[MEGABYTE];
+        random.nextBytes(messageBytes);
+        messageBuffer = BufferUtil.buffer(MEGABYTE).writeBytes(messageBytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        messageBuffer.release();
+    }
+
+    @Benchmark
+    public ByteBuf copyThenEncrypt() throws GeneralSecurityException {
+        for (int index = 0; index < MEGABYTE; index += chunkBodySize) {
+            int length = Math.min(chunkBodySize, MEGABYTE - index);
+            ByteBuf chunkBuffer = messageBuffer.slice(index, length);
+
+            ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+            ByteBuf copyBuffer = chunkBuffer.copy();
+            ByteBuffer plainTextNioBuffer = copyBuffer.nioBuffer();
+
+            cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+
+            copyBuffer.release();
+        }
+
+        return messageBuffer;
+    }
+
+    @Benchmark
+    public int encodeSign() throws Exception {
+        return encodeAndRelease(signEncoder, signChannel);
+    }
+
+    @Benchmark
+    public int encodeSignAndEncrypt() throws Exception {
+        return encodeAndRelease(encryptEncoder, encryptChannel);
+    }
+
+    private int encodeAndRelease(ChunkEncoder encoder, SecureChannel channel) throws Exception {
+        List<ByteBuf> chunks = encoder.encodeSymmetricRequest(
+                channel, MessageType.SecureMessage, messageBuffer.readerIndex(0));
+
+        int size = 0;
+        for (ByteBuf chunk : chunks) {
+            size += chunk.readableBytes();
+            chunk.release();
+        }
+
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ChunkEncryptionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
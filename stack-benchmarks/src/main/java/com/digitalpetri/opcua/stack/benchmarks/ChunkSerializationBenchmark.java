@@ -0,0 +1,295 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.SecureChannelFixture;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.ChannelParameters;
+import com.digitalpetri.opcua.stack.core.channel.ChunkDecoder;
+import com.digitalpetri.opcua.stack.core.channel.ChunkEncoder;
+import com.digitalpetri.opcua.stack.core.channel.SecureChannel;
+import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
+import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
+import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.util.BufferUtil;
+import com.digitalpetri.opcua.stack.core.util.CryptoRestrictions;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link ChunkEncoder} and {@link ChunkDecoder} throughput for each {@link SecurityPolicy} and
+ * {@link MessageSecurityMode}, using the channels and certificates from {@link SecureChannelFixture}.
+ * <p>
+ * The {@code security} parameter is a {@code SecurityPolicy:MessageSecurityMode} pair so that only valid combinations
+ * are benchmarked. Decode benchmarks need freshly encoded chunks for every operation (decryption happens in place and
+ * sequence numbers must increase), so those chunks are produced in a per-invocation setup that is not measured. Only
+ * the decode-only states have that setup, so it adds no noise to the encode benchmarks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSerializationBenchmark {
+
+    static {
+        CryptoRestrictions.remove();
+    }
+
+    private static final ChannelParameters PARAMETERS = new ChannelParameters(
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT,
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
+    );
+
+    @State(Scope.Thread)
+    public static abstract class ChunkState extends SecureChannelFixture {
+
+        @Param({
+                "None:None",
+                "Basic128Rsa15:Sign",
+                "Basic128Rsa15:SignAndEncrypt",
+                "Basic256:Sign",
+                "Basic256:SignAndEncrypt"
+        })
+        public String security;
+
+        SecureChannel clientChannel;
+        SecureChannel serverChannel;
+
+        ByteBuf messageBuffer;
+
+        ChunkEncoder encoder = new ChunkEncoder(PARAMETERS);
+
+        final ChunkEncoder decodeSideEncoder = new ChunkEncoder(PARAMETERS);
+        final ChunkDecoder decoder = new ChunkDecoder(PARAMETERS);
+
+        List<ByteBuf> encodedChunks;
+        ByteBuf decodedBuffer;
+
+        abstract int getMessageSize();
+
+        abstract List<ByteBuf> encode(ChunkEncoder encoder, ByteBuf messageBuffer) throws Exception;
+
+        @Setup(Level.Trial)
+        public void setUpTrial() throws Exception {
+            String[] ss = security.split(":");
+            SecurityPolicy securityPolicy = SecurityPolicy.valueOf(ss[0]);
+            MessageSecurityMode messageSecurityMode = MessageSecurityMode.valueOf(ss[1]);
+
+            SecureChannel[] channels = generateChannels(securityPolicy, messageSecurityMode);
+            clientChannel = channels[0];
+            serverChannel = channels[1];
+
+            byte[] messageBytes = new byte[getMessageSize()];
+            for (int i = 0; i < messageBytes.length; i++) {
+                messageBytes[i] = (byte) i;
+            }
+
+            messageBuffer = BufferUtil.buffer(messageBytes.length).writeBytes(messageBytes);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownTrial() {
+            messageBuffer.release();
+        }
+
+        void prepareDecode() throws Exception {
+            encodedChunks = encode(decodeSideEncoder, messageBuffer.readerIndex(0));
+        }
+
+        void releaseDecoded() {
+            // The decoded buffer is a composite of slices of the encoded chunks; releasing it releases them.
+            if (decodedBuffer != null) {
+                decodedBuffer.release();
+                decodedBuffer = null;
+            } else {
+                encodedChunks.forEach(ByteBuf::release);
+            }
+
+            encodedChunks = null;
+        }
+
+    }
+
+    public static class SymmetricState extends ChunkState {
+
+        @Param({"100", "1024", "65536", "2097152"})
+        public int messageSize;
+
+        @Override
+        int getMessageSize() {
+            return messageSize;
+        }
+
+        @Override
+        List<ByteBuf> encode(ChunkEncoder encoder, ByteBuf messageBuffer) throws Exception {
+            return encoder.encodeSymmetricRequest(clientChannel, MessageType.SecureMessage, messageBuffer);
+        }
+
+    }
+
+    /**
+     * Symmetric state for the decode benchmarks, which need freshly encoded chunks for every invocation.
+     */
+    public static class SymmetricDecodeState extends SymmetricState {
+
+        @Setup(Level.Invocation)
+        public void setUpInvocation() throws Exception {
+            prepareDecode();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDownInvocation() {
+            releaseDecoded();
+        }
+
+    }
+
+    public static class ParallelSymmetricState extends SymmetricState {
+
+        ExecutorService chunkExecutor;
+
+        @Setup(Level.Trial)
+        public void setUpParallelEncoder() {
+            chunkExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            encoder = new ChunkEncoder(PARAMETERS, chunkExecutor);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownParallelEncoder() {
+            chunkExecutor.shutdown();
+        }
+
+    }
+
+    public static class AsymmetricState extends ChunkState {
+
+        /*
+         * Asymmetric messages are OpenSecureChannel requests and responses; anything larger than a few chunks is
+         * unrealistic and RSA makes it very slow.
+         */
+        @Param({"100", "1024", "65536"})
+        public int messageSize;
+
+        @Override
+        int getMessageSize() {
+            return messageSize;
+        }
+
+        @Override
+        List<ByteBuf> encode(ChunkEncoder encoder, ByteBuf messageBuffer) throws Exception {
+            return encoder.encodeAsymmetricRequest(clientChannel, MessageType.OpenSecureChannel, messageBuffer);
+        }
+
+    }
+
+    /**
+     * Asymmetric state for the decode benchmarks, which need freshly encoded chunks for every invocation.
+     */
+    public static class AsymmetricDecodeState extends AsymmetricState {
+
+        @Setup(Level.Invocation)
+        public void setUpInvocation() throws Exception {
+            prepareDecode();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDownInvocation() {
+            releaseDecoded();
+        }
+
+    }
+
+    @Benchmark
+    public int encodeSymmetric(SymmetricState state) throws Exception {
+        return encodeAndRelease(state);
+    }
+
+    @Benchmark
+    public int encodeSymmetricParallel(ParallelSymmetricState state) throws Exception {
+        return encodeAndRelease(state);
+    }
+
+    @Benchmark
+    public ByteBuf decodeSymmetric(SymmetricDecodeState state) throws Exception {
+        state.decodedBuffer = state.decoder.decodeSymmetric(state.serverChannel, state.encodedChunks);
+
+        return state.decodedBuffer;
+    }
+
+    @Benchmark
+    public int encodeAsymmetric(AsymmetricState state) throws Exception {
+        return encodeAndRelease(state);
+    }
+
+    @Benchmark
+    public ByteBuf decodeAsymmetric(AsymmetricDecodeState state) throws Exception {
+        state.decodedBuffer = state.decoder.decodeAsymmetric(state.serverChannel, state.encodedChunks);
+
+        return state.decodedBuffer;
+    }
+
+    private static int encodeAndRelease(ChunkState state) throws Exception {
+        List<ByteBuf> chunks = state.encode(state.encoder, state.messageBuffer.readerIndex(0));
+
+        int size = 0;
+        for (ByteBuf chunk : chunks) {
+            size += chunk.readableBytes();
+            chunk.release();
+        }
+
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ChunkSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+}
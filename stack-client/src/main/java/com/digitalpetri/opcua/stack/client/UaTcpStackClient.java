@@ -28,6 +28,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.digitalpetri.opcua.stack.client.config.UaTcpStackClientConfig;
 import com.digitalpetri.opcua.stack.client.fsm.ConnectionEvent;
@@ -146,9 +147,29 @@ public class UaTcpStackClient implements UaStackClient {
 
         scheduleRequestTimeout(requestHeader);
 
+        // The channel can close while the request is being written or once its chunks are; only retry it once.
+        AtomicBoolean retried = new AtomicBoolean(false);
+
+        Runnable retry = () -> {
+            if (retried.compareAndSet(false, true)) {
+                logger.debug("Channel closed; retrying...");
+
+                sendRequest(request).whenComplete((r, ex) -> {
+                    if (r != null) {
+                        T t = (T) r;
+                        future.complete(t);
+                    } else {
+                        future.completeExceptionally(ex);
+                    }
+                });
+            }
+        };
+
         requestFuture.getFuture().whenComplete((r, x) -> {
             if (r != null) {
                 receiveResponse(r);
+            } else if (x instanceof ClosedChannelException) {
+                retry.run();
             } else {
                 UInteger requestHandle = request.getRequestHeader().getRequestHandle();
 
@@ -162,16 +183,7 @@ public class UaTcpStackClient implements UaStackClient {
                 Throwable cause = f.cause();
 
                 if (cause instanceof ClosedChannelException) {
-                    logger.debug("Channel closed; retrying...");
-
-                    sendRequest(request).whenComplete((r, ex) -> {
-                        if (r != null) {
-                            T t = (T) r;
-                            future.complete(t);
-                        } else {
-                            future.completeExceptionally(ex);
-                        }
-                    });
+                    retry.run();
                 } else {
                     UInteger requestHandle = request.getRequestHeader().getRequestHandle();
 
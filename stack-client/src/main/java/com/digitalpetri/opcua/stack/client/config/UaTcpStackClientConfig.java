@@ -22,7 +22,10 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import com.digitalpetri.opcua.stack.client.UaTcpStackClient;
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.CryptoExecutor;
 import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.structured.EndpointDescription;
@@ -95,6 +98,29 @@ public interface UaTcpStackClientConfig {
      */
     ExecutorService getExecutor();
 
+    /**
+     * Get the {@link ExecutorService} used to sign and encrypt the chunks of large multi-chunk messages in parallel.
+     * If absent, chunks are secured one after another on the serialization queue.
+     * <p>
+     * This should not be the same bounded executor returned by {@link #getExecutor()}.
+     *
+     * @return an {@link Optional} containing the {@link ExecutorService} to secure chunks on.
+     */
+    default Optional<ExecutorService> getChunkExecutor() {
+        return Optional.empty();
+    }
+
+    /**
+     * Get the {@link CryptoExecutor} that asymmetric (OpenSecureChannel) work is done on. It bounds the threads used
+     * for RSA signing and encryption and rejects handshakes with {@link StatusCodes#Bad_TooManyOperations} once too
+     * many are pending.
+     *
+     * @return the {@link CryptoExecutor} to do asymmetric work on.
+     */
+    default CryptoExecutor getCryptoExecutor() {
+        return Stack.sharedCryptoExecutor();
+    }
+
     /**
      * @return the {@link NioEventLoopGroup} the {@link UaTcpStackClient} will use.
      */
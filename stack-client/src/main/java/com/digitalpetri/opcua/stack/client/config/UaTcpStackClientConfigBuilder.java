@@ -24,6 +24,7 @@ import javax.annotation.Nullable;
 
 import com.digitalpetri.opcua.stack.core.Stack;
 import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.CryptoExecutor;
 import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.structured.EndpointDescription;
@@ -46,6 +47,8 @@ public class UaTcpStackClientConfigBuilder {
     private ChannelConfig channelConfig = ChannelConfig.DEFAULT;
     private UInteger channelLifetime = uint(60 * 60 * 1000);
     private ExecutorService executor;
+    private ExecutorService chunkExecutor;
+    private CryptoExecutor cryptoExecutor;
     private NioEventLoopGroup eventLoop;
     private HashedWheelTimer wheelTimer;
 
@@ -99,6 +102,16 @@ public class UaTcpStackClientConfigBuilder {
         return this;
     }
 
+    public UaTcpStackClientConfigBuilder setChunkExecutor(ExecutorService chunkExecutor) {
+        this.chunkExecutor = chunkExecutor;
+        return this;
+    }
+
+    public UaTcpStackClientConfigBuilder setCryptoExecutor(CryptoExecutor cryptoExecutor) {
+        this.cryptoExecutor = cryptoExecutor;
+        return this;
+    }
+
     public UaTcpStackClientConfigBuilder setEventLoop(NioEventLoopGroup eventLoop) {
         this.eventLoop = eventLoop;
         return this;
@@ -113,6 +126,9 @@ public class UaTcpStackClientConfigBuilder {
         if (executor == null) {
             executor = Stack.sharedExecutor();
         }
+        if (cryptoExecutor == null) {
+            cryptoExecutor = Stack.sharedCryptoExecutor();
+        }
         if (eventLoop == null) {
             eventLoop = Stack.sharedEventLoop();
         }
@@ -131,6 +147,8 @@ public class UaTcpStackClientConfigBuilder {
                 channelConfig,
                 channelLifetime,
                 executor,
+                chunkExecutor,
+                cryptoExecutor,
                 eventLoop,
                 wheelTimer);
     }
@@ -149,6 +167,8 @@ public class UaTcpStackClientConfigBuilder {
         private final ChannelConfig channelConfig;
         private final UInteger channelLifetime;
         private final ExecutorService executor;
+        private final ExecutorService chunkExecutor;
+        private final CryptoExecutor cryptoExecutor;
         private final NioEventLoopGroup eventLoop;
         private final HashedWheelTimer wheelTimer;
 
@@ -162,6 +182,8 @@ public class UaTcpStackClientConfigBuilder {
                                           ChannelConfig channelConfig,
                                           UInteger channelLifetime,
                                           ExecutorService executor,
+                                          @Nullable ExecutorService chunkExecutor,
+                                          CryptoExecutor cryptoExecutor,
                                           NioEventLoopGroup eventLoop,
                                           HashedWheelTimer wheelTimer) {
 
@@ -175,6 +197,8 @@ public class UaTcpStackClientConfigBuilder {
             this.channelConfig = channelConfig;
             this.channelLifetime = channelLifetime;
             this.executor = executor;
+            this.chunkExecutor = chunkExecutor;
+            this.cryptoExecutor = cryptoExecutor;
             this.eventLoop = eventLoop;
             this.wheelTimer = wheelTimer;
         }
@@ -229,6 +253,16 @@ public class UaTcpStackClientConfigBuilder {
             return executor;
         }
 
+        @Override
+        public Optional<ExecutorService> getChunkExecutor() {
+            return Optional.ofNullable(chunkExecutor);
+        }
+
+        @Override
+        public CryptoExecutor getCryptoExecutor() {
+            return cryptoExecutor;
+        }
+
         @Override
         public NioEventLoopGroup getEventLoop() {
             return eventLoop;
@@ -22,6 +22,7 @@ import com.digitalpetri.opcua.stack.client.fsm.ConnectionEvent;
 import com.digitalpetri.opcua.stack.client.fsm.ConnectionState;
 import com.digitalpetri.opcua.stack.client.fsm.ConnectionStateFsm;
 import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import org.slf4j.Logger;
@@ -66,8 +67,20 @@ public class Connected implements ConnectionState {
     @Override
     public CompletableFuture<Void> deactivate(ConnectionEvent event, ConnectionStateFsm fsm) {
         if (secureChannel != null && inactivityListener != null) {
-            secureChannel.getChannel().pipeline().remove(inactivityListener);
-            logger.debug("Removed inactivityListener");
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            Channel channel = secureChannel.getChannel();
+
+            // A closed channel tears its pipeline down on the event loop; the listener may already be gone.
+            channel.eventLoop().execute(() -> {
+                if (channel.pipeline().context(inactivityListener) != null) {
+                    channel.pipeline().remove(inactivityListener);
+                    logger.debug("Removed inactivityListener");
+                }
+
+                future.complete(null);
+            });
+
+            return future;
         }
 
         return CF_VOID_COMPLETED;
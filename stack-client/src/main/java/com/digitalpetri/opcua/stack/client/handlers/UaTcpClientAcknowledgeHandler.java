@@ -222,14 +222,12 @@ public class UaTcpClientAcknowledgeHandler extends ByteToMessageCodec<UaMessage>
         ctx.channel().attr(KEY_AWAITING_HANDSHAKE).set(awaitingHandshake);
 
         ctx.executor().execute(() -> {
-            int maxArrayLength = client.getChannelConfig().getMaxArrayLength();
-            int maxStringLength = client.getChannelConfig().getMaxStringLength();
-
             SerializationQueue serializationQueue = new SerializationQueue(
                     client.getConfig().getExecutor(),
                     parameters,
-                    maxArrayLength,
-                    maxStringLength);
+                    client.getChannelConfig(),
+                    client.getConfig().getChunkExecutor().orElse(null),
+                    client.getConfig().getCryptoExecutor());
 
             UaTcpClientAsymmetricHandler handler = new UaTcpClientAsymmetricHandler(
                     client,
@@ -191,33 +191,40 @@ public class UaTcpClientAsymmetricHandler extends SimpleChannelInboundHandler<By
             final List<ByteBuf> buffersToDecode = chunkBuffers;
             chunkBuffers = Lists.newArrayListWithCapacity(maxChunkCount);
 
-            serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                ByteBuf decodedBuffer = null;
-
-                try {
-                    decodedBuffer = chunkDecoder.decodeAsymmetric(secureChannel, buffersToDecode);
-
-                    OpenSecureChannelResponse response = binaryDecoder
-                            .setBuffer(decodedBuffer)
-                            .decodeMessage(null);
-
-                    secureChannel.setChannelId(response.getSecurityToken().getChannelId().longValue());
-                    logger.debug("Received OpenSecureChannelResponse.");
-
-                    installSecurityToken(ctx, response);
-                } catch (MessageAbortedException e) {
-                    logger.error("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
-                    ctx.close();
-                } catch (Throwable t) {
-                    logger.error("Error decoding OpenSecureChannelResponse: {}", t.getMessage(), t);
-                    ctx.close();
-                } finally {
-                    if (decodedBuffer != null) {
-                        decodedBuffer.release();
+            try {
+                serializationQueue.decodeAsymmetric((binaryDecoder, chunkDecoder) -> {
+                    ByteBuf decodedBuffer = null;
+
+                    try {
+                        decodedBuffer = chunkDecoder.decodeAsymmetric(secureChannel, buffersToDecode);
+
+                        OpenSecureChannelResponse response = binaryDecoder
+                                .setBuffer(decodedBuffer)
+                                .decodeMessage(null);
+
+                        secureChannel.setChannelId(response.getSecurityToken().getChannelId().longValue());
+                        logger.debug("Received OpenSecureChannelResponse.");
+
+                        installSecurityToken(ctx, response);
+                    } catch (MessageAbortedException e) {
+                        logger.error("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
+                        ctx.close();
+                    } catch (Throwable t) {
+                        logger.error("Error decoding OpenSecureChannelResponse: {}", t.getMessage(), t);
+                        ctx.close();
+                    } finally {
+                        if (decodedBuffer != null) {
+                            decodedBuffer.release();
+                        }
+                        buffersToDecode.clear();
                     }
-                    buffersToDecode.clear();
-                }
-            });
+                });
+            } catch (UaException e) {
+                buffersToDecode.forEach(ByteBuf::release);
+                buffersToDecode.clear();
+
+                throw e;
+            }
         }
     }
 
@@ -270,33 +277,39 @@ public class UaTcpClientAsymmetricHandler extends SimpleChannelInboundHandler<By
     }
 
     private void sendOpenSecureChannelRequest(ChannelHandlerContext ctx, OpenSecureChannelRequest request) {
-        serializationQueue.encode((binaryEncoder, chunkEncoder) -> {
-            ByteBuf messageBuffer = BufferUtil.buffer();
-
-            try {
-                binaryEncoder.setBuffer(messageBuffer);
-                binaryEncoder.encodeMessage(null, request);
-
-                List<ByteBuf> chunks = chunkEncoder.encodeAsymmetricRequest(
-                        secureChannel,
-                        MessageType.OpenSecureChannel,
-                        messageBuffer
-                );
-
-                ctx.executor().execute(() -> {
-                    chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
-                    ctx.flush();
-                });
+        try {
+            serializationQueue.encodeAsymmetric((binaryEncoder, chunkEncoder) -> {
+                ByteBuf messageBuffer = BufferUtil.buffer();
 
-                logger.debug("Sent OpenSecureChannelRequest ({}, id={}).",
-                        request.getRequestType(), secureChannel.getChannelId());
-            } catch (UaException e) {
-                logger.error("Error encoding OpenSecureChannelRequest: {}", e.getMessage(), e);
-                ctx.close();
-            } finally {
-                messageBuffer.release();
-            }
-        });
+                try {
+                    binaryEncoder.setBuffer(messageBuffer);
+                    binaryEncoder.encodeMessage(null, request);
+
+                    List<ByteBuf> chunks = chunkEncoder.encodeAsymmetricRequest(
+                            secureChannel,
+                            MessageType.OpenSecureChannel,
+                            messageBuffer
+                    );
+
+                    ctx.executor().execute(() -> {
+                        chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
+                        ctx.flush();
+                    });
+
+                    logger.debug("Sent OpenSecureChannelRequest ({}, id={}).",
+                            request.getRequestType(), secureChannel.getChannelId());
+                } catch (UaException e) {
+                    logger.error("Error encoding OpenSecureChannelRequest: {}", e.getMessage(), e);
+                    ctx.close();
+                } finally {
+                    messageBuffer.release();
+                }
+            });
+        } catch (UaException e) {
+            logger.error("OpenSecureChannelRequest not sent: {}", e.getMessage(), e);
+            handshakeFuture.completeExceptionally(e);
+            ctx.close();
+        }
     }
 
     private void sendCloseSecureChannelRequest(ChannelHandlerContext ctx, CloseSecureChannelRequest request) {
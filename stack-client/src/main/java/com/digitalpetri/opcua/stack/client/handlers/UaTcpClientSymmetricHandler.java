@@ -24,6 +24,7 @@ import java.util.concurrent.CompletableFuture;
 import com.digitalpetri.opcua.stack.client.UaTcpStackClient;
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.channel.ChannelSecurity;
 import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
 import com.digitalpetri.opcua.stack.core.channel.MessageAbortedException;
@@ -35,8 +36,8 @@ import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
 import com.digitalpetri.opcua.stack.core.channel.messages.TcpMessageDecoder;
 import com.digitalpetri.opcua.stack.core.serialization.UaMessage;
 import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
-import com.digitalpetri.opcua.stack.core.util.BufferUtil;
-import com.google.common.collect.Lists;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
+import com.digitalpetri.opcua.stack.core.util.EncodedSizeEstimator;
 import com.google.common.collect.Maps;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
@@ -48,9 +49,12 @@ public class UaTcpClientSymmetricHandler extends ByteToMessageCodec<UaRequestFut
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    // Per channel, so one peer's unusually large requests don't inflate the buffers every other channel allocates.
+    private final EncodedSizeEstimator sizeEstimator = new EncodedSizeEstimator();
+
     private final Map<Long, UaRequestFuture> pending = Maps.newConcurrentMap();
 
-    private List<ByteBuf> chunkBuffers;
+    private int chunkCount;
 
     private final int maxChunkCount;
     private final int maxChunkSize;
@@ -71,8 +75,6 @@ public class UaTcpClientSymmetricHandler extends ByteToMessageCodec<UaRequestFut
 
         maxChunkCount = serializationQueue.getParameters().getLocalMaxChunkCount();
         maxChunkSize = serializationQueue.getParameters().getLocalReceiveBufferSize();
-
-        chunkBuffers = Lists.newArrayListWithCapacity(maxChunkCount);
     }
 
     @Override
@@ -94,36 +96,47 @@ public class UaTcpClientSymmetricHandler extends ByteToMessageCodec<UaRequestFut
     @Override
     protected void encode(ChannelHandlerContext ctx, UaRequestFuture message, ByteBuf out) throws Exception {
         serializationQueue.encode((binaryEncoder, chunkEncoder) -> {
-            ByteBuf messageBuffer = BufferUtil.buffer();
+            Class<?> messageType = message.getRequest().getClass();
 
             try {
-                binaryEncoder.setBuffer(messageBuffer);
-                binaryEncoder.encodeMessage(null, message.getRequest());
-
-                List<ByteBuf> chunks = chunkEncoder.encodeSymmetricRequest(
+                int encodedSize = chunkEncoder.encodeSymmetricRequest(
                         secureChannel,
                         MessageType.SecureMessage,
-                        messageBuffer
+                        binaryEncoder,
+                        message.getRequest(),
+                        sizeEstimator.estimate(messageType),
+                        chunk -> {
+                            long requestId = chunkEncoder.getLastRequestId();
+
+                            // The request must be pending before its first chunk can reach the server.
+                            pending.putIfAbsent(requestId, message);
+
+                            /*
+                             * The chunk is written after the request's own write has completed, so if the channel
+                             * closes in between, the request has to be failed here or it waits for its timeout.
+                             */
+                            ctx.executor().execute(() -> ctx.writeAndFlush(chunk).addListener(f -> {
+                                if (!f.isSuccess()) failRequest(requestId, message, f.cause());
+                            }));
+                        }
                 );
 
+                sizeEstimator.record(messageType, encodedSize);
+
                 long requestId = chunkEncoder.getLastRequestId();
-                pending.put(requestId, message);
 
                 // No matter how we complete, make sure the entry in pending is removed.
                 // This covers the case where the request fails due to a timeout in the
                 // upper layers as well as normal completion.
                 message.getFuture().whenComplete(
                         (r, x) -> pending.remove(requestId));
-
-                ctx.executor().execute(() -> {
-                    chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
-                    ctx.flush();
-                });
             } catch (UaException e) {
                 logger.error("Error encoding {}: {}", message.getClass(), e.getMessage(), e);
+                failRequest(chunkEncoder.getLastRequestId(), message, e);
                 ctx.close();
-            } finally {
-                messageBuffer.release();
+            } catch (RuntimeException e) {
+                logger.error("Error encoding {}: {}", message.getClass(), e.getMessage(), e);
+                failRequest(chunkEncoder.getLastRequestId(), message, e);
             }
         });
     }
@@ -168,9 +181,7 @@ public class UaTcpClientSymmetricHandler extends ByteToMessageCodec<UaRequestFut
                     String.format("max chunk size exceeded (%s)", maxChunkSize));
         }
 
-        chunkBuffers.add(buffer.retain());
-
-        if (chunkBuffers.size() > maxChunkCount) {
+        if (++chunkCount > maxChunkCount) {
             throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
                     String.format("max chunk count exceeded (%s)", maxChunkCount));
         }
@@ -178,78 +189,137 @@ public class UaTcpClientSymmetricHandler extends ByteToMessageCodec<UaRequestFut
         char chunkType = (char) buffer.getByte(3);
 
         if (chunkType == 'A' || chunkType == 'F') {
-            final List<ByteBuf> buffersToDecode = chunkBuffers;
-            chunkBuffers = Lists.newArrayListWithCapacity(maxChunkCount);
+            chunkCount = 0;
+        }
 
-            serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                ByteBuf decodedBuffer = null;
+        /*
+         * Each chunk is verified and decrypted as soon as it arrives; the decoding queue preserves arrival order, so
+         * sequence numbers are still checked in order, and the message is decoded when its final chunk is done.
+         */
+        final ByteBuf chunkBuffer = buffer.retain();
 
+        serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
+            ByteBuf decodedBuffer = null;
+
+            try {
                 try {
-                    validateChunkHeaders(buffersToDecode);
+                    validateChunkHeader(chunkBuffer);
+                } catch (UaException e) {
+                    chunkBuffer.release();
+                    throw e;
+                }
 
-                    decodedBuffer = chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode);
+                if (serializationQueue.isDecodeIncrementally()) {
+                    decodedBuffer = chunkDecoder.decodeSymmetricChunkIncrementally(secureChannel, chunkBuffer);
 
-                    binaryDecoder.setBuffer(decodedBuffer);
-                    UaResponseMessage response = binaryDecoder.decodeMessage(null);
+                    if (decodedBuffer != null && chunkType == 'C') {
+                        // The first of several chunks; decode the response while the rest are received.
+                        decodeIncrementally(ctx, decodedBuffer, chunkDecoder.getLastRequestId());
+                        decodedBuffer = null;
+                    }
+                } else {
+                    decodedBuffer = chunkDecoder.decodeSymmetricChunk(secureChannel, chunkBuffer);
+                }
 
-                    UaRequestFuture request = pending.remove(chunkDecoder.getLastRequestId());
+                if (decodedBuffer == null) return;
 
-                    if (request != null) {
-                        client.getExecutorService().execute(
-                                () -> request.getFuture().complete(response));
-                    } else {
-                        logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
-                    }
-                } catch (MessageAbortedException e) {
-                    logger.debug("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
+                receiveResponse(binaryDecoder, decodedBuffer, chunkDecoder.getLastRequestId());
+            } catch (MessageAbortedException e) {
+                logger.debug("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
 
-                    UaRequestFuture request = pending.remove(chunkDecoder.getLastRequestId());
+                failRequest(chunkDecoder.getLastRequestId(), e);
+            } catch (Throwable t) {
+                logger.error("Error decoding symmetric message: {}", t.getMessage(), t);
+                ctx.close();
+                serializationQueue.pause();
+            } finally {
+                if (decodedBuffer != null) {
+                    decodedBuffer.release();
+                }
+            }
+        });
+    }
 
-                    if (request != null) {
-                        client.getExecutorService().execute(
-                                () -> request.getFuture().completeExceptionally(e));
-                    } else {
-                        logger.warn("No UaRequestFuture for requestId={}", chunkDecoder.getLastRequestId());
-                    }
-                } catch (Throwable t) {
+    private void decodeIncrementally(ChannelHandlerContext ctx, ByteBuf decodedBuffer, long requestId) {
+        serializationQueue.decodeIncrementally(binaryDecoder -> {
+            try {
+                receiveResponse(binaryDecoder, decodedBuffer, requestId);
+            } catch (Throwable t) {
+                if (t instanceof UaSerializationException && t.getCause() instanceof MessageAbortedException) {
+                    logger.debug("Received message abort chunk; error={}, reason={}",
+                            ((UaSerializationException) t).getStatusCode(), t.getCause().getMessage());
+
+                    failRequest(requestId, t.getCause());
+                } else {
                     logger.error("Error decoding symmetric message: {}", t.getMessage(), t);
+                    failRequest(requestId, t);
                     ctx.close();
                     serializationQueue.pause();
-                } finally {
-                    if (decodedBuffer != null) {
-                        decodedBuffer.release();
-                    }
-                    buffersToDecode.clear();
                 }
-            });
+            } finally {
+                decodedBuffer.release();
+            }
+        });
+    }
+
+    private void receiveResponse(BinaryDecoder binaryDecoder, ByteBuf decodedBuffer, long requestId) {
+        binaryDecoder.setBuffer(decodedBuffer);
+        UaResponseMessage response = binaryDecoder.decodeMessage(null);
+
+        UaRequestFuture request = pending.remove(requestId);
+
+        if (request != null) {
+            client.getExecutorService().execute(
+                    () -> request.getFuture().complete(response));
+        } else {
+            logger.warn("No UaRequestFuture for requestId={}", requestId);
         }
     }
 
-    private void validateChunkHeaders(List<ByteBuf> chunkBuffers) throws UaException {
+    private void failRequest(long requestId, Throwable e) {
+        UaRequestFuture request = pending.remove(requestId);
+
+        if (request != null) {
+            client.getExecutorService().execute(
+                    () -> request.getFuture().completeExceptionally(e));
+        } else {
+            logger.warn("No UaRequestFuture for requestId={}", requestId);
+        }
+    }
+
+    /**
+     * Fail a request that couldn't be sent, whether or not any of its chunks were.
+     */
+    private void failRequest(long requestId, UaRequestFuture request, Throwable cause) {
+        pending.remove(requestId, request);
+
+        client.getExecutorService().execute(
+                () -> request.getFuture().completeExceptionally(cause));
+    }
+
+    private void validateChunkHeader(ByteBuf chunkBuffer) throws UaException {
         ChannelSecurity channelSecurity = secureChannel.getChannelSecurity();
         long currentTokenId = channelSecurity.getCurrentToken().getTokenId().longValue();
         long previousTokenId = channelSecurity.getPreviousToken()
                 .map(t -> t.getTokenId().longValue())
                 .orElse(-1L);
 
-        for (ByteBuf chunkBuffer : chunkBuffers) {
-            chunkBuffer.skipBytes(3 + 1 + 4 + 4); // skip messageType, chunkType, messageSize, secureChannelId
+        chunkBuffer.skipBytes(3 + 1 + 4 + 4); // skip messageType, chunkType, messageSize, secureChannelId
 
-            SymmetricSecurityHeader securityHeader = SymmetricSecurityHeader.decode(chunkBuffer);
+        SymmetricSecurityHeader securityHeader = SymmetricSecurityHeader.decode(chunkBuffer);
 
-            if (securityHeader.getTokenId() != currentTokenId) {
-                if (securityHeader.getTokenId() != previousTokenId) {
-                    String message = String.format(
-                            "received unknown secure channel token. " +
-                                    "tokenId=%s, previousTokenId=%s, currentTokenId=%s",
-                            securityHeader.getTokenId(), previousTokenId, currentTokenId);
+        if (securityHeader.getTokenId() != currentTokenId) {
+            if (securityHeader.getTokenId() != previousTokenId) {
+                String message = String.format(
+                        "received unknown secure channel token. " +
+                                "tokenId=%s, previousTokenId=%s, currentTokenId=%s",
+                        securityHeader.getTokenId(), previousTokenId, currentTokenId);
 
-                    throw new UaException(StatusCodes.Bad_SecureChannelTokenUnknown, message);
-                }
+                throw new UaException(StatusCodes.Bad_SecureChannelTokenUnknown, message);
             }
-
-            chunkBuffer.readerIndex(0);
         }
+
+        chunkBuffer.readerIndex(0);
     }
 
     private void onError(ChannelHandlerContext ctx, ByteBuf buffer) {
@@ -269,6 +339,9 @@ public class UaTcpClientSymmetricHandler extends ByteToMessageCodec<UaRequestFut
         handshakeFuture.completeExceptionally(
                 new UaException(StatusCodes.Bad_ConnectionClosed, "connection closed"));
 
+        serializationQueue.failIncrementalDecoding(
+                new UaException(StatusCodes.Bad_ConnectionClosed, "connection closed"));
+
         super.channelInactive(ctx);
     }
 
@@ -18,6 +18,7 @@ package com.digitalpetri.opcua.stack.core;
 
 
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeIdCache;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 
 public class Identifiers {
@@ -4915,7 +4916,11 @@ public class Identifiers {
     public static final NodeId YArrayItemType = init(12029);
 
     static NodeId init(int value) {
-        return new NodeId(Unsigned.ushort(0), Unsigned.uint(value));
+        if (value < NodeIdCache.NAMESPACE_ZERO_TABLE_SIZE) {
+            return NodeIdCache.namespaceZero(value);
+        } else {
+            return new NodeId(Unsigned.ushort(0), Unsigned.uint(value));
+        }
     }
 
 }
@@ -18,11 +18,14 @@ package com.digitalpetri.opcua.stack.core;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.digitalpetri.opcua.stack.core.channel.CryptoExecutor;
 import com.digitalpetri.opcua.stack.core.util.ManifestUtil;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.HashedWheelTimer;
@@ -42,6 +45,8 @@ public final class Stack {
 
     private static NioEventLoopGroup EVENT_LOOP;
     private static ExecutorService EXECUTOR_SERVICE;
+    private static CryptoExecutor CRYPTO_EXECUTOR;
+    private static ExecutorService DECODING_EXECUTOR_SERVICE;
     private static ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE;
     private static HashedWheelTimer WHEEL_TIMER;
 
@@ -89,6 +94,62 @@ public final class Stack {
         return EXECUTOR_SERVICE;
     }
 
+    /**
+     * @return a shared {@link CryptoExecutor} with one thread per available processor.
+     */
+    public static synchronized CryptoExecutor sharedCryptoExecutor() {
+        if (CRYPTO_EXECUTOR == null) {
+            ThreadFactory threadFactory = new ThreadFactory() {
+                private final AtomicLong threadNumber = new AtomicLong(0L);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ua-crypto-pool-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+
+            int threadCount = Runtime.getRuntime().availableProcessors();
+
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    threadCount, threadCount,
+                    60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    threadFactory
+            );
+
+            executor.allowCoreThreadTimeOut(true);
+
+            CRYPTO_EXECUTOR = new CryptoExecutor(executor, CryptoExecutor.DEFAULT_MAX_PENDING_TASKS);
+        }
+
+        return CRYPTO_EXECUTOR;
+    }
+
+    /**
+     * @return a shared {@link ExecutorService} for decoding messages while their chunks are still being received. Its
+     * tasks block waiting for chunks, so it is kept apart from the executors serialization and callbacks run on.
+     */
+    public static synchronized ExecutorService sharedDecodingExecutor() {
+        if (DECODING_EXECUTOR_SERVICE == null) {
+            ThreadFactory threadFactory = new ThreadFactory() {
+                private final AtomicLong threadNumber = new AtomicLong(0L);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ua-decoding-pool-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+
+            DECODING_EXECUTOR_SERVICE = Executors.newCachedThreadPool(threadFactory);
+        }
+
+        return DECODING_EXECUTOR_SERVICE;
+    }
+
     /**
      * @return a shared {@link ScheduledExecutorService}.
      */
@@ -163,6 +224,16 @@ public final class Stack {
             EXECUTOR_SERVICE = null;
         }
 
+        if (CRYPTO_EXECUTOR != null) {
+            CRYPTO_EXECUTOR.getExecutorService().shutdown();
+            CRYPTO_EXECUTOR = null;
+        }
+
+        if (DECODING_EXECUTOR_SERVICE != null) {
+            DECODING_EXECUTOR_SERVICE.shutdown();
+            DECODING_EXECUTOR_SERVICE = null;
+        }
+
         if (WHEEL_TIMER != null) {
             WHEEL_TIMER.stop().forEach(Timeout::cancel);
             WHEEL_TIMER = null;
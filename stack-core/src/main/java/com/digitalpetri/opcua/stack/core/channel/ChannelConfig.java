@@ -42,11 +42,41 @@ public class ChannelConfig {
     public static final int DEFAULT_MAX_ARRAY_LENGTH = 65536;
     public static final int DEFAULT_MAX_STRING_LENGTH = 65536;
 
+    /**
+     * The default size of the per-channel decoded string cache; 0, so there is no cache unless one is configured.
+     */
+    public static final int DEFAULT_STRING_CACHE_SIZE = 0;
+
+    /**
+     * By default Variant arrays of primitive types are decoded as arrays of the boxed type, e.g. {@code Double[]}.
+     */
+    public static final boolean DEFAULT_DECODE_PRIMITIVE_ARRAYS = false;
+
+    /**
+     * By default the binary bodies of decoded ExtensionObjects are copied out of the message.
+     */
+    public static final boolean DEFAULT_RETAIN_EXTENSION_OBJECT_BODIES = false;
+
+    /**
+     * By default a message is decoded once all of its chunks have been received.
+     */
+    public static final boolean DEFAULT_DECODE_INCREMENTALLY = false;
+
+    /**
+     * The default time, in milliseconds, that a message being decoded incrementally waits for its next chunk.
+     */
+    public static final long DEFAULT_INCREMENTAL_DECODE_TIMEOUT = 60000L;
+
     private final int maxChunkSize;
     private final int maxChunkCount;
     private final int maxMessageSize;
     private final int maxArrayLength;
     private final int maxStringLength;
+    private final int stringCacheSize;
+    private final boolean decodePrimitiveArrays;
+    private final boolean retainExtensionObjectBodies;
+    private final boolean decodeIncrementally;
+    private final long incrementalDecodeTimeout;
 
     /**
      * Create a {@link ChannelConfig} using the default parameters.
@@ -66,6 +96,9 @@ public class ChannelConfig {
     }
 
     /**
+     * Create a {@link ChannelConfig} with the given limits and the default decoding options. Use {@link #builder()}
+     * to set the decoding options.
+     *
      * @param maxChunkSize   The maximum size of a single chunk. Must be greater than 8192.
      * @param maxChunkCount  The maximum number of chunks that a message can break down into.
      * @param maxMessageSize The maximum size of a message after all chunks have been assembled.
@@ -75,14 +108,43 @@ public class ChannelConfig {
                          int maxMessageSize,
                          int maxArrayLength,
                          int maxStringLength) {
+
+        this(maxChunkSize, maxChunkCount, maxMessageSize, maxArrayLength, maxStringLength,
+                DEFAULT_STRING_CACHE_SIZE,
+                DEFAULT_DECODE_PRIMITIVE_ARRAYS,
+                DEFAULT_RETAIN_EXTENSION_OBJECT_BODIES,
+                DEFAULT_DECODE_INCREMENTALLY,
+                DEFAULT_INCREMENTAL_DECODE_TIMEOUT);
+    }
+
+    ChannelConfig(int maxChunkSize,
+                  int maxChunkCount,
+                  int maxMessageSize,
+                  int maxArrayLength,
+                  int maxStringLength,
+                  int stringCacheSize,
+                  boolean decodePrimitiveArrays,
+                  boolean retainExtensionObjectBodies,
+                  boolean decodeIncrementally,
+                  long incrementalDecodeTimeout) {
+
         Preconditions.checkArgument(maxChunkSize > 8192,
                 "maxChunkSize must be greater than 8192");
+        Preconditions.checkArgument(stringCacheSize >= 0,
+                "stringCacheSize must be non-negative");
+        Preconditions.checkArgument(incrementalDecodeTimeout > 0,
+                "incrementalDecodeTimeout must be positive");
 
         this.maxChunkSize = maxChunkSize;
         this.maxChunkCount = maxChunkCount;
         this.maxMessageSize = maxMessageSize;
         this.maxArrayLength = maxArrayLength;
         this.maxStringLength = maxStringLength;
+        this.stringCacheSize = stringCacheSize;
+        this.decodePrimitiveArrays = decodePrimitiveArrays;
+        this.retainExtensionObjectBodies = retainExtensionObjectBodies;
+        this.decodeIncrementally = decodeIncrementally;
+        this.incrementalDecodeTimeout = incrementalDecodeTimeout;
     }
 
     public int getMaxChunkSize() {
@@ -105,4 +167,31 @@ public class ChannelConfig {
         return maxStringLength;
     }
 
+    public int getStringCacheSize() {
+        return stringCacheSize;
+    }
+
+    public boolean isDecodePrimitiveArrays() {
+        return decodePrimitiveArrays;
+    }
+
+    public boolean isRetainExtensionObjectBodies() {
+        return retainExtensionObjectBodies;
+    }
+
+    public boolean isDecodeIncrementally() {
+        return decodeIncrementally;
+    }
+
+    public long getIncrementalDecodeTimeout() {
+        return incrementalDecodeTimeout;
+    }
+
+    /**
+     * @return a {@link ChannelConfigBuilder} starting from the default settings.
+     */
+    public static ChannelConfigBuilder builder() {
+        return new ChannelConfigBuilder();
+    }
+
 }
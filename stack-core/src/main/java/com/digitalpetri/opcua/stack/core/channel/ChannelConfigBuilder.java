@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.serialization.binary.StringCache;
+import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
+
+public class ChannelConfigBuilder {
+
+    private int maxChunkSize = ChannelConfig.DEFAULT_MAX_CHUNK_SIZE;
+    private int maxChunkCount = ChannelConfig.DEFAULT_MAX_CHUNK_COUNT;
+    private int maxMessageSize = ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE;
+    private int maxArrayLength = ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH;
+    private int maxStringLength = ChannelConfig.DEFAULT_MAX_STRING_LENGTH;
+    private int stringCacheSize = ChannelConfig.DEFAULT_STRING_CACHE_SIZE;
+    private boolean decodePrimitiveArrays = ChannelConfig.DEFAULT_DECODE_PRIMITIVE_ARRAYS;
+    private boolean retainExtensionObjectBodies = ChannelConfig.DEFAULT_RETAIN_EXTENSION_OBJECT_BODIES;
+    private boolean decodeIncrementally = ChannelConfig.DEFAULT_DECODE_INCREMENTALLY;
+    private long incrementalDecodeTimeout = ChannelConfig.DEFAULT_INCREMENTAL_DECODE_TIMEOUT;
+
+    /**
+     * @param maxChunkSize the maximum size of a single chunk. Must be greater than 8192.
+     */
+    public ChannelConfigBuilder setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+        return this;
+    }
+
+    /**
+     * @param maxChunkCount the maximum number of chunks that a message can break down into.
+     */
+    public ChannelConfigBuilder setMaxChunkCount(int maxChunkCount) {
+        this.maxChunkCount = maxChunkCount;
+        return this;
+    }
+
+    /**
+     * @param maxMessageSize the maximum size of a message after all chunks have been assembled.
+     */
+    public ChannelConfigBuilder setMaxMessageSize(int maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+        return this;
+    }
+
+    public ChannelConfigBuilder setMaxArrayLength(int maxArrayLength) {
+        this.maxArrayLength = maxArrayLength;
+        return this;
+    }
+
+    public ChannelConfigBuilder setMaxStringLength(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+        return this;
+    }
+
+    /**
+     * @param stringCacheSize the number of entries in each channel's decoded string cache, or 0 for no cache. See
+     *                        {@link StringCache}.
+     */
+    public ChannelConfigBuilder setStringCacheSize(int stringCacheSize) {
+        this.stringCacheSize = stringCacheSize;
+        return this;
+    }
+
+    /**
+     * @param decodePrimitiveArrays if {@code true}, Variant arrays of Boolean, SByte, Int16, Int32, Int64, Float and
+     *                              Double are decoded as primitive arrays, e.g. {@code double[]} instead of
+     *                              {@code Double[]}.
+     */
+    public ChannelConfigBuilder setDecodePrimitiveArrays(boolean decodePrimitiveArrays) {
+        this.decodePrimitiveArrays = decodePrimitiveArrays;
+        return this;
+    }
+
+    /**
+     * @param retainExtensionObjectBodies if {@code true}, decoded ExtensionObjects keep their binary body as a retained
+     *                                    slice of the message buffer rather than a copy, and decode it only when asked
+     *                                    to. Each such ExtensionObject must have its body decoded or copied, or be
+     *                                    released; see {@link ExtensionObject#release()}.
+     */
+    public ChannelConfigBuilder setRetainExtensionObjectBodies(boolean retainExtensionObjectBodies) {
+        this.retainExtensionObjectBodies = retainExtensionObjectBodies;
+        return this;
+    }
+
+    /**
+     * @param decodeIncrementally if {@code true}, a message of several chunks starts being decoded when its first
+     *                            chunk arrives, on a task of its own that waits for the rest, and each chunk is
+     *                            released once it has been decoded. That task runs on
+     *                            {@link Stack#sharedDecodingExecutor()}, not the executor the channel's serialization
+     *                            runs on.
+     */
+    public ChannelConfigBuilder setDecodeIncrementally(boolean decodeIncrementally) {
+        this.decodeIncrementally = decodeIncrementally;
+        return this;
+    }
+
+    /**
+     * @param incrementalDecodeTimeout how long, in milliseconds, a message being decoded incrementally waits for its
+     *                                 next chunk before it fails with {@link StatusCodes#Bad_Timeout}.
+     */
+    public ChannelConfigBuilder setIncrementalDecodeTimeout(long incrementalDecodeTimeout) {
+        this.incrementalDecodeTimeout = incrementalDecodeTimeout;
+        return this;
+    }
+
+    public ChannelConfig build() {
+        return new ChannelConfig(
+                maxChunkSize,
+                maxChunkCount,
+                maxMessageSize,
+                maxArrayLength,
+                maxStringLength,
+                stringCacheSize,
+                decodePrimitiveArrays,
+                retainExtensionObjectBodies,
+                decodeIncrementally,
+                incrementalDecodeTimeout
+        );
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package com.digitalpetri.opcua.stack.core.channel;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import com.digitalpetri.opcua.stack.core.security.SecurityAlgorithm;
@@ -75,29 +76,27 @@ public class ChannelSecurity {
         assert (clientNonce != null);
         assert (serverNonce != null);
 
-        byte[] clientSignatureKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-                PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(), 0, signatureKeySize) :
-                PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(), 0, signatureKeySize);
+        int keyBlockSize = signatureKeySize + encryptionKeySize + cipherTextBlockSize;
 
-        byte[] clientEncryptionKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-                PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(), signatureKeySize, encryptionKeySize) :
-                PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(), signatureKeySize, encryptionKeySize);
+        /*
+         * Derive each direction's signature key, encryption key and initialization vector with a single P_hash
+         * expansion and slice it up, rather than re-running the expansion from the start for every key.
+         */
+        byte[] clientKeyBlock = (keyDerivation == SecurityAlgorithm.PSha1) ?
+                PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(), 0, keyBlockSize) :
+                PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(), 0, keyBlockSize);
 
-        byte[] clientInitializationVector = (keyDerivation == SecurityAlgorithm.PSha1) ?
-                PShaUtil.createPSha1Key(serverNonce.bytes(), clientNonce.bytes(), signatureKeySize + encryptionKeySize, cipherTextBlockSize) :
-                PShaUtil.createPSha256Key(serverNonce.bytes(), clientNonce.bytes(), signatureKeySize + encryptionKeySize, cipherTextBlockSize);
+        byte[] serverKeyBlock = (keyDerivation == SecurityAlgorithm.PSha1) ?
+                PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(), 0, keyBlockSize) :
+                PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(), 0, keyBlockSize);
 
-        byte[] serverSignatureKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-                PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(), 0, signatureKeySize) :
-                PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(), 0, signatureKeySize);
+        byte[] clientSignatureKey = Arrays.copyOfRange(clientKeyBlock, 0, signatureKeySize);
+        byte[] clientEncryptionKey = Arrays.copyOfRange(clientKeyBlock, signatureKeySize, signatureKeySize + encryptionKeySize);
+        byte[] clientInitializationVector = Arrays.copyOfRange(clientKeyBlock, signatureKeySize + encryptionKeySize, keyBlockSize);
 
-        byte[] serverEncryptionKey = (keyDerivation == SecurityAlgorithm.PSha1) ?
-                PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(), signatureKeySize, encryptionKeySize) :
-                PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(), signatureKeySize, encryptionKeySize);
-
-        byte[] serverInitializationVector = (keyDerivation == SecurityAlgorithm.PSha1) ?
-                PShaUtil.createPSha1Key(clientNonce.bytes(), serverNonce.bytes(), signatureKeySize + encryptionKeySize, cipherTextBlockSize) :
-                PShaUtil.createPSha256Key(clientNonce.bytes(), serverNonce.bytes(), signatureKeySize + encryptionKeySize, cipherTextBlockSize);
+        byte[] serverSignatureKey = Arrays.copyOfRange(serverKeyBlock, 0, signatureKeySize);
+        byte[] serverEncryptionKey = Arrays.copyOfRange(serverKeyBlock, signatureKeySize, signatureKeySize + encryptionKeySize);
+        byte[] serverInitializationVector = Arrays.copyOfRange(serverKeyBlock, signatureKeySize + encryptionKeySize, keyBlockSize);
 
         return new SecuritySecrets(
                 new SecretKeys(clientSignatureKey, clientEncryptionKey, clientInitializationVector),
@@ -21,11 +21,16 @@ import java.nio.ByteOrder;
 import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -47,6 +52,9 @@ import org.slf4j.LoggerFactory;
 
 public class ChunkDecoder {
 
+    // A multiple of every symmetric cipher block size.
+    private static final int DECRYPTION_SEGMENT_SIZE = 4096;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     private final Delegate asymmetricDelegate = new AsymmetricDelegate();
@@ -55,10 +63,30 @@ public class ChunkDecoder {
     private volatile long lastSequenceNumber = -1L;
     private volatile long lastRequestId;
 
+    // The chunks of the symmetric message currently being received by decodeSymmetricChunk, if any.
+    private CompositeByteBuf symmetricMessage;
+
+    // The symmetric message currently being received by decodeSymmetricChunkIncrementally, if any.
+    private final AtomicReference<StreamingMessageBuffer> streamingMessage = new AtomicReference<>();
+
+    private final byte[] cipherTextSegment = new byte[DECRYPTION_SEGMENT_SIZE];
+    private final byte[] plainTextSegment = new byte[DECRYPTION_SEGMENT_SIZE];
+
     private final ChannelParameters parameters;
+    private final long incrementalDecodeTimeout;
 
     public ChunkDecoder(ChannelParameters parameters) {
+        this(parameters, ChannelConfig.DEFAULT_INCREMENTAL_DECODE_TIMEOUT);
+    }
+
+    /**
+     * @param incrementalDecodeTimeout how long, in milliseconds, a read from a message returned by
+     *                                 {@link #decodeSymmetricChunkIncrementally(SecureChannel, ByteBuf)} waits for its
+     *                                 next chunk before the message fails with {@link StatusCodes#Bad_Timeout}.
+     */
+    public ChunkDecoder(ChannelParameters parameters, long incrementalDecodeTimeout) {
         this.parameters = parameters;
+        this.incrementalDecodeTimeout = incrementalDecodeTimeout;
     }
 
     public ByteBuf decodeAsymmetric(SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
@@ -69,71 +97,224 @@ public class ChunkDecoder {
         return decode(symmetricDelegate, channel, chunkBuffers);
     }
 
+    /**
+     * Decode the next chunk of a symmetric message as soon as it arrives.
+     * <p>
+     * The chunk's signature is verified, it is decrypted and its sequence number checked immediately, rather than once
+     * every chunk of the message has been received. The decoded body is held until the final chunk arrives.
+     * <p>
+     * If decoding fails, including on an abort chunk, the chunk and every chunk of the same message decoded so far are
+     * released.
+     *
+     * @param channel     the {@link SecureChannel} the chunk was received on.
+     * @param chunkBuffer the chunk to decode.
+     * @return the assembled message once the final chunk has been decoded, otherwise {@code null}.
+     * @throws MessageAbortedException if {@code chunkBuffer} is an abort chunk.
+     */
+    @Nullable
+    public ByteBuf decodeSymmetricChunk(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
+        char chunkType = (char) chunkBuffer.getByte(3);
+
+        if (symmetricMessage == null) {
+            symmetricMessage = BufferUtil.compositeBuffer();
+        }
+
+        ByteBuf bodyBuffer;
+
+        try {
+            bodyBuffer = decodeChunk(symmetricDelegate, channel, chunkBuffer);
+        } catch (UaException | RuntimeException e) {
+            // A malformed chunk can fail with e.g. IndexOutOfBoundsException rather than a UaException.
+            chunkBuffer.release();
+            symmetricMessage.release();
+            symmetricMessage = null;
+
+            throw e;
+        }
+
+        symmetricMessage.addComponent(bodyBuffer);
+        symmetricMessage.writerIndex(symmetricMessage.writerIndex() + bodyBuffer.readableBytes());
+
+        if (chunkType == 'F') {
+            ByteBuf messageBuffer = symmetricMessage.order(ByteOrder.LITTLE_ENDIAN);
+            symmetricMessage = null;
+            return messageBuffer;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Decode the next chunk of a symmetric message, making the message available as soon as its first chunk has been
+     * decoded.
+     * <p>
+     * A single-chunk message is returned complete, as by {@link #decodeSymmetricChunk(SecureChannel, ByteBuf)}. For a
+     * message of several chunks, the first chunk returns a message buffer that the bodies of the chunks that follow are
+     * appended to as they are decoded. Reads from it wait for bodies that haven't been appended yet, and each body is
+     * released once reading has moved past it, so the message can be decoded on another thread while its remaining
+     * chunks are still being received, holding on to only the chunks it hasn't finished with. The caller holds the only
+     * reference to the message buffer and must release it on the thread that reads from it, once reading is done.
+     * <p>
+     * If a later chunk fails to decode, or is an abort chunk, reads from the message buffer fail with a
+     * {@link com.digitalpetri.opcua.stack.core.UaSerializationException} caused by the same exception this method
+     * throws.
+     *
+     * @param channel     the {@link SecureChannel} the chunk was received on.
+     * @param chunkBuffer the chunk to decode.
+     * @return the message, complete or still being received, if {@code chunkBuffer} was its first chunk; otherwise
+     * {@code null}.
+     * @throws MessageAbortedException if {@code chunkBuffer} is an abort chunk.
+     */
+    @Nullable
+    public ByteBuf decodeSymmetricChunkIncrementally(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
+        char chunkType = (char) chunkBuffer.getByte(3);
+
+        StreamingMessageBuffer message = streamingMessage.get();
+
+        if (message == null && chunkType != 'C') {
+            return decodeSymmetricChunk(channel, chunkBuffer);
+        }
+
+        ByteBuf bodyBuffer;
+
+        try {
+            bodyBuffer = decodeChunk(symmetricDelegate, channel, chunkBuffer);
+        } catch (UaException | RuntimeException e) {
+            chunkBuffer.release();
+
+            if (message != null && streamingMessage.compareAndSet(message, null)) {
+                message.fail(e instanceof UaException ?
+                        (UaException) e : new UaException(StatusCodes.Bad_DecodingError, e));
+            }
+
+            throw e;
+        }
+
+        if (message == null) {
+            // A max message size of 0 means there is no limit.
+            int maxMessageSize = parameters.getLocalMaxMessageSize() > 0 ?
+                    parameters.getLocalMaxMessageSize() : Integer.MAX_VALUE;
+
+            message = new StreamingMessageBuffer(maxMessageSize, incrementalDecodeTimeout);
+            message.append(bodyBuffer);
+
+            // No reference is held here; appending to a message the reader has released just releases the body.
+            streamingMessage.set(message);
+
+            return message.order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            message.append(bodyBuffer);
+
+            if (chunkType == 'F' && streamingMessage.compareAndSet(message, null)) {
+                message.complete();
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Fail the symmetric message being received by
+     * {@link #decodeSymmetricChunkIncrementally(SecureChannel, ByteBuf)}, if there is one, e.g. because the channel
+     * has closed and the rest of it will never arrive.
+     */
+    public void failIncrementalMessage(UaException failure) {
+        StreamingMessageBuffer message = streamingMessage.getAndSet(null);
+
+        if (message != null) {
+            message.fail(failure);
+        }
+    }
+
     private ByteBuf decode(Delegate delegate, SecureChannel channel, List<ByteBuf> chunkBuffers) throws UaException {
         CompositeByteBuf composite = BufferUtil.compositeBuffer();
 
+        for (ByteBuf chunkBuffer : chunkBuffers) {
+            ByteBuf bodyBuffer = decodeChunk(delegate, channel, chunkBuffer);
+
+            composite.addComponent(bodyBuffer);
+            composite.writerIndex(composite.writerIndex() + bodyBuffer.readableBytes());
+        }
+
+        return composite.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Verify, decrypt and check the sequence number of a single chunk.
+     *
+     * @return a slice of {@code chunkBuffer} containing the chunk body.
+     * @throws MessageAbortedException if {@code chunkBuffer} is an abort chunk.
+     */
+    private ByteBuf decodeChunk(Delegate delegate, SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
         int signatureSize = delegate.getSignatureSize(channel);
         int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
 
         boolean encrypted = delegate.isEncryptionEnabled(channel);
         boolean signed = delegate.isSigningEnabled(channel);
 
-        for (ByteBuf chunkBuffer : chunkBuffers) {
-            char chunkType = (char) chunkBuffer.getByte(3);
+        char chunkType = (char) chunkBuffer.getByte(3);
 
-            chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
+        chunkBuffer.skipBytes(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE);
 
-            delegate.readSecurityHeader(channel, chunkBuffer);
+        delegate.readSecurityHeader(channel, chunkBuffer);
 
-            if (encrypted) {
-                decryptChunk(delegate, channel, chunkBuffer);
-            }
+        if (encrypted) {
+            decryptChunk(delegate, channel, chunkBuffer);
+        }
 
-            int encryptedStart = chunkBuffer.readerIndex();
-            chunkBuffer.readerIndex(0);
+        int encryptedStart = chunkBuffer.readerIndex();
+        chunkBuffer.readerIndex(0);
 
-            if (signed) {
+        if (signed) {
+            try {
                 delegate.verifyChunk(channel, chunkBuffer);
+            } catch (UaException | RuntimeException e) {
+                // A Signature or Mac that failed part way through is in an unknown state; don't reuse it.
+                delegate.invalidate();
+                throw e;
             }
+        }
 
-            int paddingSize = encrypted ? getPaddingSize(cipherTextBlockSize, signatureSize, chunkBuffer) : 0;
-            int bodyEnd = chunkBuffer.readableBytes() - signatureSize - paddingSize;
+        int paddingSize = encrypted ? getPaddingSize(cipherTextBlockSize, signatureSize, chunkBuffer) : 0;
+        int bodyEnd = chunkBuffer.readableBytes() - signatureSize - paddingSize;
 
-            chunkBuffer.readerIndex(encryptedStart);
+        chunkBuffer.readerIndex(encryptedStart);
 
-            SequenceHeader sequenceHeader = SequenceHeader.decode(chunkBuffer);
-            long sequenceNumber = sequenceHeader.getSequenceNumber();
-            lastRequestId = sequenceHeader.getRequestId();
+        SequenceHeader sequenceHeader = SequenceHeader.decode(chunkBuffer);
+        long sequenceNumber = sequenceHeader.getSequenceNumber();
+        lastRequestId = sequenceHeader.getRequestId();
 
-            if (lastSequenceNumber == -1) {
-                lastSequenceNumber = sequenceNumber;
-            } else {
-                if (lastSequenceNumber + 1 != sequenceNumber) {
-                    String message = String.format("expected sequence number %s but received %s",
-                            lastSequenceNumber + 1, sequenceNumber);
+        if (lastSequenceNumber == -1) {
+            lastSequenceNumber = sequenceNumber;
+        } else {
+            if (lastSequenceNumber + 1 != sequenceNumber) {
+                String message = String.format("expected sequence number %s but received %s",
+                        lastSequenceNumber + 1, sequenceNumber);
 
-                    logger.error(message);
-                    logger.error(ByteBufUtil.hexDump(chunkBuffer, 0, chunkBuffer.writerIndex()));
+                logger.error(message);
+                logger.error(ByteBufUtil.hexDump(chunkBuffer, 0, chunkBuffer.writerIndex()));
 
-                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, message);
-                }
-
-                lastSequenceNumber = sequenceNumber;
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, message);
             }
 
-            ByteBuf bodyBuffer = chunkBuffer.readSlice(bodyEnd - chunkBuffer.readerIndex());
+            lastSequenceNumber = sequenceNumber;
+        }
+
+        if (bodyEnd < chunkBuffer.readerIndex()) {
+            throw new UaException(StatusCodes.Bad_DecodingError,
+                    String.format("invalid padding size (%s) for chunk of %s bytes",
+                            paddingSize, chunkBuffer.writerIndex()));
+        }
 
-            if (chunkType == 'A') {
-                ErrorMessage errorMessage = ErrorMessage.decode(bodyBuffer);
+        ByteBuf bodyBuffer = chunkBuffer.readSlice(bodyEnd - chunkBuffer.readerIndex());
 
-                throw new MessageAbortedException(errorMessage.getError(), errorMessage.getReason());
-            }
+        if (chunkType == 'A') {
+            ErrorMessage errorMessage = ErrorMessage.decode(bodyBuffer);
 
-            composite.addComponent(bodyBuffer);
-            composite.writerIndex(composite.writerIndex() + bodyBuffer.readableBytes());
+            throw new MessageAbortedException(errorMessage.getError(), errorMessage.getReason());
         }
 
-        return composite.order(ByteOrder.LITTLE_ENDIAN);
+        return bodyBuffer;
     }
 
     /**
@@ -147,15 +328,8 @@ public class ChunkDecoder {
         int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
         int blockCount = chunkBuffer.readableBytes() / cipherTextBlockSize;
 
-        int plainTextBufferSize = cipherTextBlockSize * blockCount;
-
-        ByteBuf plainTextBuffer = BufferUtil.buffer(plainTextBufferSize);
-
-        ByteBuffer plainTextNioBuffer = plainTextBuffer
-                .writerIndex(plainTextBufferSize)
-                .nioBuffer();
-
-        ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer();
+        int cipherTextStart = chunkBuffer.readerIndex();
+        int plainTextLength = 0;
 
         try {
             Cipher cipher = delegate.getCipher(channel);
@@ -163,25 +337,59 @@ public class ChunkDecoder {
             assert (chunkBuffer.readableBytes() % cipherTextBlockSize == 0);
 
             if (delegate instanceof AsymmetricDelegate) {
+                /*
+                 * Plain text blocks are smaller than cipher text blocks, so decrypting from the first block to the
+                 * last only ever overwrites the block being decrypted or cipher text that has already been consumed.
+                 */
                 for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
-                    chunkNioBuffer.limit(chunkNioBuffer.position() + cipherTextBlockSize);
+                    ByteBuffer cipherTextNioBuffer = chunkBuffer.nioBuffer(
+                            cipherTextStart + blockNumber * cipherTextBlockSize, cipherTextBlockSize);
+                    ByteBuffer plainTextNioBuffer = chunkBuffer.nioBuffer(
+                            cipherTextStart + plainTextLength, cipherTextBlockSize);
 
-                    cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
+                    plainTextLength += cipher.doFinal(cipherTextNioBuffer, plainTextNioBuffer);
                 }
             } else {
-                cipher.doFinal(chunkNioBuffer, plainTextNioBuffer);
+                plainTextLength = decryptInPlace(cipher, chunkBuffer, cipherTextStart, blockCount * cipherTextBlockSize);
             }
         } catch (GeneralSecurityException e) {
+            // A Cipher that failed part way through is in an unknown state; don't use it for the next chunk.
+            delegate.invalidate();
             throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
         }
 
-        /* Write plainTextBuffer back into the chunk buffer we decrypted from. */
-        plainTextNioBuffer.flip(); // limit = pos, pos = 0
+        chunkBuffer.writerIndex(cipherTextStart + plainTextLength);
+    }
+
+    /**
+     * Decrypt {@code length} bytes of {@code buffer}, starting at {@code index}, in place.
+     * <p>
+     * The cipher text is streamed through the cipher in small segments and each plain text segment written back over
+     * the cipher text it came from, so no chunk-sized plain text buffer is needed.
+     *
+     * @return the number of plain text bytes written.
+     */
+    private int decryptInPlace(Cipher cipher, ByteBuf buffer, int index, int length) throws GeneralSecurityException {
+        int start = index;
+        int end = index + length;
+        int plainTextLength = 0;
+
+        while (index < end) {
+            int segmentLength = Math.min(end - index, DECRYPTION_SEGMENT_SIZE);
+
+            buffer.getBytes(index, cipherTextSegment, 0, segmentLength);
 
-        chunkBuffer.writerIndex(chunkBuffer.readerIndex());
-        chunkBuffer.writeBytes(plainTextNioBuffer);
+            int bytesWritten = (index + segmentLength < end) ?
+                    cipher.update(cipherTextSegment, 0, segmentLength, plainTextSegment, 0) :
+                    cipher.doFinal(cipherTextSegment, 0, segmentLength, plainTextSegment, 0);
 
-        plainTextBuffer.release();
+            buffer.setBytes(start + plainTextLength, plainTextSegment, 0, bytesWritten);
+
+            index += segmentLength;
+            plainTextLength += bytesWritten;
+        }
+
+        return plainTextLength;
     }
 
     private int getPaddingSize(int cipherTextBlockSize, int signatureSize, ByteBuf buffer) {
@@ -207,10 +415,27 @@ public class ChunkDecoder {
 
         boolean isSigningEnabled(SecureChannel channel);
 
+        /**
+         * Drop the cached verification and decryption engines so the next chunk initializes new ones.
+         */
+        void invalidate();
+
     }
 
     private static class AsymmetricDelegate implements Delegate {
 
+        /*
+         * Cipher and Signature are kept initialized between chunks; they reset themselves after each
+         * doFinal/verify and are only rebuilt if the algorithm or key changes.
+         */
+        private Cipher cipher;
+        private SecurityAlgorithm cipherAlgorithm;
+        private PrivateKey cipherKey;
+
+        private Signature signature;
+        private SecurityAlgorithm signatureAlgorithm;
+        private PublicKey signatureKey;
+
         @Override
         public void readSecurityHeader(SecureChannel channel, ByteBuf chunkBuffer) {
             AsymmetricSecurityHeader.decode(chunkBuffer);
@@ -218,14 +443,22 @@ public class ChunkDecoder {
 
         @Override
         public Cipher getCipher(SecureChannel channel) throws UaException {
-            try {
-                String transformation = channel.getSecurityPolicy().getAsymmetricEncryptionAlgorithm().getTransformation();
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.DECRYPT_MODE, channel.getKeyPair().getPrivate());
-                return cipher;
-            } catch (GeneralSecurityException e) {
-                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            SecurityAlgorithm algorithm = channel.getSecurityPolicy().getAsymmetricEncryptionAlgorithm();
+            PrivateKey privateKey = channel.getKeyPair().getPrivate();
+
+            if (cipher == null || cipherAlgorithm != algorithm || cipherKey != privateKey) {
+                try {
+                    cipher = Cipher.getInstance(algorithm.getTransformation());
+                    cipher.init(Cipher.DECRYPT_MODE, privateKey);
+                    cipherAlgorithm = algorithm;
+                    cipherKey = privateKey;
+                } catch (GeneralSecurityException e) {
+                    cipher = null;
+                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                }
             }
+
+            return cipher;
         }
 
         @Override
@@ -240,16 +473,21 @@ public class ChunkDecoder {
 
         @Override
         public void verifyChunk(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
-            String transformation = channel.getSecurityPolicy().getAsymmetricSignatureAlgorithm().getTransformation();
+            SecurityAlgorithm algorithm = channel.getSecurityPolicy().getAsymmetricSignatureAlgorithm();
+            PublicKey publicKey = channel.getRemoteCertificate().getPublicKey();
             int signatureSize = channel.getRemoteAsymmetricSignatureSize();
 
             ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
             chunkNioBuffer.position(0).limit(chunkBuffer.writerIndex() - signatureSize);
 
             try {
-                Signature signature = Signature.getInstance(transformation);
+                if (signature == null || signatureAlgorithm != algorithm || signatureKey != publicKey) {
+                    signature = Signature.getInstance(algorithm.getTransformation());
+                    signature.initVerify(publicKey);
+                    signatureAlgorithm = algorithm;
+                    signatureKey = publicKey;
+                }
 
-                signature.initVerify(channel.getRemoteCertificate().getPublicKey());
                 signature.update(chunkNioBuffer);
 
                 byte[] signatureBytes = new byte[signatureSize];
@@ -260,8 +498,10 @@ public class ChunkDecoder {
                     throw new UaException(StatusCodes.Bad_SecurityChecksFailed, "could not verify signature");
                 }
             } catch (NoSuchAlgorithmException | SignatureException e) {
+                signature = null;
                 throw new UaException(StatusCodes.Bad_InternalError, e);
             } catch (InvalidKeyException e) {
+                signature = null;
                 throw new UaException(StatusCodes.Bad_CertificateInvalid, e);
             }
         }
@@ -276,6 +516,12 @@ public class ChunkDecoder {
             return channel.isAsymmetricEncryptionEnabled();
         }
 
+        @Override
+        public void invalidate() {
+            signature = null;
+            cipher = null;
+        }
+
     }
 
     private static class SymmetricDelegate implements Delegate {
@@ -284,6 +530,16 @@ public class ChunkDecoder {
 
         private volatile ChannelSecurity.SecuritySecrets securitySecrets;
 
+        /*
+         * Cipher and Mac are initialized once per SecuritySecrets, i.e. once per secure channel token, and re-used
+         * for every chunk. Both return to their initialized state (same key, same IV) after each doFinal.
+         */
+        private Cipher cipher;
+        private ChannelSecurity.SecuritySecrets cipherSecrets;
+
+        private Mac mac;
+        private ChannelSecurity.SecuritySecrets macSecrets;
+
         @Override
         public void readSecurityHeader(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
             long receivedTokenId = SymmetricSecurityHeader.decode(chunkBuffer).getTokenId();
@@ -323,20 +579,26 @@ public class ChunkDecoder {
 
         @Override
         public Cipher getCipher(SecureChannel channel) throws UaException {
-            try {
-                String transformation = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm().getTransformation();
-                ChannelSecurity.SecretKeys decryptionKeys = channel.getDecryptionKeys(securitySecrets);
-
-                SecretKeySpec keySpec = new SecretKeySpec(decryptionKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(decryptionKeys.getInitializationVector());
-
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
-
-                return cipher;
-            } catch (GeneralSecurityException e) {
-                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            ChannelSecurity.SecuritySecrets secrets = securitySecrets;
+
+            if (cipher == null || cipherSecrets != secrets) {
+                try {
+                    String transformation = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm().getTransformation();
+                    ChannelSecurity.SecretKeys decryptionKeys = channel.getDecryptionKeys(secrets);
+
+                    SecretKeySpec keySpec = new SecretKeySpec(decryptionKeys.getEncryptionKey(), "AES");
+                    IvParameterSpec ivSpec = new IvParameterSpec(decryptionKeys.getInitializationVector());
+
+                    cipher = Cipher.getInstance(transformation);
+                    cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
+                    cipherSecrets = secrets;
+                } catch (GeneralSecurityException e) {
+                    cipher = null;
+                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                }
             }
+
+            return cipher;
         }
 
         @Override
@@ -351,14 +613,27 @@ public class ChunkDecoder {
 
         @Override
         public void verifyChunk(SecureChannel channel, ByteBuf chunkBuffer) throws UaException {
-            SecurityAlgorithm securityAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] secretKey = channel.getDecryptionKeys(securitySecrets).getSignatureKey();
+            ChannelSecurity.SecuritySecrets secrets = securitySecrets;
             int signatureSize = channel.getSymmetricSignatureSize();
 
+            if (mac == null || macSecrets != secrets) {
+                String transformation = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm().getTransformation();
+                byte[] secretKey = channel.getDecryptionKeys(secrets).getSignatureKey();
+
+                try {
+                    mac = Mac.getInstance(transformation);
+                    mac.init(new SecretKeySpec(secretKey, transformation));
+                    macSecrets = secrets;
+                } catch (GeneralSecurityException e) {
+                    mac = null;
+                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                }
+            }
+
             ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
             chunkNioBuffer.position(0).limit(chunkBuffer.writerIndex() - signatureSize);
 
-            byte[] signature = SignatureUtil.hmac(securityAlgorithm, secretKey, chunkNioBuffer);
+            byte[] signature = SignatureUtil.hmac(mac, chunkNioBuffer);
 
             byte[] signatureBytes = new byte[signatureSize];
             chunkNioBuffer.limit(chunkNioBuffer.position() + signatureSize);
@@ -379,6 +654,12 @@ public class ChunkDecoder {
             return channel.isSymmetricSigningEnabled();
         }
 
+        @Override
+        public void invalidate() {
+            mac = null;
+            cipher = null;
+        }
+
     }
 
 }
@@ -17,43 +17,101 @@
 package com.digitalpetri.opcua.stack.core.channel;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
 import java.security.cert.Certificate;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.UaRuntimeException;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.channel.headers.AsymmetricSecurityHeader;
 import com.digitalpetri.opcua.stack.core.channel.headers.SecureMessageHeader;
 import com.digitalpetri.opcua.stack.core.channel.headers.SequenceHeader;
 import com.digitalpetri.opcua.stack.core.channel.headers.SymmetricSecurityHeader;
+import com.digitalpetri.opcua.stack.core.channel.messages.ErrorMessage;
 import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
 import com.digitalpetri.opcua.stack.core.security.SecurityAlgorithm;
+import com.digitalpetri.opcua.stack.core.serialization.UaStructure;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder;
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.util.BufferUtil;
 import com.digitalpetri.opcua.stack.core.util.LongSequence;
 import com.digitalpetri.opcua.stack.core.util.SignatureUtil;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
 
 public class ChunkEncoder {
 
+    // A multiple of every symmetric cipher block size.
+    private static final int ENCRYPTION_SEGMENT_SIZE = 4096;
+
+    /*
+     * Chunks collected before a streamed message is sealed in parallel: enough to keep the cores busy, few enough that
+     * the first chunks of a large message are still handed over while the rest is being encoded.
+     */
+    private static final int PARALLEL_BATCH_SIZE = Math.min(Math.max(2, Runtime.getRuntime().availableProcessors()), 8);
+
     private final Delegate asymmetricDelegate = new AsymmetricDelegate();
-    private final Delegate symmetricDelegate = new SymmetricDelegate();
+    private final SymmetricDelegate symmetricDelegate = new SymmetricDelegate();
 
     // Wrap after UInt32.MAX - 1024
     private final LongSequence sequenceNumber = new LongSequence(1L, 4294966271L);
 
+    /*
+     * Sequence numbers taken for chunks that failed to seal and were never sent, in order. They are handed out again
+     * before new ones so the receiver never sees a gap.
+     */
+    private final Deque<Long> unsentSequenceNumbers = new ConcurrentLinkedDeque<>();
+
     private final LongSequence requestId = new LongSequence(1L, UInteger.MAX_VALUE);
     private volatile long lastRequestId = 1L;
 
+    private final byte[] plainTextSegment = new byte[ENCRYPTION_SEGMENT_SIZE];
+    private final byte[] cipherTextSegment = new byte[ENCRYPTION_SEGMENT_SIZE];
+
+    private final Queue<ParallelWorker> parallelWorkers = new ConcurrentLinkedQueue<>();
+
     private final ChannelParameters parameters;
+    private final Executor parallelExecutor;
 
     public ChunkEncoder(ChannelParameters parameters) {
+        this(parameters, null);
+    }
+
+    /**
+     * @param parameters       the {@link ChannelParameters} of the channel being encoded for.
+     * @param parallelExecutor if non-null, the chunks of multi-chunk symmetric messages are signed and encrypted in
+     *                         parallel on this {@link Executor}. Chunk headers and sequence numbers are still assigned
+     *                         in order on the calling thread, which also takes part in signing and encrypting.
+     */
+    public ChunkEncoder(ChannelParameters parameters, @Nullable Executor parallelExecutor) {
         this.parameters = parameters;
+        this.parallelExecutor = parallelExecutor;
     }
 
     public List<ByteBuf> encodeAsymmetricRequest(SecureChannel channel,
@@ -86,6 +144,61 @@ public class ChunkEncoder {
         return encode(symmetricDelegate, channel, messageType, messageBuffer, requestId);
     }
 
+    /**
+     * Encode {@code message} straight into the chunks of a symmetric request, handing each chunk to
+     * {@code chunkConsumer} as soon as it has been signed and encrypted.
+     * <p>
+     * The request id is assigned before the first chunk is handed over, so {@link #getLastRequestId()} already returns
+     * it from inside {@code chunkConsumer}.
+     *
+     * @return the encoded size of the message body.
+     * @see #encodeSymmetricResponse(SecureChannel, MessageType, BinaryEncoder, UaStructure, long, int, Consumer)
+     */
+    public int encodeSymmetricRequest(SecureChannel channel,
+                                      MessageType messageType,
+                                      BinaryEncoder binaryEncoder,
+                                      UaStructure message,
+                                      int sizeHint,
+                                      Consumer<ByteBuf> chunkConsumer) throws UaException {
+
+        long requestId = this.requestId.getAndIncrement();
+        lastRequestId = requestId;
+
+        return encode(channel, messageType, binaryEncoder, message, requestId, sizeHint, chunkConsumer);
+    }
+
+    /**
+     * Encode {@code message} straight into the chunks of a symmetric response, handing each chunk to
+     * {@code chunkConsumer} as soon as it has been signed and encrypted.
+     * <p>
+     * Header and sequence space is reserved at the start of every chunk and the body is encoded after it, so the body
+     * is not copied from an intermediate message buffer and the first chunks can be written while the rest of the
+     * message is still being encoded. Only what the encoder writes past the end of a chunk between two checkpoints,
+     * at most one array element or one slice of a large ByteString, string or primitive array, is copied into the
+     * chunks after it. If encoding the message fails, or a chunk fails to seal after others have been handed over, an
+     * abort chunk is handed over in place of the rest of it, so the receiver discards any chunks already handed over,
+     * and the failure is rethrown.
+     * <p>
+     * When chunks are signed and encrypted in parallel, finished chunks are collected into small batches and each batch
+     * is signed and encrypted in parallel before it is handed over, so any message that turns out to span more than one
+     * chunk is secured in parallel, whatever {@code sizeHint} was.
+     *
+     * @param binaryEncoder the {@link BinaryEncoder} to encode {@code message} with; its buffer is replaced.
+     * @param sizeHint      the expected encoded size of {@code message}.
+     * @param chunkConsumer receives each finished chunk, in order, and takes ownership of it.
+     * @return the encoded size of the message body.
+     */
+    public int encodeSymmetricResponse(SecureChannel channel,
+                                       MessageType messageType,
+                                       BinaryEncoder binaryEncoder,
+                                       UaStructure message,
+                                       long requestId,
+                                       int sizeHint,
+                                       Consumer<ByteBuf> chunkConsumer) throws UaException {
+
+        return encode(channel, messageType, binaryEncoder, message, requestId, sizeHint, chunkConsumer);
+    }
+
     private List<ByteBuf> encode(Delegate delegate,
                                  SecureChannel channel,
                                  MessageType messageType,
@@ -94,32 +207,17 @@ public class ChunkEncoder {
 
         List<ByteBuf> chunks = Lists.newArrayList();
 
-        boolean encrypted = delegate.isEncryptionEnabled(channel);
-
-        int securityHeaderSize = delegate.getSecurityHeaderSize(channel);
-        int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
-        int plainTextBlockSize = delegate.getPlainTextBlockSize(channel);
-        int signatureSize = delegate.getSignatureSize(channel);
-
-        int maxChunkSize = parameters.getLocalSendBufferSize();
-        int headerSizes = SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize;
-        int paddingOverhead = encrypted ? (cipherTextBlockSize > 256 ? 2 : 1) : 0;
+        ChunkLayout layout = new ChunkLayout(delegate, channel, parameters.getLocalSendBufferSize());
 
-        int maxBlockCount = (maxChunkSize - headerSizes - signatureSize - paddingOverhead) / cipherTextBlockSize;
-        int maxBodySize = (plainTextBlockSize * maxBlockCount - SequenceHeader.SEQUENCE_HEADER_SIZE);
+        boolean parallel = parallelExecutor != null &&
+                delegate == symmetricDelegate &&
+                layout.secured &&
+                messageBuffer.readableBytes() > layout.maxBodySize;
 
         while (messageBuffer.readableBytes() > 0) {
-            int bodySize = Math.min(messageBuffer.readableBytes(), maxBodySize);
-
-            int paddingSize = encrypted ?
-                    plainTextBlockSize - (SequenceHeader.SEQUENCE_HEADER_SIZE + bodySize + signatureSize + paddingOverhead) % plainTextBlockSize : 0;
+            int bodySize = Math.min(messageBuffer.readableBytes(), layout.maxBodySize);
 
-            int plainTextContentSize = SequenceHeader.SEQUENCE_HEADER_SIZE + bodySize + signatureSize + paddingSize + paddingOverhead;
-
-            assert (plainTextContentSize % plainTextBlockSize == 0);
-
-            int chunkSize = SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize +
-                    (plainTextContentSize / plainTextBlockSize) * cipherTextBlockSize;
+            int chunkSize = layout.getChunkSize(bodySize);
 
             ByteBuf chunkBuffer = BufferUtil.buffer(chunkSize);
 
@@ -138,7 +236,7 @@ public class ChunkEncoder {
 
             /* Sequence Header */
             SequenceHeader sequenceHeader = new SequenceHeader(
-                    sequenceNumber.getAndIncrement(),
+                    nextSequenceNumber(),
                     requestId
             );
 
@@ -147,68 +245,229 @@ public class ChunkEncoder {
             /* Message Body */
             chunkBuffer.writeBytes(messageBuffer, bodySize);
 
-            /* Padding and Signature */
-            if (encrypted) {
-                writePadding(cipherTextBlockSize, paddingSize, chunkBuffer);
+            /* Padding */
+            if (layout.encrypted) {
+                writePadding(layout.cipherTextBlockSize, layout.getPaddingSize(bodySize), chunkBuffer);
             }
 
-            if (delegate.isSigningEnabled(channel)) {
-                ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
+            /* Signature and Encryption */
+            if (!parallel) {
+                signAndEncrypt(delegate, channel, chunkBuffer, plainTextSegment, cipherTextSegment);
 
-                byte[] signature = delegate.signChunk(channel, chunkNioBuffer);
-
-                chunkBuffer.writeBytes(signature);
+                assert (chunkBuffer.writerIndex() == chunkSize);
             }
 
-            /* Encryption */
-            if (encrypted) {
-                chunkBuffer.readerIndex(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize);
+            chunks.add(chunkBuffer);
+        }
 
-                assert (chunkBuffer.readableBytes() % plainTextBlockSize == 0);
+        if (parallel) {
+            signAndEncryptInParallel(channel, chunks);
+        }
 
-                try {
-                    int blockCount = chunkBuffer.readableBytes() / plainTextBlockSize;
+        lastRequestId = requestId;
 
-                    ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(chunkBuffer.readerIndex(), blockCount * cipherTextBlockSize);
-                    ByteBuf copyBuffer = chunkBuffer.copy();
-                    ByteBuffer plainTextNioBuffer = copyBuffer.nioBuffer();
+        return chunks;
+    }
 
-                    Cipher cipher = delegate.getAndInitializeCipher(channel);
+    private int encode(SecureChannel channel,
+                       MessageType messageType,
+                       BinaryEncoder binaryEncoder,
+                       UaStructure message,
+                       long requestId,
+                       int sizeHint,
+                       Consumer<ByteBuf> chunkConsumer) throws UaException {
 
-                    if (delegate instanceof AsymmetricDelegate) {
-                        for (int blockNumber = 0; blockNumber < blockCount; blockNumber++) {
-                            int position = blockNumber * plainTextBlockSize;
-                            int limit = (blockNumber + 1) * plainTextBlockSize;
-                            plainTextNioBuffer.position(position).limit(limit);
+        ChunkLayout layout = new ChunkLayout(symmetricDelegate, channel, parameters.getLocalSendBufferSize());
 
-                            int bytesWritten = cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+        return new ChunkStream(layout, channel, messageType, requestId, chunkConsumer)
+                .encode(binaryEncoder, message, sizeHint);
+    }
+
+    /**
+     * Sign and/or encrypt a chunk whose headers, body and padding have already been written.
+     * <p>
+     * On return the chunk's reader index is 0 and its writer index is the end of the chunk.
+     */
+    private void signAndEncrypt(Delegate delegate,
+                                SecureChannel channel,
+                                ByteBuf chunkBuffer,
+                                byte[] plainTextSegment,
+                                byte[] cipherTextSegment) throws UaException {
+
+        int securityHeaderSize = delegate.getSecurityHeaderSize(channel);
+        int cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
+        int plainTextBlockSize = delegate.getPlainTextBlockSize(channel);
+
+        /* Signature */
+        if (delegate.isSigningEnabled(channel)) {
+            ByteBuffer chunkNioBuffer = chunkBuffer.nioBuffer(0, chunkBuffer.writerIndex());
+
+            byte[] signature;
 
-                            assert (bytesWritten == cipherTextBlockSize);
-                        }
-                    } else {
-                        cipher.doFinal(plainTextNioBuffer, chunkNioBuffer);
+            try {
+                signature = delegate.signChunk(channel, chunkNioBuffer);
+            } catch (UaException e) {
+                delegate.invalidate();
+                throw e;
+            }
+
+            chunkBuffer.writeBytes(signature);
+        }
+
+        /* Encryption */
+        if (delegate.isEncryptionEnabled(channel)) {
+            chunkBuffer.readerIndex(SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize);
+
+            assert (chunkBuffer.readableBytes() % plainTextBlockSize == 0);
+
+            try {
+                int blockCount = chunkBuffer.readableBytes() / plainTextBlockSize;
+                int plainTextStart = chunkBuffer.readerIndex();
+
+                Cipher cipher = delegate.getAndInitializeCipher(channel);
+
+                if (delegate instanceof AsymmetricDelegate) {
+                    /*
+                     * Cipher text blocks are larger than plain text blocks, so encrypt from the last block to
+                     * the first; a cipher text block then only ever overwrites its own plain text block or
+                     * plain text that has already been encrypted.
+                     */
+                    for (int blockNumber = blockCount - 1; blockNumber >= 0; blockNumber--) {
+                        ByteBuffer plainTextNioBuffer = chunkBuffer.nioBuffer(
+                                plainTextStart + blockNumber * plainTextBlockSize, plainTextBlockSize);
+                        ByteBuffer cipherTextNioBuffer = chunkBuffer.nioBuffer(
+                                plainTextStart + blockNumber * cipherTextBlockSize, cipherTextBlockSize);
+
+                        int bytesWritten = cipher.doFinal(plainTextNioBuffer, cipherTextNioBuffer);
+
+                        assert (bytesWritten == cipherTextBlockSize);
                     }
+                } else {
+                    encryptInPlace(cipher, chunkBuffer, plainTextStart, blockCount * cipherTextBlockSize,
+                            plainTextSegment, cipherTextSegment);
+                }
 
-                    copyBuffer.release();
-                } catch (GeneralSecurityException e) {
-                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                chunkBuffer.writerIndex(plainTextStart + blockCount * cipherTextBlockSize);
+            } catch (GeneralSecurityException e) {
+                // A Cipher that failed part way through is in an unknown state; don't hand it to the next chunk.
+                delegate.invalidate();
+                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            }
+        }
+
+        chunkBuffer.readerIndex(0);
+    }
+
+    /**
+     * Sign and/or encrypt the chunks of a symmetric message in parallel.
+     * <p>
+     * Workers on {@link #parallelExecutor} and the calling thread take chunks from a shared index until none are
+     * left, so every chunk gets secured even if the executor is saturated or rejects the work; the calling thread then
+     * waits only for chunks that workers have already claimed.
+     */
+    private void signAndEncryptInParallel(SecureChannel channel, List<ByteBuf> chunks) throws UaException {
+        ChannelSecurity.SecuritySecrets securitySecrets = symmetricDelegate.securitySecrets;
+
+        AtomicInteger nextChunk = new AtomicInteger(0);
+        CountDownLatch remaining = new CountDownLatch(chunks.size());
+        AtomicReference<UaException> failure = new AtomicReference<>();
+
+        Runnable work = () -> {
+            ParallelWorker worker = parallelWorkers.poll();
+            if (worker == null) worker = new ParallelWorker();
+
+            worker.delegate.securitySecrets = securitySecrets;
+
+            int index;
+            while ((index = nextChunk.getAndIncrement()) < chunks.size()) {
+                try {
+                    signAndEncrypt(worker.delegate, channel, chunks.get(index),
+                            worker.plainTextSegment, worker.cipherTextSegment);
+                } catch (UaException e) {
+                    failure.compareAndSet(null, e);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, new UaException(StatusCodes.Bad_InternalError, t));
+                } finally {
+                    remaining.countDown();
                 }
             }
 
-            chunkBuffer.readerIndex(0).writerIndex(chunkSize);
+            parallelWorkers.offer(worker);
+        };
 
-            chunks.add(chunkBuffer);
+        for (int i = 1; i < chunks.size(); i++) {
+            try {
+                parallelExecutor.execute(work);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
         }
 
-        lastRequestId = requestId;
+        work.run();
 
-        return chunks;
+        Uninterruptibles.awaitUninterruptibly(remaining);
+
+        UaException exception = failure.get();
+
+        if (exception != null) {
+            chunks.forEach(ReferenceCountUtil::safeRelease);
+
+            throw exception;
+        }
+    }
+
+    /**
+     * Encrypt {@code length} bytes of {@code buffer}, starting at {@code index}, in place.
+     * <p>
+     * Symmetric cipher text is the same size as the plain text, so rather than copying the whole chunk body the
+     * plain text is streamed through the cipher in small segments and each cipher text segment written back over the
+     * plain text it came from. {@code length} must be a multiple of the cipher block size.
+     */
+    private static void encryptInPlace(Cipher cipher,
+                                       ByteBuf buffer,
+                                       int index,
+                                       int length,
+                                       byte[] plainTextSegment,
+                                       byte[] cipherTextSegment) throws GeneralSecurityException {
+        int end = index + length;
+
+        while (index < end) {
+            int segmentLength = Math.min(end - index, ENCRYPTION_SEGMENT_SIZE);
+
+            buffer.getBytes(index, plainTextSegment, 0, segmentLength);
+
+            int bytesWritten = (index + segmentLength < end) ?
+                    cipher.update(plainTextSegment, 0, segmentLength, cipherTextSegment, 0) :
+                    cipher.doFinal(plainTextSegment, 0, segmentLength, cipherTextSegment, 0);
+
+            assert (bytesWritten == segmentLength);
+
+            buffer.setBytes(index, cipherTextSegment, 0, segmentLength);
+
+            index += segmentLength;
+        }
     }
 
     public long getLastRequestId() {
         return lastRequestId;
     }
 
+    private long nextSequenceNumber() {
+        Long unsent = unsentSequenceNumbers.pollFirst();
+
+        return unsent != null ? unsent : sequenceNumber.getAndIncrement();
+    }
+
+    /**
+     * Give back the first {@code count} of {@code sequences}, which were taken for chunks that were never sent, so they
+     * are handed out again, in order, before any new ones.
+     */
+    private void returnSequenceNumbers(long[] sequences, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            unsentSequenceNumbers.offerFirst(sequences[i]);
+        }
+    }
+
     private void writePadding(int cipherTextBlockSize, int paddingSize, ByteBuf buffer) {
         if (cipherTextBlockSize > 256) {
             buffer.writeShort(paddingSize);
@@ -228,6 +487,353 @@ public class ChunkEncoder {
         }
     }
 
+    /**
+     * The sizes that determine how a message body is split into chunks on a channel.
+     */
+    private static class ChunkLayout {
+
+        final boolean encrypted;
+        final boolean secured;
+
+        final int securityHeaderSize;
+        final int cipherTextBlockSize;
+        final int plainTextBlockSize;
+        final int signatureSize;
+        final int paddingOverhead;
+
+        /**
+         * The offset of the body in a chunk; the size of its message, security and sequence headers.
+         */
+        final int bodyStart;
+
+        final int maxChunkSize;
+        final int maxBodySize;
+
+        ChunkLayout(Delegate delegate, SecureChannel channel, int maxChunkSize) throws UaException {
+            encrypted = delegate.isEncryptionEnabled(channel);
+            secured = encrypted || delegate.isSigningEnabled(channel);
+
+            securityHeaderSize = delegate.getSecurityHeaderSize(channel);
+            cipherTextBlockSize = delegate.getCipherTextBlockSize(channel);
+            plainTextBlockSize = delegate.getPlainTextBlockSize(channel);
+            signatureSize = delegate.getSignatureSize(channel);
+            paddingOverhead = encrypted ? (cipherTextBlockSize > 256 ? 2 : 1) : 0;
+
+            int headerSizes = SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize;
+
+            bodyStart = headerSizes + SequenceHeader.SEQUENCE_HEADER_SIZE;
+
+            this.maxChunkSize = maxChunkSize;
+
+            int maxBlockCount = (maxChunkSize - headerSizes - signatureSize - paddingOverhead) / cipherTextBlockSize;
+            maxBodySize = (plainTextBlockSize * maxBlockCount - SequenceHeader.SEQUENCE_HEADER_SIZE);
+        }
+
+        int getPaddingSize(int bodySize) {
+            return encrypted ?
+                    plainTextBlockSize - (SequenceHeader.SEQUENCE_HEADER_SIZE + bodySize + signatureSize + paddingOverhead) % plainTextBlockSize : 0;
+        }
+
+        int getChunkSize(int bodySize) {
+            int plainTextContentSize = SequenceHeader.SEQUENCE_HEADER_SIZE + bodySize + signatureSize +
+                    getPaddingSize(bodySize) + paddingOverhead;
+
+            assert (plainTextContentSize % plainTextBlockSize == 0);
+
+            return SecureMessageHeader.SECURE_MESSAGE_HEADER_SIZE + securityHeaderSize +
+                    (plainTextContentSize / plainTextBlockSize) * cipherTextBlockSize;
+        }
+
+    }
+
+    /**
+     * Encodes one symmetric message directly into chunk buffers.
+     * <p>
+     * The {@link BinaryEncoder} writes into the last chunk. At each checkpoint, anything it has written past the end of
+     * that chunk's body is moved into new chunks, and every chunk known not to be the last one is sealed: its chunk
+     * type and size are filled in, then it is padded, signed, encrypted and handed to the chunk consumer. The last
+     * chunk is sealed as the final chunk once the whole message has been encoded.
+     * <p>
+     * With a parallel executor, sealing waits until a batch of chunks is ready, and whenever more than one chunk is
+     * sealed at once they are signed and encrypted in parallel.
+     */
+    private class ChunkStream {
+
+        private final Deque<ByteBuf> unsealed = new ArrayDeque<>();
+
+        private final ChunkLayout layout;
+        private final SecureChannel channel;
+        private final MessageType messageType;
+        private final long requestId;
+        private final Consumer<ByteBuf> chunkConsumer;
+
+        /**
+         * The number of finished chunks collected before they are sealed; 1 unless chunks are secured in parallel.
+         */
+        private final int batchSize;
+
+        private ByteBuf current;
+
+        private int encodedSize;
+
+        /**
+         * Whether any chunk has been handed to the chunk consumer; if so, a failure has to be followed by an abort chunk.
+         */
+        private boolean handedOver;
+
+        private UaException sealFailure;
+
+        ChunkStream(ChunkLayout layout,
+                    SecureChannel channel,
+                    MessageType messageType,
+                    long requestId,
+                    Consumer<ByteBuf> chunkConsumer) {
+
+            this.layout = layout;
+            this.channel = channel;
+            this.messageType = messageType;
+            this.requestId = requestId;
+            this.chunkConsumer = chunkConsumer;
+
+            batchSize = parallelExecutor != null && layout.secured ? PARALLEL_BATCH_SIZE : 1;
+        }
+
+        int encode(BinaryEncoder binaryEncoder, UaStructure message, int sizeHint) throws UaException {
+            try {
+                current = newChunk((int) Math.min(
+                        (long) layout.bodyStart + sizeHint + layout.signatureSize + layout.plainTextBlockSize,
+                        layout.maxChunkSize));
+
+                binaryEncoder.setBuffer(current).setCheckpoint(() -> {
+                    try {
+                        checkpoint();
+                    } catch (UaException e) {
+                        sealFailure = e;
+                        throw new UaSerializationException(e.getStatusCode().getValue(), e);
+                    }
+
+                    binaryEncoder.setBuffer(current);
+                });
+
+                binaryEncoder.encodeMessage(null, message);
+
+                checkpoint();
+                sealReady(true);
+
+                return encodedSize;
+            } catch (UaException e) {
+                sealFailed(e);
+
+                throw e;
+            } catch (RuntimeException e) {
+                if (sealFailure != null) {
+                    sealFailed(sealFailure);
+
+                    throw sealFailure;
+                }
+
+                long statusCode = e instanceof UaRuntimeException ?
+                        ((UaRuntimeException) e).getStatusCode() : StatusCodes.Bad_EncodingError;
+
+                abort(statusCode, e);
+
+                throw e;
+            } finally {
+                binaryEncoder.setCheckpoint(null);
+            }
+        }
+
+        private ByteBuf newChunk(int capacity) throws UaException {
+            ByteBuf chunkBuffer = BufferUtil.buffer(capacity);
+            unsealed.add(chunkBuffer);
+
+            /* Message Header; chunk type and size are filled in when the chunk is sealed. */
+            SecureMessageHeader.encode(
+                    new SecureMessageHeader(messageType, 'C', 0, channel.getChannelId()), chunkBuffer);
+
+            /* Security Header */
+            symmetricDelegate.encodeSecurityHeader(channel, chunkBuffer);
+
+            /* Sequence Header; the sequence number is filled in when the chunk is sealed, so chunks that are
+             * released without being sent don't leave a gap in the sequence the receiver sees. */
+            SequenceHeader.encode(new SequenceHeader(0L, requestId), chunkBuffer);
+
+            assert (chunkBuffer.writerIndex() == layout.bodyStart);
+
+            return chunkBuffer;
+        }
+
+        private void checkpoint() throws UaException {
+            ByteBuf full = current;
+
+            int bodyEnd = layout.bodyStart + layout.maxBodySize;
+            int end = full.writerIndex();
+
+            if (end <= bodyEnd) return;
+
+            // Move the overflow out before sealing; padding and signature are written over it.
+            for (int index = bodyEnd; index < end; index += layout.maxBodySize) {
+                current = newChunk(layout.maxChunkSize);
+                current.writeBytes(full, index, Math.min(end - index, layout.maxBodySize));
+            }
+
+            full.writerIndex(bodyEnd);
+
+            // The last chunk is still being written; seal the others once a batch of them is ready.
+            if (unsealed.size() > batchSize) {
+                sealReady(false);
+            }
+        }
+
+        /**
+         * Seal every finished chunk: all of them, the last as the final chunk, if {@code last}, otherwise all but the
+         * chunk still being written. More than one chunk at a time is signed and encrypted in parallel if possible.
+         */
+        private void sealReady(boolean last) throws UaException {
+            int count = last ? unsealed.size() : unsealed.size() - 1;
+
+            if (count > 1 && batchSize > 1) {
+                sealInParallel(count, last);
+            } else {
+                for (int i = count; i > 0; i--) {
+                    seal(unsealed.poll(), last && i == 1 ? 'F' : 'C');
+                }
+            }
+        }
+
+        private void seal(ByteBuf chunkBuffer, char chunkType) throws UaException {
+            long sequence = nextSequenceNumber();
+
+            try {
+                int bodySize = prepare(chunkBuffer, chunkType, sequence);
+
+                /* Signature and Encryption */
+                signAndEncrypt(symmetricDelegate, channel, chunkBuffer, plainTextSegment, cipherTextSegment);
+
+                assert (chunkBuffer.writerIndex() == layout.getChunkSize(bodySize));
+
+                if (chunkType != 'A') encodedSize += bodySize;
+            } catch (UaException | RuntimeException e) {
+                chunkBuffer.release();
+                returnSequenceNumbers(new long[]{sequence}, 1);
+
+                throw e;
+            }
+
+            chunkConsumer.accept(chunkBuffer);
+            handedOver = true;
+        }
+
+        /**
+         * Seal the next {@code count} chunks, signing and encrypting them in parallel, then hand them over in order.
+         * If any of them fails, none are handed over and all of their sequence numbers are given back.
+         */
+        private void sealInParallel(int count, boolean last) throws UaException {
+            List<ByteBuf> chunks = Lists.newArrayListWithCapacity(count);
+            long[] sequences = new long[count];
+            int bodySize = 0;
+
+            try {
+                for (int i = 0; i < count; i++) {
+                    ByteBuf chunkBuffer = unsealed.poll();
+                    chunks.add(chunkBuffer);
+                    sequences[i] = nextSequenceNumber();
+
+                    bodySize += prepare(chunkBuffer, last && i == count - 1 ? 'F' : 'C', sequences[i]);
+                }
+            } catch (RuntimeException e) {
+                chunks.forEach(ReferenceCountUtil::safeRelease);
+                returnSequenceNumbers(sequences, chunks.size());
+
+                throw e;
+            }
+
+            try {
+                signAndEncryptInParallel(channel, chunks);
+            } catch (UaException e) {
+                returnSequenceNumbers(sequences, count);
+
+                throw e;
+            }
+
+            encodedSize += bodySize;
+
+            chunks.forEach(chunkConsumer);
+            handedOver = true;
+        }
+
+        /**
+         * Fill in the chunk type, size and sequence number of a chunk and pad it, ready to be signed and encrypted.
+         *
+         * @return the size of the chunk's body.
+         */
+        private int prepare(ByteBuf chunkBuffer, char chunkType, long sequence) {
+            int bodySize = chunkBuffer.writerIndex() - layout.bodyStart;
+
+            chunkBuffer.setByte(3, chunkType);
+            chunkBuffer.setInt(4, layout.getChunkSize(bodySize));
+            chunkBuffer.setInt(layout.bodyStart - SequenceHeader.SEQUENCE_HEADER_SIZE, (int) sequence);
+
+            /* Padding */
+            if (layout.encrypted) {
+                writePadding(layout.cipherTextBlockSize, layout.getPaddingSize(bodySize), chunkBuffer);
+            }
+
+            return bodySize;
+        }
+
+        /**
+         * Clean up after a chunk failed to seal. If chunks of this message have already been handed over, the receiver
+         * is holding on to them, so an abort chunk follows them.
+         */
+        private void sealFailed(UaException cause) {
+            if (handedOver) {
+                abort(cause.getStatusCode().getValue(), cause);
+            } else {
+                releaseUnsealed();
+            }
+        }
+
+        /**
+         * Turn the chunk in progress into an abort chunk and hand it over, so the receiver discards any chunks of this
+         * message it has already been handed and the sequence numbers it sees stay contiguous.
+         */
+        private void abort(long statusCode, Exception cause) {
+            try {
+                // The chunk that failed to seal has been released; its abort chunk needs a new buffer.
+                if (unsealed.isEmpty()) newChunk(layout.bodyStart);
+            } catch (UaException e) {
+                releaseUnsealed();
+                cause.addSuppressed(e);
+                return;
+            }
+
+            ByteBuf chunkBuffer = unsealed.poll();
+            releaseUnsealed();
+
+            try {
+                chunkBuffer.writerIndex(layout.bodyStart);
+                ErrorMessage.encode(new ErrorMessage(statusCode, cause.getMessage()), chunkBuffer);
+            } catch (RuntimeException e) {
+                chunkBuffer.release();
+                cause.addSuppressed(e);
+                return;
+            }
+
+            try {
+                seal(chunkBuffer, 'A');
+            } catch (UaException | RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+
+        private void releaseUnsealed() {
+            unsealed.forEach(ReferenceCountUtil::safeRelease);
+            unsealed.clear();
+        }
+
+    }
+
     private static interface Delegate {
         byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException;
 
@@ -247,17 +853,50 @@ public class ChunkEncoder {
 
         boolean isSigningEnabled(SecureChannel channel);
 
+        /**
+         * Drop the cached signing and encryption engines so the next chunk initializes new ones.
+         */
+        void invalidate();
+
     }
 
     private static class AsymmetricDelegate implements Delegate {
 
+        private byte[] encodedSecurityHeader;
+        private String headerSecurityPolicyUri;
+        private ByteString headerLocalCertificateBytes;
+        private ByteString headerRemoteCertificateThumbprint;
+
+        /*
+         * Signature and Cipher are kept initialized between chunks; they reset themselves after each
+         * sign/doFinal and are only rebuilt if the algorithm or key changes.
+         */
+        private Signature signature;
+        private SecurityAlgorithm signatureAlgorithm;
+        private PrivateKey signatureKey;
+
+        private Cipher cipher;
+        private SecurityAlgorithm cipherAlgorithm;
+        private PublicKey cipherKey;
+
         @Override
         public byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException {
-            return SignatureUtil.sign(
-                    channel.getSecurityPolicy().getAsymmetricSignatureAlgorithm(),
-                    channel.getKeyPair().getPrivate(),
-                    chunkNioBuffer
-            );
+            SecurityAlgorithm algorithm = channel.getSecurityPolicy().getAsymmetricSignatureAlgorithm();
+            PrivateKey privateKey = channel.getKeyPair().getPrivate();
+
+            if (signature == null || signatureAlgorithm != algorithm || signatureKey != privateKey) {
+                try {
+                    signature = Signature.getInstance(algorithm.getTransformation());
+                    signature.initSign(privateKey);
+                    signatureAlgorithm = algorithm;
+                    signatureKey = privateKey;
+                } catch (GeneralSecurityException e) {
+                    signature = null;
+                    throw new UaException(StatusCodes.Bad_InternalError, e);
+                }
+            }
+
+            return SignatureUtil.sign(signature, chunkNioBuffer);
         }
 
         @Override
@@ -266,36 +905,73 @@ public class ChunkEncoder {
 
             assert (remoteCertificate != null);
 
-            try {
-                String transformation = channel.getSecurityPolicy().getAsymmetricEncryptionAlgorithm().getTransformation();
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.ENCRYPT_MODE, remoteCertificate.getPublicKey());
-                return cipher;
-            } catch (GeneralSecurityException e) {
-                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+            SecurityAlgorithm algorithm = channel.getSecurityPolicy().getAsymmetricEncryptionAlgorithm();
+            PublicKey publicKey = remoteCertificate.getPublicKey();
+
+            if (cipher == null || cipherAlgorithm != algorithm || cipherKey != publicKey) {
+                try {
+                    cipher = Cipher.getInstance(algorithm.getTransformation());
+                    cipher.init(Cipher.ENCRYPT_MODE, publicKey);
+                    cipherAlgorithm = algorithm;
+                    cipherKey = publicKey;
+                } catch (GeneralSecurityException e) {
+                    cipher = null;
+                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                }
             }
+
+            return cipher;
         }
 
         @Override
-        public void encodeSecurityHeader(SecureChannel channel, ByteBuf buffer) throws UaException {
-            AsymmetricSecurityHeader header = new AsymmetricSecurityHeader(
-                    channel.getSecurityPolicy().getSecurityPolicyUri(),
-                    channel.getLocalCertificateBytes(),
-                    channel.getRemoteCertificateThumbprint()
-            );
+        public void invalidate() {
+            signature = null;
+            cipher = null;
+        }
 
-            AsymmetricSecurityHeader.encode(header, buffer);
+        @Override
+        public void encodeSecurityHeader(SecureChannel channel, ByteBuf buffer) throws UaException {
+            buffer.writeBytes(getEncodedSecurityHeader(channel));
         }
 
         @Override
         public int getSecurityHeaderSize(SecureChannel channel) throws UaException {
+            return getEncodedSecurityHeader(channel).length;
+        }
+
+        /**
+         * The security header is the same for every chunk as long as the channel's policy and certificates are, so
+         * it is encoded once and re-used. Secure channels cache their certificate bytes and thumbprints, so comparing
+         * by identity is enough to notice when they change.
+         */
+        private byte[] getEncodedSecurityHeader(SecureChannel channel) throws UaException {
             String securityPolicyUri = channel.getSecurityPolicy().getSecurityPolicyUri();
-            byte[] localCertificateBytes = channel.getLocalCertificateBytes().bytes();
-            byte[] remoteCertificateThumbprint = channel.getRemoteCertificateThumbprint().bytes();
+            ByteString localCertificateBytes = channel.getLocalCertificateBytes();
+            ByteString remoteCertificateThumbprint = channel.getRemoteCertificateThumbprint();
+
+            if (encodedSecurityHeader == null ||
+                    headerSecurityPolicyUri != securityPolicyUri ||
+                    headerLocalCertificateBytes != localCertificateBytes ||
+                    headerRemoteCertificateThumbprint != remoteCertificateThumbprint) {
+
+                AsymmetricSecurityHeader header = new AsymmetricSecurityHeader(
+                        securityPolicyUri,
+                        localCertificateBytes,
+                        remoteCertificateThumbprint
+                );
+
+                ByteBuf buffer = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+                AsymmetricSecurityHeader.encode(header, buffer);
+
+                encodedSecurityHeader = new byte[buffer.readableBytes()];
+                buffer.readBytes(encodedSecurityHeader);
+
+                headerSecurityPolicyUri = securityPolicyUri;
+                headerLocalCertificateBytes = localCertificateBytes;
+                headerRemoteCertificateThumbprint = remoteCertificateThumbprint;
+            }
 
-            return 12 + securityPolicyUri.length() +
-                    (localCertificateBytes != null ? localCertificateBytes.length : 0) +
-                    (remoteCertificateThumbprint != null ? remoteCertificateThumbprint.length : 0);
+            return encodedSecurityHeader;
         }
 
         @Override
@@ -329,6 +1005,16 @@ public class ChunkEncoder {
 
         private volatile ChannelSecurity.SecuritySecrets securitySecrets;
 
+        /*
+         * Mac and Cipher are initialized once per SecuritySecrets, i.e. once per secure channel token, and re-used
+         * for every chunk. Both return to their initialized state (same key, same IV) after each doFinal.
+         */
+        private Mac mac;
+        private ChannelSecurity.SecuritySecrets macSecrets;
+
+        private Cipher cipher;
+        private ChannelSecurity.SecuritySecrets cipherSecrets;
+
         @Override
         public void encodeSecurityHeader(SecureChannel channel, ByteBuf buffer) {
             ChannelSecurity channelSecurity = channel.getChannelSecurity();
@@ -341,34 +1027,55 @@ public class ChunkEncoder {
 
         @Override
         public byte[] signChunk(SecureChannel channel, ByteBuffer chunkNioBuffer) throws UaException {
-            SecurityAlgorithm signatureAlgorithm = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm();
-            byte[] signatureKey = channel.getEncryptionKeys(securitySecrets).getSignatureKey();
+            ChannelSecurity.SecuritySecrets secrets = securitySecrets;
 
-            return SignatureUtil.hmac(
-                    signatureAlgorithm,
-                    signatureKey,
-                    chunkNioBuffer
-            );
+            if (mac == null || macSecrets != secrets) {
+                String transformation = channel.getSecurityPolicy().getSymmetricSignatureAlgorithm().getTransformation();
+                byte[] signatureKey = channel.getEncryptionKeys(secrets).getSignatureKey();
+
+                try {
+                    mac = Mac.getInstance(transformation);
+                    mac.init(new SecretKeySpec(signatureKey, transformation));
+                    macSecrets = secrets;
+                } catch (GeneralSecurityException e) {
+                    mac = null;
+                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                }
+            }
+
+            return SignatureUtil.hmac(mac, chunkNioBuffer);
         }
 
         @Override
         public Cipher getAndInitializeCipher(SecureChannel channel) throws UaException {
-            try {
-                String transformation = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm().getTransformation();
-                ChannelSecurity.SecretKeys secretKeys = channel.getEncryptionKeys(securitySecrets);
+            ChannelSecurity.SecuritySecrets secrets = securitySecrets;
 
-                SecretKeySpec keySpec = new SecretKeySpec(secretKeys.getEncryptionKey(), "AES");
-                IvParameterSpec ivSpec = new IvParameterSpec(secretKeys.getInitializationVector());
+            if (cipher == null || cipherSecrets != secrets) {
+                try {
+                    String transformation = channel.getSecurityPolicy().getSymmetricEncryptionAlgorithm().getTransformation();
+                    ChannelSecurity.SecretKeys secretKeys = channel.getEncryptionKeys(secrets);
 
-                Cipher cipher = Cipher.getInstance(transformation);
-                cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
+                    SecretKeySpec keySpec = new SecretKeySpec(secretKeys.getEncryptionKey(), "AES");
+                    IvParameterSpec ivSpec = new IvParameterSpec(secretKeys.getInitializationVector());
 
-                assert (cipher.getBlockSize() == channel.getSymmetricCipherTextBlockSize());
+                    cipher = Cipher.getInstance(transformation);
+                    cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
+                    cipherSecrets = secrets;
 
-                return cipher;
-            } catch (GeneralSecurityException e) {
-                throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                    assert (cipher.getBlockSize() == channel.getSymmetricCipherTextBlockSize());
+                } catch (GeneralSecurityException e) {
+                    cipher = null;
+                    throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
+                }
             }
+
+            return cipher;
+        }
+
+        @Override
+        public void invalidate() {
+            mac = null;
+            cipher = null;
         }
 
         @Override
@@ -403,4 +1110,14 @@ public class ChunkEncoder {
 
     }
 
+    /**
+     * The per-thread state needed to secure chunks off the serialization queue: its own cached Mac and Cipher, and its
+     * own encryption scratch space.
+     */
+    private static class ParallelWorker {
+        private final SymmetricDelegate delegate = new SymmetricDelegate();
+        private final byte[] plainTextSegment = new byte[ENCRYPTION_SEGMENT_SIZE];
+        private final byte[] cipherTextSegment = new byte[ENCRYPTION_SEGMENT_SIZE];
+    }
+
 }
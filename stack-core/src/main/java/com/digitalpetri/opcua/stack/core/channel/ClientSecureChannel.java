@@ -20,6 +20,7 @@ import java.security.KeyPair;
 import java.security.cert.X509Certificate;
 import java.util.List;
 
+import com.digitalpetri.opcua.stack.core.UaException;
 import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
@@ -42,6 +43,15 @@ public class ClientSecureChannel extends DefaultAttributeMap implements SecureCh
     private final SecurityPolicy securityPolicy;
     private final MessageSecurityMode messageSecurityMode;
 
+    /*
+     * Encoded forms and thumbprints of the certificates, computed on first use; they are needed for every
+     * asymmetric chunk and every OpenSecureChannel.
+     */
+    private volatile ByteString localCertificateBytes;
+    private volatile ByteString localCertificateThumbprint;
+    private volatile ByteString remoteCertificateBytes;
+    private volatile ByteString remoteCertificateThumbprint;
+
     public ClientSecureChannel(SecurityPolicy securityPolicy, MessageSecurityMode messageSecurityMode) {
         this(null, null, null, null, securityPolicy, messageSecurityMode);
     }
@@ -130,6 +140,50 @@ public class ClientSecureChannel extends DefaultAttributeMap implements SecureCh
         return remoteCertificateChain;
     }
 
+    @Override
+    public ByteString getLocalCertificateBytes() throws UaException {
+        ByteString bytes = localCertificateBytes;
+
+        if (bytes == null) {
+            localCertificateBytes = bytes = SecureChannel.super.getLocalCertificateBytes();
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public ByteString getLocalCertificateThumbprint() throws UaException {
+        ByteString thumbprint = localCertificateThumbprint;
+
+        if (thumbprint == null) {
+            localCertificateThumbprint = thumbprint = SecureChannel.super.getLocalCertificateThumbprint();
+        }
+
+        return thumbprint;
+    }
+
+    @Override
+    public ByteString getRemoteCertificateBytes() throws UaException {
+        ByteString bytes = remoteCertificateBytes;
+
+        if (bytes == null) {
+            remoteCertificateBytes = bytes = SecureChannel.super.getRemoteCertificateBytes();
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public ByteString getRemoteCertificateThumbprint() throws UaException {
+        ByteString thumbprint = remoteCertificateThumbprint;
+
+        if (thumbprint == null) {
+            remoteCertificateThumbprint = thumbprint = SecureChannel.super.getRemoteCertificateThumbprint();
+        }
+
+        return thumbprint;
+    }
+
     @Override
     public ChannelSecurity getChannelSecurity() {
         return channelSecurity;
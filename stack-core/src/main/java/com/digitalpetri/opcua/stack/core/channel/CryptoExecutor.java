@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaException;
+
+/**
+ * Runs the asymmetric (OpenSecureChannel) work of secure channels on a bounded {@link ExecutorService}.
+ * <p>
+ * Work is admitted with {@link #acquire()} before it is queued and must {@link #release()} its permit when done. Once
+ * {@code maxPendingTasks} tasks are queued or running further work is rejected immediately with
+ * {@link StatusCodes#Bad_TooManyOperations}, so a burst of handshakes can neither grow the pool without limit nor
+ * queue up work the peers will have given up on.
+ */
+public class CryptoExecutor implements Executor {
+
+    public static final int DEFAULT_MAX_PENDING_TASKS = 1024;
+
+    private final ExecutorService executor;
+    private final int maxPendingTasks;
+    private final Semaphore permits;
+
+    /**
+     * @param executor        a bounded {@link ExecutorService} to run the work on.
+     * @param maxPendingTasks the maximum number of tasks that can be queued or running at once.
+     */
+    public CryptoExecutor(ExecutorService executor, int maxPendingTasks) {
+        this.executor = executor;
+        this.maxPendingTasks = maxPendingTasks;
+
+        permits = new Semaphore(maxPendingTasks);
+    }
+
+    /**
+     * Admit one task.
+     *
+     * @throws UaException {@link StatusCodes#Bad_TooManyOperations} if {@code maxPendingTasks} tasks are already
+     *                     pending, or {@link StatusCodes#Bad_ResourceUnavailable} if the executor has been shut down.
+     */
+    public void acquire() throws UaException {
+        if (executor.isShutdown()) {
+            throw new UaException(StatusCodes.Bad_ResourceUnavailable, "crypto executor shut down");
+        }
+
+        if (!permits.tryAcquire()) {
+            throw new UaException(StatusCodes.Bad_TooManyOperations,
+                    String.format("too many pending secure channel operations (%s)", maxPendingTasks));
+        }
+    }
+
+    /**
+     * Release the permit of a task admitted by {@link #acquire()}.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * @return the number of admitted tasks that are queued or running.
+     */
+    public int getPendingTaskCount() {
+        return maxPendingTasks - permits.availablePermits();
+    }
+
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executor;
+    }
+
+}
@@ -16,12 +16,24 @@
 
 package com.digitalpetri.opcua.stack.core.channel;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.UaException;
 import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
 import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder;
+import com.digitalpetri.opcua.stack.core.serialization.binary.StringCache;
 import com.digitalpetri.opcua.stack.core.util.ExecutionQueue;
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
 
 public class SerializationQueue {
 
@@ -36,18 +48,87 @@ public class SerializationQueue {
 
     private final ChannelParameters parameters;
 
+    private final CryptoExecutor cryptoExecutor;
+
+    // Permits held by asymmetric work that is queued but hasn't finished yet.
+    private final Set<CryptoPermit> cryptoPermits = ConcurrentHashMap.newKeySet();
+    private volatile boolean paused = false;
+
+    private final Supplier<BinaryDecoder> incrementalDecoders;
+    private final ExecutorService decodingExecutor;
+
     public SerializationQueue(ExecutorService executor,
                               ChannelParameters parameters,
                               int maxArrayLength,
                               int maxStringLength) {
 
-        this.parameters = parameters;
+        this(executor,
+                parameters,
+                new BinaryEncoder(maxArrayLength, maxStringLength),
+                new BinaryDecoder(maxArrayLength, maxStringLength),
+                null,
+                null,
+                null,
+                null,
+                ChannelConfig.DEFAULT_INCREMENTAL_DECODE_TIMEOUT);
+    }
+
+    /**
+     * @param config         the {@link ChannelConfig} the encoder's and decoder's limits and options come from.
+     * @param chunkExecutor  if non-null, the {@link ExecutorService} used to sign and encrypt the chunks of multi-chunk
+     *                       messages in parallel. See {@link ChunkEncoder#ChunkEncoder(ChannelParameters, Executor)}.
+     * @param cryptoExecutor if non-null, the {@link CryptoExecutor} that asymmetric encoding and decoding is done on.
+     *                       Messages decoded incrementally are decoded on {@link Stack#sharedDecodingExecutor()}.
+     */
+    public SerializationQueue(ExecutorService executor,
+                              ChannelParameters parameters,
+                              ChannelConfig config,
+                              @Nullable ExecutorService chunkExecutor,
+                              @Nullable CryptoExecutor cryptoExecutor) {
+
+        this(executor,
+                parameters,
+                new BinaryEncoder(config.getMaxArrayLength(), config.getMaxStringLength()),
+                new BinaryDecoder(
+                        config.getMaxArrayLength(),
+                        config.getMaxStringLength(),
+                        config.getStringCacheSize() > 0 ? new StringCache(config.getStringCacheSize()) : null,
+                        config.isDecodePrimitiveArrays(),
+                        config.isRetainExtensionObjectBodies()
+                ),
+                // StringCache isn't thread safe, so incremental decoders go without.
+                config.isDecodeIncrementally() ? () -> new BinaryDecoder(
+                        config.getMaxArrayLength(),
+                        config.getMaxStringLength(),
+                        null,
+                        config.isDecodePrimitiveArrays(),
+                        config.isRetainExtensionObjectBodies()
+                ) : null,
+                config.isDecodeIncrementally() ? Stack.sharedDecodingExecutor() : null,
+                chunkExecutor,
+                cryptoExecutor,
+                config.getIncrementalDecodeTimeout());
+    }
 
-        binaryEncoder = new BinaryEncoder(maxArrayLength, maxStringLength);
-        binaryDecoder = new BinaryDecoder(maxArrayLength, maxStringLength);
+    private SerializationQueue(ExecutorService executor,
+                               ChannelParameters parameters,
+                               BinaryEncoder binaryEncoder,
+                               BinaryDecoder binaryDecoder,
+                               @Nullable Supplier<BinaryDecoder> incrementalDecoders,
+                               @Nullable ExecutorService decodingExecutor,
+                               @Nullable ExecutorService chunkExecutor,
+                               @Nullable CryptoExecutor cryptoExecutor,
+                               long incrementalDecodeTimeout) {
 
-        chunkEncoder = new ChunkEncoder(parameters);
-        chunkDecoder = new ChunkDecoder(parameters);
+        this.incrementalDecoders = incrementalDecoders;
+        this.decodingExecutor = decodingExecutor;
+        this.parameters = parameters;
+        this.cryptoExecutor = cryptoExecutor;
+        this.binaryEncoder = binaryEncoder;
+        this.binaryDecoder = binaryDecoder;
+
+        chunkEncoder = new ChunkEncoder(parameters, chunkExecutor);
+        chunkDecoder = new ChunkDecoder(parameters, incrementalDecodeTimeout);
 
         encodingQueue = new ExecutionQueue(executor);
         decodingQueue = new ExecutionQueue(executor);
@@ -61,13 +142,132 @@ public class SerializationQueue {
         decodingQueue.submit(() -> consumer.accept(binaryDecoder, chunkDecoder));
     }
 
+    /**
+     * @return {@code true} if messages of several chunks should be decoded incrementally; see
+     * {@link ChunkDecoder#decodeSymmetricChunkIncrementally(SecureChannel, ByteBuf)} and
+     * {@link ChannelConfig#isDecodeIncrementally()}.
+     */
+    public boolean isDecodeIncrementally() {
+        return incrementalDecoders != null;
+    }
+
+    /**
+     * Run decoding work for a message that is still being received, outside the decoding queue and with a
+     * {@link BinaryDecoder} of its own, so the queue can go on decoding the chunks the work waits for. The work runs on
+     * {@link Stack#sharedDecodingExecutor()}, so while it waits it doesn't hold a thread serialization could use.
+     *
+     * @throws IllegalStateException if this queue doesn't decode incrementally.
+     */
+    public void decodeIncrementally(Consumer<BinaryDecoder> consumer) {
+        Preconditions.checkState(incrementalDecoders != null, "incremental decoding not enabled");
+
+        decodingExecutor.execute(() -> consumer.accept(incrementalDecoders.get()));
+    }
+
+    /**
+     * Fail the message being decoded incrementally, if there is one, e.g. because the channel has closed and the rest
+     * of it will never arrive.
+     */
+    public void failIncrementalDecoding(UaException failure) {
+        chunkDecoder.failIncrementalMessage(failure);
+    }
+
+    /**
+     * Queue asymmetric (OpenSecureChannel) encoding work. It runs in order with the rest of the encoding queue, but on
+     * the {@link CryptoExecutor}, if there is one.
+     *
+     * @throws UaException if the {@link CryptoExecutor} has too much work pending to accept it.
+     */
+    public void encodeAsymmetric(BiConsumer<BinaryEncoder, ChunkEncoder> consumer) throws UaException {
+        if (cryptoExecutor == null) {
+            encode(consumer);
+        } else {
+            CryptoPermit permit = acquireCryptoPermit();
+
+            encodingQueue.submit(() -> {
+                try {
+                    consumer.accept(binaryEncoder, chunkEncoder);
+                } finally {
+                    permit.release();
+                }
+            }, cryptoExecutor);
+        }
+    }
+
+    /**
+     * Queue asymmetric (OpenSecureChannel) decoding work. It runs in order with the rest of the decoding queue, but on
+     * the {@link CryptoExecutor}, if there is one.
+     *
+     * @throws UaException if the {@link CryptoExecutor} has too much work pending to accept it.
+     */
+    public void decodeAsymmetric(BiConsumer<BinaryDecoder, ChunkDecoder> consumer) throws UaException {
+        if (cryptoExecutor == null) {
+            decode(consumer);
+        } else {
+            CryptoPermit permit = acquireCryptoPermit();
+
+            decodingQueue.submit(() -> {
+                try {
+                    consumer.accept(binaryDecoder, chunkDecoder);
+                } finally {
+                    permit.release();
+                }
+            }, cryptoExecutor);
+        }
+    }
+
+    /**
+     * Pause both queues. Queued work never runs, so the {@link CryptoExecutor} permits held by queued asymmetric work
+     * are returned.
+     */
     public void pause() {
+        paused = true;
+
         encodingQueue.pause();
         decodingQueue.pause();
+
+        cryptoPermits.forEach(CryptoPermit::release);
+    }
+
+    private CryptoPermit acquireCryptoPermit() throws UaException {
+        cryptoExecutor.acquire();
+
+        CryptoPermit permit = new CryptoPermit();
+        cryptoPermits.add(permit);
+
+        // Work queued behind a pause never runs; don't let it hold on to the permit.
+        if (paused) permit.release();
+
+        return permit;
+    }
+
+    /**
+     * @return the {@link StringCache} used when decoding on this queue, or {@code null} if there isn't one.
+     */
+    @Nullable
+    public StringCache getStringCache() {
+        return binaryDecoder.getStringCache();
     }
 
     public ChannelParameters getParameters() {
         return parameters;
     }
 
+    /**
+     * A {@link CryptoExecutor} permit that is returned exactly once, either when its work finishes or when the queue
+     * it is waiting in is paused.
+     */
+    private final class CryptoPermit {
+
+        private final AtomicBoolean held = new AtomicBoolean(true);
+
+        void release() {
+            if (held.compareAndSet(true, false)) {
+                cryptoPermits.remove(this);
+                cryptoExecutor.release();
+            }
+        }
+
+    }
+
 }
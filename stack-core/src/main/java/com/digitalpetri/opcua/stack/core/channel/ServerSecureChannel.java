@@ -46,6 +46,15 @@ public class ServerSecureChannel extends DefaultAttributeMap implements SecureCh
     private volatile MessageSecurityMode messageSecurityMode;
     private volatile EndpointDescription endpointDescription;
 
+    /*
+     * Encoded forms and thumbprints of the certificates, computed on first use; they are needed for every
+     * asymmetric chunk and every OpenSecureChannel.
+     */
+    private volatile ByteString localCertificateBytes;
+    private volatile ByteString localCertificateThumbprint;
+    private volatile ByteString remoteCertificateBytes;
+    private volatile ByteString remoteCertificateThumbprint;
+
     public void setChannelId(long channelId) {
         this.channelId = channelId;
     }
@@ -68,11 +77,17 @@ public class ServerSecureChannel extends DefaultAttributeMap implements SecureCh
 
     public void setLocalCertificate(X509Certificate localCertificate) {
         this.localCertificate = localCertificate;
+
+        localCertificateBytes = null;
+        localCertificateThumbprint = null;
     }
 
     public void setRemoteCertificate(byte[] certificateBytes) throws UaException {
         remoteCertificate = CertificateUtil.decodeCertificate(certificateBytes);
         remoteCertificateChain = CertificateUtil.decodeCertificates(certificateBytes);
+
+        remoteCertificateBytes = null;
+        remoteCertificateThumbprint = null;
     }
 
     public void setSecurityPolicy(SecurityPolicy securityPolicy) {
@@ -126,6 +141,50 @@ public class ServerSecureChannel extends DefaultAttributeMap implements SecureCh
         return channelId;
     }
 
+    @Override
+    public ByteString getLocalCertificateBytes() throws UaException {
+        ByteString bytes = localCertificateBytes;
+
+        if (bytes == null) {
+            localCertificateBytes = bytes = SecureChannel.super.getLocalCertificateBytes();
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public ByteString getLocalCertificateThumbprint() throws UaException {
+        ByteString thumbprint = localCertificateThumbprint;
+
+        if (thumbprint == null) {
+            localCertificateThumbprint = thumbprint = SecureChannel.super.getLocalCertificateThumbprint();
+        }
+
+        return thumbprint;
+    }
+
+    @Override
+    public ByteString getRemoteCertificateBytes() throws UaException {
+        ByteString bytes = remoteCertificateBytes;
+
+        if (bytes == null) {
+            remoteCertificateBytes = bytes = SecureChannel.super.getRemoteCertificateBytes();
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public ByteString getRemoteCertificateThumbprint() throws UaException {
+        ByteString thumbprint = remoteCertificateThumbprint;
+
+        if (thumbprint == null) {
+            remoteCertificateThumbprint = thumbprint = SecureChannel.super.getRemoteCertificateThumbprint();
+        }
+
+        return thumbprint;
+    }
+
     @Override
     public ChannelSecurity getChannelSecurity() {
         return channelSecurity;
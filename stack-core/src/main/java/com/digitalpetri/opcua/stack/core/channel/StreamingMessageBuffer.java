@@ -0,0 +1,483 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import io.netty.buffer.AbstractReferenceCountedByteBuf;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+/**
+ * A read-only message buffer that chunk bodies are appended to while the message is being decoded from it.
+ * <p>
+ * A read of bytes that haven't been appended yet waits until they are, the message is complete, or it fails. A read
+ * that waits longer than the read timeout fails the message with {@link StatusCodes#Bad_Timeout}. Once a
+ * read starts past the end of a chunk body, that body is released, so a decoder working through a large message only
+ * holds on to the chunks it hasn't finished with. Reads must therefore never go back to an index before the start of
+ * an earlier read. Slices are copies, so they stay readable after the bodies they came from have been released.
+ * <p>
+ * The writer index is fixed at the maximum message size; reading past the end of a complete message fails with
+ * {@link StatusCodes#Bad_DecodingError}.
+ * <p>
+ * One thread reads while another appends, completes or fails the message. Only the reading thread may release the
+ * buffer, or any thread once reading has finished: the body the last read was from is used without holding the lock,
+ * and releasing the buffer releases it. Appending to a released buffer releases the body appended.
+ */
+final class StreamingMessageBuffer extends AbstractReferenceCountedByteBuf {
+
+    private final Deque<ByteBuf> bodies = new ArrayDeque<>();
+
+    // The message index of the first body in bodies, and the index just past the last one.
+    private int bodiesStart;
+    private int bodiesEnd;
+
+    private boolean complete;
+    private UaException failure;
+    private boolean deallocated;
+
+    private final long readTimeout;
+
+    // The body the last read was from; only touched by the reading thread.
+    private ByteBuf readBody;
+    private int readStart;
+    private int readEnd;
+
+    /**
+     * @param maxMessageSize the largest the message can be.
+     * @param readTimeout    how long, in milliseconds, a read waits for bytes that haven't been appended yet.
+     */
+    StreamingMessageBuffer(int maxMessageSize, long readTimeout) {
+        super(maxMessageSize);
+
+        this.readTimeout = readTimeout;
+
+        setIndex(0, maxMessageSize);
+    }
+
+    /**
+     * Append the next chunk body, taking ownership of it.
+     */
+    synchronized void append(ByteBuf body) {
+        if (deallocated || complete || failure != null) {
+            body.release();
+            return;
+        }
+
+        if ((long) bodiesEnd + body.readableBytes() > maxCapacity()) {
+            body.release();
+
+            fail(new UaException(StatusCodes.Bad_TcpMessageTooLarge,
+                    String.format("max message size exceeded (%s)", maxCapacity())));
+
+            return;
+        }
+
+        bodies.add(body.order(ByteOrder.BIG_ENDIAN).slice());
+        bodiesEnd += body.readableBytes();
+
+        notifyAll();
+    }
+
+    /**
+     * Mark the message complete; nothing more will be appended.
+     */
+    synchronized void complete() {
+        complete = true;
+
+        notifyAll();
+    }
+
+    /**
+     * Fail the message; reads that are waiting, and any made from now on, fail with a {@link UaSerializationException}
+     * caused by {@code failure}.
+     */
+    synchronized void fail(UaException failure) {
+        if (this.failure == null && !complete) {
+            this.failure = failure;
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * @return the body holding all {@code length} bytes from {@code index}, or {@code null} if they span more than one
+     * body; in either case {@link #readBody}, {@link #readStart} and {@link #readEnd} describe the body holding
+     * {@code index}.
+     */
+    private ByteBuf body(int index, int length) {
+        if (index >= readStart && index + length <= readEnd) {
+            return readBody;
+        }
+
+        synchronized (this) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeout);
+
+            while (failure == null && bodiesEnd < (long) index + length) {
+                if (complete || deallocated) {
+                    throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                            "read past the end of the message");
+                }
+
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+                if (remaining <= 0) {
+                    fail(new UaException(StatusCodes.Bad_Timeout,
+                            String.format("timed out waiting for the next chunk (%sms)", readTimeout)));
+
+                    break;
+                }
+
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    throw new UaSerializationException(StatusCodes.Bad_DecodingError, e);
+                }
+            }
+
+            if (failure != null) {
+                throw new UaSerializationException(failure.getStatusCode().getValue(), failure);
+            }
+
+            // Reads never go back, so bodies that end before this one starts are finished with.
+            while (bodiesStart + bodies.peek().readableBytes() <= index) {
+                ByteBuf finished = bodies.poll();
+                bodiesStart += finished.readableBytes();
+                finished.release();
+            }
+
+            int start = bodiesStart;
+
+            for (ByteBuf body : bodies) {
+                int end = start + body.readableBytes();
+
+                if (index < end) {
+                    readBody = body;
+                    readStart = start;
+                    readEnd = end;
+
+                    return index + length <= end ? body : null;
+                }
+
+                start = end;
+            }
+
+            throw new IllegalStateException("no body at index " + index);
+        }
+    }
+
+    @Override
+    protected byte _getByte(int index) {
+        return body(index, 1).getByte(index - readStart);
+    }
+
+    @Override
+    protected short _getShort(int index) {
+        ByteBuf body = body(index, 2);
+
+        return body != null ? body.getShort(index - readStart) : (short) getBigEndian(index, 2);
+    }
+
+    @Override
+    protected int _getUnsignedMedium(int index) {
+        ByteBuf body = body(index, 3);
+
+        return body != null ? body.getUnsignedMedium(index - readStart) : (int) getBigEndian(index, 3);
+    }
+
+    @Override
+    protected int _getInt(int index) {
+        ByteBuf body = body(index, 4);
+
+        return body != null ? body.getInt(index - readStart) : (int) getBigEndian(index, 4);
+    }
+
+    @Override
+    protected long _getLong(int index) {
+        ByteBuf body = body(index, 8);
+
+        return body != null ? body.getLong(index - readStart) : getBigEndian(index, 8);
+    }
+
+    private long getBigEndian(int index, int length) {
+        long value = 0L;
+
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (_getByte(index + i) & 0xFF);
+        }
+
+        return value;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuf dst, int dstIndex, int length) {
+        checkDstIndex(index, length, dstIndex, dst.capacity());
+
+        while (length > 0) {
+            body(index, 1);
+            int n = Math.min(length, readEnd - index);
+            readBody.getBytes(index - readStart, dst, dstIndex, n);
+            index += n;
+            dstIndex += n;
+            length -= n;
+        }
+
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, byte[] dst, int dstIndex, int length) {
+        checkDstIndex(index, length, dstIndex, dst.length);
+
+        while (length > 0) {
+            body(index, 1);
+            int n = Math.min(length, readEnd - index);
+            readBody.getBytes(index - readStart, dst, dstIndex, n);
+            index += n;
+            dstIndex += n;
+            length -= n;
+        }
+
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuffer dst) {
+        int length = dst.remaining();
+        checkIndex(index, length);
+
+        while (length > 0) {
+            body(index, 1);
+            int n = Math.min(length, readEnd - index);
+            int limit = dst.limit();
+            dst.limit(dst.position() + n);
+            readBody.getBytes(index - readStart, dst);
+            dst.limit(limit);
+            index += n;
+            length -= n;
+        }
+
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, OutputStream out, int length) throws IOException {
+        checkIndex(index, length);
+
+        while (length > 0) {
+            body(index, 1);
+            int n = Math.min(length, readEnd - index);
+            readBody.getBytes(index - readStart, out, n);
+            index += n;
+            length -= n;
+        }
+
+        return this;
+    }
+
+    @Override
+    public int getBytes(int index, GatheringByteChannel out, int length) throws IOException {
+        checkIndex(index, length);
+
+        if (length == 0) return 0;
+
+        body(index, 1);
+
+        return readBody.getBytes(index - readStart, out, Math.min(length, readEnd - index));
+    }
+
+    @Override
+    public ByteBuf copy(int index, int length) {
+        checkIndex(index, length);
+
+        ByteBuf copy = Unpooled.buffer(length);
+        getBytes(index, copy, 0, length);
+
+        return copy.writerIndex(length);
+    }
+
+    /**
+     * @return a copy of the {@code length} bytes from {@code index}, which retain and release have no effect on.
+     */
+    @Override
+    public ByteBuf slice(int index, int length) {
+        return Unpooled.unreleasableBuffer(copy(index, length));
+    }
+
+    @Override
+    public int nioBufferCount() {
+        return 1;
+    }
+
+    /**
+     * @return a copy of the {@code length} bytes from {@code index}.
+     */
+    @Override
+    public ByteBuffer nioBuffer(int index, int length) {
+        checkIndex(index, length);
+
+        byte[] bytes = new byte[length];
+        getBytes(index, bytes, 0, length);
+
+        return ByteBuffer.wrap(bytes);
+    }
+
+    @Override
+    public ByteBuffer internalNioBuffer(int index, int length) {
+        return nioBuffer(index, length);
+    }
+
+    @Override
+    public ByteBuffer[] nioBuffers(int index, int length) {
+        return new ByteBuffer[]{nioBuffer(index, length)};
+    }
+
+    @Override
+    protected synchronized void deallocate() {
+        deallocated = true;
+
+        bodies.forEach(ByteBuf::release);
+        bodies.clear();
+
+        readBody = null;
+        readStart = readEnd = 0;
+
+        notifyAll();
+    }
+
+    @Override
+    public int capacity() {
+        return maxCapacity();
+    }
+
+    @Override
+    public ByteBuf capacity(int newCapacity) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return ByteBufAllocator.DEFAULT;
+    }
+
+    @Override
+    public ByteOrder order() {
+        return ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public ByteBuf unwrap() {
+        return null;
+    }
+
+    @Override
+    public boolean isDirect() {
+        return false;
+    }
+
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] array() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int arrayOffset() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasMemoryAddress() {
+        return false;
+    }
+
+    @Override
+    public long memoryAddress() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void _setByte(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setShort(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setMedium(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setInt(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setLong(int index, long value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuffer src) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public int setBytes(int index, InputStream in, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public int setBytes(int index, ScatteringByteChannel in, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
+}
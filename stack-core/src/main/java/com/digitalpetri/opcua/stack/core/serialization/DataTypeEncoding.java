@@ -20,6 +20,7 @@ import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
 import com.digitalpetri.opcua.stack.core.types.builtin.XmlElement;
+import io.netty.buffer.ByteBuf;
 
 public interface DataTypeEncoding {
 
@@ -29,6 +30,16 @@ public interface DataTypeEncoding {
 
     Object decodeFromByteString(ByteString encoded, NodeId encodingTypeId) throws UaSerializationException;
 
+    /**
+     * Decode an object from the readable bytes of {@code encoded}, without changing its reader index or reference count.
+     */
+    default Object decodeFromByteBuf(ByteBuf encoded, NodeId encodingTypeId) throws UaSerializationException {
+        byte[] bs = new byte[encoded.readableBytes()];
+        encoded.getBytes(encoded.readerIndex(), bs);
+
+        return decodeFromByteString(ByteString.of(bs), encodingTypeId);
+    }
+
     XmlElement encodeToXmlElement(Object object, NodeId encodingTypeId) throws UaSerializationException;
 
     Object decodeFromXmlElement(XmlElement encoded, NodeId encodingTypeId) throws UaSerializationException;
@@ -0,0 +1,707 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import javax.annotation.Nullable;
+
+/**
+ * Index of the generated structures by encoding id, so {@link DelegateRegistry} can load the one class that registers a
+ * delegate for an encoding id the first time that id is seen, instead of loading every generated type up front.
+ * <p>
+ * Generated by DelegateIndexGenerator, in the stack-core test sources, from the encoding ids in
+ * {@link com.digitalpetri.opcua.stack.core.Identifiers}; don't edit it by hand. Run the generator again when
+ * structured types are added or removed. DelegateIndexTest fails if it is out of date.
+ */
+final class DelegateIndex {
+
+    private static final String STRUCTURED = "com.digitalpetri.opcua.stack.core.types.structured.";
+
+    private DelegateIndex() {}
+
+    /**
+     * @param encodingId the numeric identifier of a namespace 0 encoding id.
+     * @return the name of the class that registers delegates for {@code encodingId}, or {@code null} if none does.
+     */
+    @Nullable
+    static String getClassName(long encodingId) {
+        switch ((int) encodingId) {
+            case 467: // ActivateSessionRequest_Encoding_DefaultBinary
+            case 466: // ActivateSessionRequest_Encoding_DefaultXml
+                return STRUCTURED + "ActivateSessionRequest";
+            case 470: // ActivateSessionResponse_Encoding_DefaultBinary
+            case 469: // ActivateSessionResponse_Encoding_DefaultXml
+                return STRUCTURED + "ActivateSessionResponse";
+            case 378: // AddNodesItem_Encoding_DefaultBinary
+            case 377: // AddNodesItem_Encoding_DefaultXml
+                return STRUCTURED + "AddNodesItem";
+            case 488: // AddNodesRequest_Encoding_DefaultBinary
+            case 487: // AddNodesRequest_Encoding_DefaultXml
+                return STRUCTURED + "AddNodesRequest";
+            case 491: // AddNodesResponse_Encoding_DefaultBinary
+            case 490: // AddNodesResponse_Encoding_DefaultXml
+                return STRUCTURED + "AddNodesResponse";
+            case 485: // AddNodesResult_Encoding_DefaultBinary
+            case 484: // AddNodesResult_Encoding_DefaultXml
+                return STRUCTURED + "AddNodesResult";
+            case 381: // AddReferencesItem_Encoding_DefaultBinary
+            case 380: // AddReferencesItem_Encoding_DefaultXml
+                return STRUCTURED + "AddReferencesItem";
+            case 494: // AddReferencesRequest_Encoding_DefaultBinary
+            case 493: // AddReferencesRequest_Encoding_DefaultXml
+                return STRUCTURED + "AddReferencesRequest";
+            case 497: // AddReferencesResponse_Encoding_DefaultBinary
+            case 496: // AddReferencesResponse_Encoding_DefaultXml
+                return STRUCTURED + "AddReferencesResponse";
+            case 950: // AggregateConfiguration_Encoding_DefaultBinary
+            case 949: // AggregateConfiguration_Encoding_DefaultXml
+                return STRUCTURED + "AggregateConfiguration";
+            case 730: // AggregateFilter_Encoding_DefaultBinary
+            case 729: // AggregateFilter_Encoding_DefaultXml
+                return STRUCTURED + "AggregateFilter";
+            case 739: // AggregateFilterResult_Encoding_DefaultBinary
+            case 738: // AggregateFilterResult_Encoding_DefaultXml
+                return STRUCTURED + "AggregateFilterResult";
+            case 893: // Annotation_Encoding_DefaultBinary
+            case 892: // Annotation_Encoding_DefaultXml
+                return STRUCTURED + "Annotation";
+            case 321: // AnonymousIdentityToken_Encoding_DefaultBinary
+            case 320: // AnonymousIdentityToken_Encoding_DefaultXml
+                return STRUCTURED + "AnonymousIdentityToken";
+            case 310: // ApplicationDescription_Encoding_DefaultBinary
+            case 309: // ApplicationDescription_Encoding_DefaultXml
+                return STRUCTURED + "ApplicationDescription";
+            case 298: // Argument_Encoding_DefaultBinary
+            case 297: // Argument_Encoding_DefaultXml
+                return STRUCTURED + "Argument";
+            case 404: // ArrayTestType_Encoding_DefaultBinary
+            case 403: // ArrayTestType_Encoding_DefaultXml
+                return STRUCTURED + "ArrayTestType";
+            case 600: // AttributeOperand_Encoding_DefaultBinary
+            case 599: // AttributeOperand_Encoding_DefaultXml
+                return STRUCTURED + "AttributeOperand";
+            case 12089: // AxisInformation_Encoding_DefaultBinary
+            case 12081: // AxisInformation_Encoding_DefaultXml
+                return STRUCTURED + "AxisInformation";
+            case 516: // BrowseDescription_Encoding_DefaultBinary
+            case 515: // BrowseDescription_Encoding_DefaultXml
+                return STRUCTURED + "BrowseDescription";
+            case 533: // BrowseNextRequest_Encoding_DefaultBinary
+            case 532: // BrowseNextRequest_Encoding_DefaultXml
+                return STRUCTURED + "BrowseNextRequest";
+            case 536: // BrowseNextResponse_Encoding_DefaultBinary
+            case 535: // BrowseNextResponse_Encoding_DefaultXml
+                return STRUCTURED + "BrowseNextResponse";
+            case 545: // BrowsePath_Encoding_DefaultBinary
+            case 544: // BrowsePath_Encoding_DefaultXml
+                return STRUCTURED + "BrowsePath";
+            case 551: // BrowsePathResult_Encoding_DefaultBinary
+            case 550: // BrowsePathResult_Encoding_DefaultXml
+                return STRUCTURED + "BrowsePathResult";
+            case 548: // BrowsePathTarget_Encoding_DefaultBinary
+            case 547: // BrowsePathTarget_Encoding_DefaultXml
+                return STRUCTURED + "BrowsePathTarget";
+            case 527: // BrowseRequest_Encoding_DefaultBinary
+            case 526: // BrowseRequest_Encoding_DefaultXml
+                return STRUCTURED + "BrowseRequest";
+            case 530: // BrowseResponse_Encoding_DefaultBinary
+            case 529: // BrowseResponse_Encoding_DefaultXml
+                return STRUCTURED + "BrowseResponse";
+            case 524: // BrowseResult_Encoding_DefaultBinary
+            case 523: // BrowseResult_Encoding_DefaultXml
+                return STRUCTURED + "BrowseResult";
+            case 340: // BuildInfo_Encoding_DefaultBinary
+            case 339: // BuildInfo_Encoding_DefaultXml
+                return STRUCTURED + "BuildInfo";
+            case 706: // CallMethodRequest_Encoding_DefaultBinary
+            case 705: // CallMethodRequest_Encoding_DefaultXml
+                return STRUCTURED + "CallMethodRequest";
+            case 709: // CallMethodResult_Encoding_DefaultBinary
+            case 708: // CallMethodResult_Encoding_DefaultXml
+                return STRUCTURED + "CallMethodResult";
+            case 712: // CallRequest_Encoding_DefaultBinary
+            case 711: // CallRequest_Encoding_DefaultXml
+                return STRUCTURED + "CallRequest";
+            case 715: // CallResponse_Encoding_DefaultBinary
+            case 714: // CallResponse_Encoding_DefaultXml
+                return STRUCTURED + "CallResponse";
+            case 479: // CancelRequest_Encoding_DefaultBinary
+            case 478: // CancelRequest_Encoding_DefaultXml
+                return STRUCTURED + "CancelRequest";
+            case 482: // CancelResponse_Encoding_DefaultBinary
+            case 481: // CancelResponse_Encoding_DefaultXml
+                return STRUCTURED + "CancelResponse";
+            case 443: // ChannelSecurityToken_Encoding_DefaultBinary
+            case 442: // ChannelSecurityToken_Encoding_DefaultXml
+                return STRUCTURED + "ChannelSecurityToken";
+            case 452: // CloseSecureChannelRequest_Encoding_DefaultBinary
+            case 451: // CloseSecureChannelRequest_Encoding_DefaultXml
+                return STRUCTURED + "CloseSecureChannelRequest";
+            case 455: // CloseSecureChannelResponse_Encoding_DefaultBinary
+            case 454: // CloseSecureChannelResponse_Encoding_DefaultXml
+                return STRUCTURED + "CloseSecureChannelResponse";
+            case 473: // CloseSessionRequest_Encoding_DefaultBinary
+            case 472: // CloseSessionRequest_Encoding_DefaultXml
+                return STRUCTURED + "CloseSessionRequest";
+            case 476: // CloseSessionResponse_Encoding_DefaultBinary
+            case 475: // CloseSessionResponse_Encoding_DefaultXml
+                return STRUCTURED + "CloseSessionResponse";
+            case 12181: // ComplexNumberType_Encoding_DefaultBinary
+            case 12173: // ComplexNumberType_Encoding_DefaultXml
+                return STRUCTURED + "ComplexNumberType";
+            case 407: // CompositeTestType_Encoding_DefaultBinary
+            case 406: // CompositeTestType_Encoding_DefaultXml
+                return STRUCTURED + "CompositeTestType";
+            case 588: // ContentFilter_Encoding_DefaultBinary
+            case 587: // ContentFilter_Encoding_DefaultXml
+                return STRUCTURED + "ContentFilter";
+            case 585: // ContentFilterElement_Encoding_DefaultBinary
+            case 584: // ContentFilterElement_Encoding_DefaultXml
+                return STRUCTURED + "ContentFilterElement";
+            case 606: // ContentFilterElementResult_Encoding_DefaultBinary
+            case 605: // ContentFilterElementResult_Encoding_DefaultXml
+                return STRUCTURED + "ContentFilterElementResult";
+            case 609: // ContentFilterResult_Encoding_DefaultBinary
+            case 608: // ContentFilterResult_Encoding_DefaultXml
+                return STRUCTURED + "ContentFilterResult";
+            case 751: // CreateMonitoredItemsRequest_Encoding_DefaultBinary
+            case 750: // CreateMonitoredItemsRequest_Encoding_DefaultXml
+                return STRUCTURED + "CreateMonitoredItemsRequest";
+            case 754: // CreateMonitoredItemsResponse_Encoding_DefaultBinary
+            case 753: // CreateMonitoredItemsResponse_Encoding_DefaultXml
+                return STRUCTURED + "CreateMonitoredItemsResponse";
+            case 461: // CreateSessionRequest_Encoding_DefaultBinary
+            case 460: // CreateSessionRequest_Encoding_DefaultXml
+                return STRUCTURED + "CreateSessionRequest";
+            case 464: // CreateSessionResponse_Encoding_DefaultBinary
+            case 463: // CreateSessionResponse_Encoding_DefaultXml
+                return STRUCTURED + "CreateSessionResponse";
+            case 787: // CreateSubscriptionRequest_Encoding_DefaultBinary
+            case 786: // CreateSubscriptionRequest_Encoding_DefaultXml
+                return STRUCTURED + "CreateSubscriptionRequest";
+            case 790: // CreateSubscriptionResponse_Encoding_DefaultBinary
+            case 789: // CreateSubscriptionResponse_Encoding_DefaultXml
+                return STRUCTURED + "CreateSubscriptionResponse";
+            case 724: // DataChangeFilter_Encoding_DefaultBinary
+            case 723: // DataChangeFilter_Encoding_DefaultXml
+                return STRUCTURED + "DataChangeFilter";
+            case 811: // DataChangeNotification_Encoding_DefaultBinary
+            case 810: // DataChangeNotification_Encoding_DefaultXml
+                return STRUCTURED + "DataChangeNotification";
+            case 372: // DataTypeAttributes_Encoding_DefaultBinary
+            case 371: // DataTypeAttributes_Encoding_DefaultXml
+                return STRUCTURED + "DataTypeAttributes";
+            case 284: // DataTypeNode_Encoding_DefaultBinary
+            case 283: // DataTypeNode_Encoding_DefaultXml
+                return STRUCTURED + "DataTypeNode";
+            case 691: // DeleteAtTimeDetails_Encoding_DefaultBinary
+            case 690: // DeleteAtTimeDetails_Encoding_DefaultXml
+                return STRUCTURED + "DeleteAtTimeDetails";
+            case 694: // DeleteEventDetails_Encoding_DefaultBinary
+            case 693: // DeleteEventDetails_Encoding_DefaultXml
+                return STRUCTURED + "DeleteEventDetails";
+            case 781: // DeleteMonitoredItemsRequest_Encoding_DefaultBinary
+            case 780: // DeleteMonitoredItemsRequest_Encoding_DefaultXml
+                return STRUCTURED + "DeleteMonitoredItemsRequest";
+            case 784: // DeleteMonitoredItemsResponse_Encoding_DefaultBinary
+            case 783: // DeleteMonitoredItemsResponse_Encoding_DefaultXml
+                return STRUCTURED + "DeleteMonitoredItemsResponse";
+            case 384: // DeleteNodesItem_Encoding_DefaultBinary
+            case 383: // DeleteNodesItem_Encoding_DefaultXml
+                return STRUCTURED + "DeleteNodesItem";
+            case 500: // DeleteNodesRequest_Encoding_DefaultBinary
+            case 499: // DeleteNodesRequest_Encoding_DefaultXml
+                return STRUCTURED + "DeleteNodesRequest";
+            case 503: // DeleteNodesResponse_Encoding_DefaultBinary
+            case 502: // DeleteNodesResponse_Encoding_DefaultXml
+                return STRUCTURED + "DeleteNodesResponse";
+            case 688: // DeleteRawModifiedDetails_Encoding_DefaultBinary
+            case 687: // DeleteRawModifiedDetails_Encoding_DefaultXml
+                return STRUCTURED + "DeleteRawModifiedDetails";
+            case 387: // DeleteReferencesItem_Encoding_DefaultBinary
+            case 386: // DeleteReferencesItem_Encoding_DefaultXml
+                return STRUCTURED + "DeleteReferencesItem";
+            case 506: // DeleteReferencesRequest_Encoding_DefaultBinary
+            case 505: // DeleteReferencesRequest_Encoding_DefaultXml
+                return STRUCTURED + "DeleteReferencesRequest";
+            case 509: // DeleteReferencesResponse_Encoding_DefaultBinary
+            case 508: // DeleteReferencesResponse_Encoding_DefaultXml
+                return STRUCTURED + "DeleteReferencesResponse";
+            case 847: // DeleteSubscriptionsRequest_Encoding_DefaultBinary
+            case 846: // DeleteSubscriptionsRequest_Encoding_DefaultXml
+                return STRUCTURED + "DeleteSubscriptionsRequest";
+            case 850: // DeleteSubscriptionsResponse_Encoding_DefaultBinary
+            case 849: // DeleteSubscriptionsResponse_Encoding_DefaultXml
+                return STRUCTURED + "DeleteSubscriptionsResponse";
+            case 12182: // DoubleComplexNumberType_Encoding_DefaultBinary
+            case 12174: // DoubleComplexNumberType_Encoding_DefaultXml
+                return STRUCTURED + "DoubleComplexNumberType";
+            case 889: // EUInformation_Encoding_DefaultBinary
+            case 888: // EUInformation_Encoding_DefaultXml
+                return STRUCTURED + "EUInformation";
+            case 594: // ElementOperand_Encoding_DefaultBinary
+            case 593: // ElementOperand_Encoding_DefaultXml
+                return STRUCTURED + "ElementOperand";
+            case 333: // EndpointConfiguration_Encoding_DefaultBinary
+            case 332: // EndpointConfiguration_Encoding_DefaultXml
+                return STRUCTURED + "EndpointConfiguration";
+            case 314: // EndpointDescription_Encoding_DefaultBinary
+            case 313: // EndpointDescription_Encoding_DefaultXml
+                return STRUCTURED + "EndpointDescription";
+            case 11957: // EndpointUrlListDataType_Encoding_DefaultBinary
+            case 11949: // EndpointUrlListDataType_Encoding_DefaultXml
+                return STRUCTURED + "EndpointUrlListDataType";
+            case 8251: // EnumValueType_Encoding_DefaultBinary
+            case 7616: // EnumValueType_Encoding_DefaultXml
+                return STRUCTURED + "EnumValueType";
+            case 919: // EventFieldList_Encoding_DefaultBinary
+            case 918: // EventFieldList_Encoding_DefaultXml
+                return STRUCTURED + "EventFieldList";
+            case 727: // EventFilter_Encoding_DefaultBinary
+            case 726: // EventFilter_Encoding_DefaultXml
+                return STRUCTURED + "EventFilter";
+            case 736: // EventFilterResult_Encoding_DefaultBinary
+            case 735: // EventFilterResult_Encoding_DefaultXml
+                return STRUCTURED + "EventFilterResult";
+            case 916: // EventNotificationList_Encoding_DefaultBinary
+            case 915: // EventNotificationList_Encoding_DefaultXml
+                return STRUCTURED + "EventNotificationList";
+            case 591: // FilterOperand_Encoding_DefaultBinary
+            case 590: // FilterOperand_Encoding_DefaultXml
+                return STRUCTURED + "FilterOperand";
+            case 422: // FindServersRequest_Encoding_DefaultBinary
+            case 421: // FindServersRequest_Encoding_DefaultXml
+                return STRUCTURED + "FindServersRequest";
+            case 425: // FindServersResponse_Encoding_DefaultBinary
+            case 424: // FindServersResponse_Encoding_DefaultXml
+                return STRUCTURED + "FindServersResponse";
+            case 428: // GetEndpointsRequest_Encoding_DefaultBinary
+            case 427: // GetEndpointsRequest_Encoding_DefaultXml
+                return STRUCTURED + "GetEndpointsRequest";
+            case 431: // GetEndpointsResponse_Encoding_DefaultBinary
+            case 430: // GetEndpointsResponse_Encoding_DefaultXml
+                return STRUCTURED + "GetEndpointsResponse";
+            case 658: // HistoryData_Encoding_DefaultBinary
+            case 657: // HistoryData_Encoding_DefaultXml
+                return STRUCTURED + "HistoryData";
+            case 661: // HistoryEvent_Encoding_DefaultBinary
+            case 660: // HistoryEvent_Encoding_DefaultXml
+                return STRUCTURED + "HistoryEvent";
+            case 922: // HistoryEventFieldList_Encoding_DefaultBinary
+            case 921: // HistoryEventFieldList_Encoding_DefaultXml
+                return STRUCTURED + "HistoryEventFieldList";
+            case 11227: // HistoryModifiedData_Encoding_DefaultBinary
+            case 11219: // HistoryModifiedData_Encoding_DefaultXml
+                return STRUCTURED + "HistoryModifiedData";
+            case 643: // HistoryReadDetails_Encoding_DefaultBinary
+            case 642: // HistoryReadDetails_Encoding_DefaultXml
+                return STRUCTURED + "HistoryReadDetails";
+            case 664: // HistoryReadRequest_Encoding_DefaultBinary
+            case 663: // HistoryReadRequest_Encoding_DefaultXml
+                return STRUCTURED + "HistoryReadRequest";
+            case 667: // HistoryReadResponse_Encoding_DefaultBinary
+            case 666: // HistoryReadResponse_Encoding_DefaultXml
+                return STRUCTURED + "HistoryReadResponse";
+            case 640: // HistoryReadResult_Encoding_DefaultBinary
+            case 639: // HistoryReadResult_Encoding_DefaultXml
+                return STRUCTURED + "HistoryReadResult";
+            case 637: // HistoryReadValueId_Encoding_DefaultBinary
+            case 636: // HistoryReadValueId_Encoding_DefaultXml
+                return STRUCTURED + "HistoryReadValueId";
+            case 679: // HistoryUpdateDetails_Encoding_DefaultBinary
+            case 678: // HistoryUpdateDetails_Encoding_DefaultXml
+                return STRUCTURED + "HistoryUpdateDetails";
+            case 931: // HistoryUpdateEventResult_Encoding_DefaultBinary
+            case 930: // HistoryUpdateEventResult_Encoding_DefaultXml
+                return STRUCTURED + "HistoryUpdateEventResult";
+            case 700: // HistoryUpdateRequest_Encoding_DefaultBinary
+            case 699: // HistoryUpdateRequest_Encoding_DefaultXml
+                return STRUCTURED + "HistoryUpdateRequest";
+            case 703: // HistoryUpdateResponse_Encoding_DefaultBinary
+            case 702: // HistoryUpdateResponse_Encoding_DefaultXml
+                return STRUCTURED + "HistoryUpdateResponse";
+            case 697: // HistoryUpdateResult_Encoding_DefaultBinary
+            case 696: // HistoryUpdateResult_Encoding_DefaultXml
+                return STRUCTURED + "HistoryUpdateResult";
+            case 11889: // InstanceNode_Encoding_DefaultBinary
+            case 11887: // InstanceNode_Encoding_DefaultXml
+                return STRUCTURED + "InstanceNode";
+            case 940: // IssuedIdentityToken_Encoding_DefaultBinary
+            case 939: // IssuedIdentityToken_Encoding_DefaultXml
+                return STRUCTURED + "IssuedIdentityToken";
+            case 597: // LiteralOperand_Encoding_DefaultBinary
+            case 596: // LiteralOperand_Encoding_DefaultXml
+                return STRUCTURED + "LiteralOperand";
+            case 360: // MethodAttributes_Encoding_DefaultBinary
+            case 359: // MethodAttributes_Encoding_DefaultXml
+                return STRUCTURED + "MethodAttributes";
+            case 278: // MethodNode_Encoding_DefaultBinary
+            case 277: // MethodNode_Encoding_DefaultXml
+                return STRUCTURED + "MethodNode";
+            case 879: // ModelChangeStructureDataType_Encoding_DefaultBinary
+            case 878: // ModelChangeStructureDataType_Encoding_DefaultXml
+                return STRUCTURED + "ModelChangeStructureDataType";
+            case 11226: // ModificationInfo_Encoding_DefaultBinary
+            case 11218: // ModificationInfo_Encoding_DefaultXml
+                return STRUCTURED + "ModificationInfo";
+            case 763: // ModifyMonitoredItemsRequest_Encoding_DefaultBinary
+            case 762: // ModifyMonitoredItemsRequest_Encoding_DefaultXml
+                return STRUCTURED + "ModifyMonitoredItemsRequest";
+            case 766: // ModifyMonitoredItemsResponse_Encoding_DefaultBinary
+            case 765: // ModifyMonitoredItemsResponse_Encoding_DefaultXml
+                return STRUCTURED + "ModifyMonitoredItemsResponse";
+            case 793: // ModifySubscriptionRequest_Encoding_DefaultBinary
+            case 792: // ModifySubscriptionRequest_Encoding_DefaultXml
+                return STRUCTURED + "ModifySubscriptionRequest";
+            case 796: // ModifySubscriptionResponse_Encoding_DefaultBinary
+            case 795: // ModifySubscriptionResponse_Encoding_DefaultXml
+                return STRUCTURED + "ModifySubscriptionResponse";
+            case 745: // MonitoredItemCreateRequest_Encoding_DefaultBinary
+            case 744: // MonitoredItemCreateRequest_Encoding_DefaultXml
+                return STRUCTURED + "MonitoredItemCreateRequest";
+            case 748: // MonitoredItemCreateResult_Encoding_DefaultBinary
+            case 747: // MonitoredItemCreateResult_Encoding_DefaultXml
+                return STRUCTURED + "MonitoredItemCreateResult";
+            case 757: // MonitoredItemModifyRequest_Encoding_DefaultBinary
+            case 756: // MonitoredItemModifyRequest_Encoding_DefaultXml
+                return STRUCTURED + "MonitoredItemModifyRequest";
+            case 760: // MonitoredItemModifyResult_Encoding_DefaultBinary
+            case 759: // MonitoredItemModifyResult_Encoding_DefaultXml
+                return STRUCTURED + "MonitoredItemModifyResult";
+            case 808: // MonitoredItemNotification_Encoding_DefaultBinary
+            case 807: // MonitoredItemNotification_Encoding_DefaultXml
+                return STRUCTURED + "MonitoredItemNotification";
+            case 721: // MonitoringFilter_Encoding_DefaultBinary
+            case 720: // MonitoringFilter_Encoding_DefaultXml
+                return STRUCTURED + "MonitoringFilter";
+            case 733: // MonitoringFilterResult_Encoding_DefaultBinary
+            case 732: // MonitoringFilterResult_Encoding_DefaultXml
+                return STRUCTURED + "MonitoringFilterResult";
+            case 742: // MonitoringParameters_Encoding_DefaultBinary
+            case 741: // MonitoringParameters_Encoding_DefaultXml
+                return STRUCTURED + "MonitoringParameters";
+            case 11958: // NetworkGroupDataType_Encoding_DefaultBinary
+            case 11950: // NetworkGroupDataType_Encoding_DefaultXml
+                return STRUCTURED + "NetworkGroupDataType";
+            case 260: // Node_Encoding_DefaultBinary
+            case 259: // Node_Encoding_DefaultXml
+                return STRUCTURED + "Node";
+            case 351: // NodeAttributes_Encoding_DefaultBinary
+            case 350: // NodeAttributes_Encoding_DefaultXml
+                return STRUCTURED + "NodeAttributes";
+            case 582: // NodeReference_Encoding_DefaultBinary
+            case 581: // NodeReference_Encoding_DefaultXml
+                return STRUCTURED + "NodeReference";
+            case 575: // NodeTypeDescription_Encoding_DefaultBinary
+            case 574: // NodeTypeDescription_Encoding_DefaultXml
+                return STRUCTURED + "NodeTypeDescription";
+            case 947: // NotificationData_Encoding_DefaultBinary
+            case 946: // NotificationData_Encoding_DefaultXml
+                return STRUCTURED + "NotificationData";
+            case 805: // NotificationMessage_Encoding_DefaultBinary
+            case 804: // NotificationMessage_Encoding_DefaultXml
+                return STRUCTURED + "NotificationMessage";
+            case 354: // ObjectAttributes_Encoding_DefaultBinary
+            case 353: // ObjectAttributes_Encoding_DefaultXml
+                return STRUCTURED + "ObjectAttributes";
+            case 263: // ObjectNode_Encoding_DefaultBinary
+            case 262: // ObjectNode_Encoding_DefaultXml
+                return STRUCTURED + "ObjectNode";
+            case 363: // ObjectTypeAttributes_Encoding_DefaultBinary
+            case 362: // ObjectTypeAttributes_Encoding_DefaultXml
+                return STRUCTURED + "ObjectTypeAttributes";
+            case 266: // ObjectTypeNode_Encoding_DefaultBinary
+            case 265: // ObjectTypeNode_Encoding_DefaultXml
+                return STRUCTURED + "ObjectTypeNode";
+            case 446: // OpenSecureChannelRequest_Encoding_DefaultBinary
+            case 445: // OpenSecureChannelRequest_Encoding_DefaultXml
+                return STRUCTURED + "OpenSecureChannelRequest";
+            case 449: // OpenSecureChannelResponse_Encoding_DefaultBinary
+            case 448: // OpenSecureChannelResponse_Encoding_DefaultXml
+                return STRUCTURED + "OpenSecureChannelResponse";
+            case 612: // ParsingResult_Encoding_DefaultBinary
+            case 611: // ParsingResult_Encoding_DefaultXml
+                return STRUCTURED + "ParsingResult";
+            case 896: // ProgramDiagnosticDataType_Encoding_DefaultBinary
+            case 895: // ProgramDiagnosticDataType_Encoding_DefaultXml
+                return STRUCTURED + "ProgramDiagnosticDataType";
+            case 826: // PublishRequest_Encoding_DefaultBinary
+            case 825: // PublishRequest_Encoding_DefaultXml
+                return STRUCTURED + "PublishRequest";
+            case 829: // PublishResponse_Encoding_DefaultBinary
+            case 828: // PublishResponse_Encoding_DefaultXml
+                return STRUCTURED + "PublishResponse";
+            case 572: // QueryDataDescription_Encoding_DefaultBinary
+            case 571: // QueryDataDescription_Encoding_DefaultXml
+                return STRUCTURED + "QueryDataDescription";
+            case 579: // QueryDataSet_Encoding_DefaultBinary
+            case 578: // QueryDataSet_Encoding_DefaultXml
+                return STRUCTURED + "QueryDataSet";
+            case 615: // QueryFirstRequest_Encoding_DefaultBinary
+            case 614: // QueryFirstRequest_Encoding_DefaultXml
+                return STRUCTURED + "QueryFirstRequest";
+            case 618: // QueryFirstResponse_Encoding_DefaultBinary
+            case 617: // QueryFirstResponse_Encoding_DefaultXml
+                return STRUCTURED + "QueryFirstResponse";
+            case 621: // QueryNextRequest_Encoding_DefaultBinary
+            case 620: // QueryNextRequest_Encoding_DefaultXml
+                return STRUCTURED + "QueryNextRequest";
+            case 624: // QueryNextResponse_Encoding_DefaultBinary
+            case 623: // QueryNextResponse_Encoding_DefaultXml
+                return STRUCTURED + "QueryNextResponse";
+            case 886: // Range_Encoding_DefaultBinary
+            case 885: // Range_Encoding_DefaultXml
+                return STRUCTURED + "Range";
+            case 655: // ReadAtTimeDetails_Encoding_DefaultBinary
+            case 654: // ReadAtTimeDetails_Encoding_DefaultXml
+                return STRUCTURED + "ReadAtTimeDetails";
+            case 646: // ReadEventDetails_Encoding_DefaultBinary
+            case 645: // ReadEventDetails_Encoding_DefaultXml
+                return STRUCTURED + "ReadEventDetails";
+            case 652: // ReadProcessedDetails_Encoding_DefaultBinary
+            case 651: // ReadProcessedDetails_Encoding_DefaultXml
+                return STRUCTURED + "ReadProcessedDetails";
+            case 649: // ReadRawModifiedDetails_Encoding_DefaultBinary
+            case 648: // ReadRawModifiedDetails_Encoding_DefaultXml
+                return STRUCTURED + "ReadRawModifiedDetails";
+            case 631: // ReadRequest_Encoding_DefaultBinary
+            case 630: // ReadRequest_Encoding_DefaultXml
+                return STRUCTURED + "ReadRequest";
+            case 634: // ReadResponse_Encoding_DefaultBinary
+            case 633: // ReadResponse_Encoding_DefaultXml
+                return STRUCTURED + "ReadResponse";
+            case 628: // ReadValueId_Encoding_DefaultBinary
+            case 627: // ReadValueId_Encoding_DefaultXml
+                return STRUCTURED + "ReadValueId";
+            case 855: // RedundantServerDataType_Encoding_DefaultBinary
+            case 854: // RedundantServerDataType_Encoding_DefaultXml
+                return STRUCTURED + "RedundantServerDataType";
+            case 520: // ReferenceDescription_Encoding_DefaultBinary
+            case 519: // ReferenceDescription_Encoding_DefaultXml
+                return STRUCTURED + "ReferenceDescription";
+            case 287: // ReferenceNode_Encoding_DefaultBinary
+            case 286: // ReferenceNode_Encoding_DefaultXml
+                return STRUCTURED + "ReferenceNode";
+            case 369: // ReferenceTypeAttributes_Encoding_DefaultBinary
+            case 368: // ReferenceTypeAttributes_Encoding_DefaultXml
+                return STRUCTURED + "ReferenceTypeAttributes";
+            case 275: // ReferenceTypeNode_Encoding_DefaultBinary
+            case 274: // ReferenceTypeNode_Encoding_DefaultXml
+                return STRUCTURED + "ReferenceTypeNode";
+            case 560: // RegisterNodesRequest_Encoding_DefaultBinary
+            case 559: // RegisterNodesRequest_Encoding_DefaultXml
+                return STRUCTURED + "RegisterNodesRequest";
+            case 563: // RegisterNodesResponse_Encoding_DefaultBinary
+            case 562: // RegisterNodesResponse_Encoding_DefaultXml
+                return STRUCTURED + "RegisterNodesResponse";
+            case 437: // RegisterServerRequest_Encoding_DefaultBinary
+            case 436: // RegisterServerRequest_Encoding_DefaultXml
+                return STRUCTURED + "RegisterServerRequest";
+            case 440: // RegisterServerResponse_Encoding_DefaultBinary
+            case 439: // RegisterServerResponse_Encoding_DefaultXml
+                return STRUCTURED + "RegisterServerResponse";
+            case 434: // RegisteredServer_Encoding_DefaultBinary
+            case 433: // RegisteredServer_Encoding_DefaultXml
+                return STRUCTURED + "RegisteredServer";
+            case 542: // RelativePath_Encoding_DefaultBinary
+            case 541: // RelativePath_Encoding_DefaultXml
+                return STRUCTURED + "RelativePath";
+            case 539: // RelativePathElement_Encoding_DefaultBinary
+            case 538: // RelativePathElement_Encoding_DefaultXml
+                return STRUCTURED + "RelativePathElement";
+            case 832: // RepublishRequest_Encoding_DefaultBinary
+            case 831: // RepublishRequest_Encoding_DefaultXml
+                return STRUCTURED + "RepublishRequest";
+            case 835: // RepublishResponse_Encoding_DefaultBinary
+            case 834: // RepublishResponse_Encoding_DefaultXml
+                return STRUCTURED + "RepublishResponse";
+            case 391: // RequestHeader_Encoding_DefaultBinary
+            case 390: // RequestHeader_Encoding_DefaultXml
+                return STRUCTURED + "RequestHeader";
+            case 394: // ResponseHeader_Encoding_DefaultBinary
+            case 393: // ResponseHeader_Encoding_DefaultXml
+                return STRUCTURED + "ResponseHeader";
+            case 858: // SamplingIntervalDiagnosticsDataType_Encoding_DefaultBinary
+            case 857: // SamplingIntervalDiagnosticsDataType_Encoding_DefaultXml
+                return STRUCTURED + "SamplingIntervalDiagnosticsDataType";
+            case 401: // ScalarTestType_Encoding_DefaultBinary
+            case 400: // ScalarTestType_Encoding_DefaultXml
+                return STRUCTURED + "ScalarTestType";
+            case 899: // SemanticChangeStructureDataType_Encoding_DefaultBinary
+            case 898: // SemanticChangeStructureDataType_Encoding_DefaultXml
+                return STRUCTURED + "SemanticChangeStructureDataType";
+            case 861: // ServerDiagnosticsSummaryDataType_Encoding_DefaultBinary
+            case 860: // ServerDiagnosticsSummaryDataType_Encoding_DefaultXml
+                return STRUCTURED + "ServerDiagnosticsSummaryDataType";
+            case 864: // ServerStatusDataType_Encoding_DefaultBinary
+            case 863: // ServerStatusDataType_Encoding_DefaultXml
+                return STRUCTURED + "ServerStatusDataType";
+            case 873: // ServiceCounterDataType_Encoding_DefaultBinary
+            case 872: // ServiceCounterDataType_Encoding_DefaultXml
+                return STRUCTURED + "ServiceCounterDataType";
+            case 397: // ServiceFault_Encoding_DefaultBinary
+            case 396: // ServiceFault_Encoding_DefaultXml
+                return STRUCTURED + "ServiceFault";
+            case 867: // SessionDiagnosticsDataType_Encoding_DefaultBinary
+            case 866: // SessionDiagnosticsDataType_Encoding_DefaultXml
+                return STRUCTURED + "SessionDiagnosticsDataType";
+            case 870: // SessionSecurityDiagnosticsDataType_Encoding_DefaultBinary
+            case 869: // SessionSecurityDiagnosticsDataType_Encoding_DefaultXml
+                return STRUCTURED + "SessionSecurityDiagnosticsDataType";
+            case 769: // SetMonitoringModeRequest_Encoding_DefaultBinary
+            case 768: // SetMonitoringModeRequest_Encoding_DefaultXml
+                return STRUCTURED + "SetMonitoringModeRequest";
+            case 772: // SetMonitoringModeResponse_Encoding_DefaultBinary
+            case 771: // SetMonitoringModeResponse_Encoding_DefaultXml
+                return STRUCTURED + "SetMonitoringModeResponse";
+            case 799: // SetPublishingModeRequest_Encoding_DefaultBinary
+            case 798: // SetPublishingModeRequest_Encoding_DefaultXml
+                return STRUCTURED + "SetPublishingModeRequest";
+            case 802: // SetPublishingModeResponse_Encoding_DefaultBinary
+            case 801: // SetPublishingModeResponse_Encoding_DefaultXml
+                return STRUCTURED + "SetPublishingModeResponse";
+            case 775: // SetTriggeringRequest_Encoding_DefaultBinary
+            case 774: // SetTriggeringRequest_Encoding_DefaultXml
+                return STRUCTURED + "SetTriggeringRequest";
+            case 778: // SetTriggeringResponse_Encoding_DefaultBinary
+            case 777: // SetTriggeringResponse_Encoding_DefaultXml
+                return STRUCTURED + "SetTriggeringResponse";
+            case 458: // SignatureData_Encoding_DefaultBinary
+            case 457: // SignatureData_Encoding_DefaultXml
+                return STRUCTURED + "SignatureData";
+            case 346: // SignedSoftwareCertificate_Encoding_DefaultBinary
+            case 345: // SignedSoftwareCertificate_Encoding_DefaultXml
+                return STRUCTURED + "SignedSoftwareCertificate";
+            case 603: // SimpleAttributeOperand_Encoding_DefaultBinary
+            case 602: // SimpleAttributeOperand_Encoding_DefaultXml
+                return STRUCTURED + "SimpleAttributeOperand";
+            case 343: // SoftwareCertificate_Encoding_DefaultBinary
+            case 342: // SoftwareCertificate_Encoding_DefaultXml
+                return STRUCTURED + "SoftwareCertificate";
+            case 820: // StatusChangeNotification_Encoding_DefaultBinary
+            case 819: // StatusChangeNotification_Encoding_DefaultXml
+                return STRUCTURED + "StatusChangeNotification";
+            case 301: // StatusResult_Encoding_DefaultBinary
+            case 300: // StatusResult_Encoding_DefaultXml
+                return STRUCTURED + "StatusResult";
+            case 823: // SubscriptionAcknowledgement_Encoding_DefaultBinary
+            case 822: // SubscriptionAcknowledgement_Encoding_DefaultXml
+                return STRUCTURED + "SubscriptionAcknowledgement";
+            case 876: // SubscriptionDiagnosticsDataType_Encoding_DefaultBinary
+            case 875: // SubscriptionDiagnosticsDataType_Encoding_DefaultXml
+                return STRUCTURED + "SubscriptionDiagnosticsDataType";
+            case 337: // SupportedProfile_Encoding_DefaultBinary
+            case 336: // SupportedProfile_Encoding_DefaultXml
+                return STRUCTURED + "SupportedProfile";
+            case 416: // TestStackExRequest_Encoding_DefaultBinary
+            case 415: // TestStackExRequest_Encoding_DefaultXml
+                return STRUCTURED + "TestStackExRequest";
+            case 419: // TestStackExResponse_Encoding_DefaultBinary
+            case 418: // TestStackExResponse_Encoding_DefaultXml
+                return STRUCTURED + "TestStackExResponse";
+            case 410: // TestStackRequest_Encoding_DefaultBinary
+            case 409: // TestStackRequest_Encoding_DefaultXml
+                return STRUCTURED + "TestStackRequest";
+            case 413: // TestStackResponse_Encoding_DefaultBinary
+            case 412: // TestStackResponse_Encoding_DefaultXml
+                return STRUCTURED + "TestStackResponse";
+            case 8917: // TimeZoneDataType_Encoding_DefaultBinary
+            case 8913: // TimeZoneDataType_Encoding_DefaultXml
+                return STRUCTURED + "TimeZoneDataType";
+            case 838: // TransferResult_Encoding_DefaultBinary
+            case 837: // TransferResult_Encoding_DefaultXml
+                return STRUCTURED + "TransferResult";
+            case 841: // TransferSubscriptionsRequest_Encoding_DefaultBinary
+            case 840: // TransferSubscriptionsRequest_Encoding_DefaultXml
+                return STRUCTURED + "TransferSubscriptionsRequest";
+            case 844: // TransferSubscriptionsResponse_Encoding_DefaultBinary
+            case 843: // TransferSubscriptionsResponse_Encoding_DefaultXml
+                return STRUCTURED + "TransferSubscriptionsResponse";
+            case 554: // TranslateBrowsePathsToNodeIdsRequest_Encoding_DefaultBinary
+            case 553: // TranslateBrowsePathsToNodeIdsRequest_Encoding_DefaultXml
+                return STRUCTURED + "TranslateBrowsePathsToNodeIdsRequest";
+            case 557: // TranslateBrowsePathsToNodeIdsResponse_Encoding_DefaultBinary
+            case 556: // TranslateBrowsePathsToNodeIdsResponse_Encoding_DefaultXml
+                return STRUCTURED + "TranslateBrowsePathsToNodeIdsResponse";
+            case 11890: // TypeNode_Encoding_DefaultBinary
+            case 11888: // TypeNode_Encoding_DefaultXml
+                return STRUCTURED + "TypeNode";
+            case 566: // UnregisterNodesRequest_Encoding_DefaultBinary
+            case 565: // UnregisterNodesRequest_Encoding_DefaultXml
+                return STRUCTURED + "UnregisterNodesRequest";
+            case 569: // UnregisterNodesResponse_Encoding_DefaultBinary
+            case 568: // UnregisterNodesResponse_Encoding_DefaultXml
+                return STRUCTURED + "UnregisterNodesResponse";
+            case 682: // UpdateDataDetails_Encoding_DefaultBinary
+            case 681: // UpdateDataDetails_Encoding_DefaultXml
+                return STRUCTURED + "UpdateDataDetails";
+            case 685: // UpdateEventDetails_Encoding_DefaultBinary
+            case 684: // UpdateEventDetails_Encoding_DefaultXml
+                return STRUCTURED + "UpdateEventDetails";
+            case 11300: // UpdateStructureDataDetails_Encoding_DefaultBinary
+            case 11296: // UpdateStructureDataDetails_Encoding_DefaultXml
+                return STRUCTURED + "UpdateStructureDataDetails";
+            case 318: // UserIdentityToken_Encoding_DefaultBinary
+            case 317: // UserIdentityToken_Encoding_DefaultXml
+                return STRUCTURED + "UserIdentityToken";
+            case 324: // UserNameIdentityToken_Encoding_DefaultBinary
+            case 323: // UserNameIdentityToken_Encoding_DefaultXml
+                return STRUCTURED + "UserNameIdentityToken";
+            case 306: // UserTokenPolicy_Encoding_DefaultBinary
+            case 305: // UserTokenPolicy_Encoding_DefaultXml
+                return STRUCTURED + "UserTokenPolicy";
+            case 357: // VariableAttributes_Encoding_DefaultBinary
+            case 356: // VariableAttributes_Encoding_DefaultXml
+                return STRUCTURED + "VariableAttributes";
+            case 269: // VariableNode_Encoding_DefaultBinary
+            case 268: // VariableNode_Encoding_DefaultXml
+                return STRUCTURED + "VariableNode";
+            case 366: // VariableTypeAttributes_Encoding_DefaultBinary
+            case 365: // VariableTypeAttributes_Encoding_DefaultXml
+                return STRUCTURED + "VariableTypeAttributes";
+            case 272: // VariableTypeNode_Encoding_DefaultBinary
+            case 271: // VariableTypeNode_Encoding_DefaultXml
+                return STRUCTURED + "VariableTypeNode";
+            case 375: // ViewAttributes_Encoding_DefaultBinary
+            case 374: // ViewAttributes_Encoding_DefaultXml
+                return STRUCTURED + "ViewAttributes";
+            case 513: // ViewDescription_Encoding_DefaultBinary
+            case 512: // ViewDescription_Encoding_DefaultXml
+                return STRUCTURED + "ViewDescription";
+            case 281: // ViewNode_Encoding_DefaultBinary
+            case 280: // ViewNode_Encoding_DefaultXml
+                return STRUCTURED + "ViewNode";
+            case 673: // WriteRequest_Encoding_DefaultBinary
+            case 672: // WriteRequest_Encoding_DefaultXml
+                return STRUCTURED + "WriteRequest";
+            case 676: // WriteResponse_Encoding_DefaultBinary
+            case 675: // WriteResponse_Encoding_DefaultXml
+                return STRUCTURED + "WriteResponse";
+            case 670: // WriteValue_Encoding_DefaultBinary
+            case 669: // WriteValue_Encoding_DefaultXml
+                return STRUCTURED + "WriteValue";
+            case 327: // X509IdentityToken_Encoding_DefaultBinary
+            case 326: // X509IdentityToken_Encoding_DefaultXml
+                return STRUCTURED + "X509IdentityToken";
+            case 12090: // XVType_Encoding_DefaultBinary
+            case 12082: // XVType_Encoding_DefaultXml
+                return STRUCTURED + "XVType";
+            default:
+                return null;
+        }
+    }
+
+}
@@ -16,20 +16,25 @@
 
 package com.digitalpetri.opcua.stack.core.serialization;
 
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
-import com.google.common.collect.ImmutableSet;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.google.common.reflect.ClassPath;
-import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Registry of the encoder and decoder delegates for structured and enumerated types.
+ * <p>
+ * Generated types register their delegates in their static initializer. Rather than loading every type up front, a
+ * type is loaded the first time its class or one of its encoding ids ({@link DelegateIndex}) is looked up.
+ */
 public class DelegateRegistry {
 
     private static final Map<Class<?>, EncoderDelegate<?>> encodersByClass = Maps.newConcurrentMap();
@@ -40,12 +45,24 @@ public class DelegateRegistry {
 
     private static final Map<NodeId, DecoderDelegate<?>> decodersById = Maps.newConcurrentMap();
 
+    /*
+     * Classes, and names of classes, that have already been loaded and initialized. A lookup that still misses after
+     * loading will keep missing, so they aren't loaded again.
+     */
+    private static final Set<Class<?>> loadedClasses = Sets.newConcurrentHashSet();
+
+    private static final Set<String> loadedClassNames = Sets.newConcurrentHashSet();
+
+    private static final AtomicInteger generation = new AtomicInteger();
+
     public static <T> void registerEncoder(EncoderDelegate<T> delegate, Class<T> clazz, NodeId... ids) {
         encodersByClass.put(clazz, delegate);
 
         if (ids != null) {
             Arrays.stream(ids).forEach(id -> encodersById.put(id, delegate));
         }
+
+        generation.incrementAndGet();
     }
 
     public static <T> void registerDecoder(DecoderDelegate<T> delegate, Class<T> clazz, NodeId... ids) {
@@ -54,6 +71,16 @@ public class DelegateRegistry {
         if (ids != null) {
             Arrays.stream(ids).forEach(id -> decodersById.put(id, delegate));
         }
+
+        generation.incrementAndGet();
+    }
+
+    /**
+     * @return a number that changes every time a delegate is registered. Anything that caches delegates looked up here
+     * must drop them when it changes, so a delegate registered again for the same class takes effect.
+     */
+    public static int getGeneration() {
+        return generation.get();
     }
 
     @SuppressWarnings("unchecked")
@@ -69,7 +96,13 @@ public class DelegateRegistry {
     @SuppressWarnings("unchecked")
     public static <T> EncoderDelegate<T> getEncoder(Class<?> clazz) throws UaSerializationException {
         try {
-            return (EncoderDelegate<T>) encodersByClass.get(clazz);
+            EncoderDelegate<T> encoder = (EncoderDelegate<T>) encodersByClass.get(clazz);
+
+            if (encoder == null && loadDelegates(clazz)) {
+                encoder = (EncoderDelegate<T>) encodersByClass.get(clazz);
+            }
+
+            return encoder;
         } catch (NullPointerException e) {
             throw new UaSerializationException(StatusCodes.Bad_EncodingError,
                     "no encoder registered for class=" + clazz);
@@ -79,7 +112,13 @@ public class DelegateRegistry {
     @SuppressWarnings("unchecked")
     public static <T> EncoderDelegate<T> getEncoder(NodeId encodingId) throws UaSerializationException {
         try {
-            return (EncoderDelegate<T>) encodersById.get(encodingId);
+            EncoderDelegate<T> encoder = (EncoderDelegate<T>) encodersById.get(encodingId);
+
+            if (encoder == null && loadDelegates(encodingId)) {
+                encoder = (EncoderDelegate<T>) encodersById.get(encodingId);
+            }
+
+            return encoder;
         } catch (NullPointerException e) {
             throw new UaSerializationException(StatusCodes.Bad_EncodingError,
                     "no encoder registered for encodingId=" + encodingId);
@@ -99,7 +138,13 @@ public class DelegateRegistry {
     @SuppressWarnings("unchecked")
     public static <T> DecoderDelegate<T> getDecoder(Class<T> clazz) throws UaSerializationException {
         try {
-            return (DecoderDelegate<T>) decodersByClass.get(clazz);
+            DecoderDelegate<T> decoder = (DecoderDelegate<T>) decodersByClass.get(clazz);
+
+            if (decoder == null && loadDelegates(clazz)) {
+                decoder = (DecoderDelegate<T>) decodersByClass.get(clazz);
+            }
+
+            return decoder;
         } catch (NullPointerException e) {
             throw new UaSerializationException(StatusCodes.Bad_DecodingError,
                     "no decoder registered for class=" + clazz);
@@ -110,6 +155,10 @@ public class DelegateRegistry {
     public static <T> DecoderDelegate<T> getDecoder(NodeId encodingId) {
         DecoderDelegate<T> decoder = (DecoderDelegate<T>) decodersById.get(encodingId);
 
+        if (decoder == null && loadDelegates(encodingId)) {
+            decoder = (DecoderDelegate<T>) decodersById.get(encodingId);
+        }
+
         if (decoder == null) {
             throw new UaSerializationException(StatusCodes.Bad_DecodingError,
                     "no decoder registered for encodingId=" + encodingId);
@@ -118,35 +167,54 @@ public class DelegateRegistry {
         return decoder;
     }
 
-    static {
-        /*
-         * Reflect-o-magically find all generated structured and enumerated types and force their static initialization
-         * blocks to run, registering their encode/decode methods with the delegate registry.
-         */
-        Logger logger = LoggerFactory.getLogger(DelegateRegistry.class);
-
-        try {
-            ClassLoader classLoader = DelegateRegistry.class.getClassLoader();
-            ClassPath classPath = ClassPath.from(classLoader);
-
-            ImmutableSet<ClassPath.ClassInfo> structures =
-                    classPath.getTopLevelClasses("com.digitalpetri.opcua.stack.core.types.structured");
+    /**
+     * Load the class that registers delegates for {@code encodingId}, if {@link DelegateIndex} knows of one and it
+     * hasn't already been loaded.
+     *
+     * @return {@code true} if a class was loaded and delegates may now be registered for {@code encodingId}.
+     */
+    private static boolean loadDelegates(NodeId encodingId) {
+        if (encodingId != null &&
+                encodingId.getNamespaceIndex().intValue() == 0 &&
+                encodingId.getIdentifier() instanceof UInteger) {
 
-            ImmutableSet<ClassPath.ClassInfo> enumerations =
-                    classPath.getTopLevelClasses("com.digitalpetri.opcua.stack.core.types.enumerated");
-
-            Sets.union(structures, enumerations).forEach(classInfo -> {
-                Class<?> clazz = classInfo.load();
+            String className = DelegateIndex.getClassName(((UInteger) encodingId.getIdentifier()).longValue());
 
+            if (className != null && !loadedClassNames.contains(className)) {
                 try {
-                    Class.forName(clazz.getName(), true, classLoader);
-                } catch (Exception e) {
-                    logger.error("Error loading class: {}", clazz, e);
+                    Class.forName(className, true, DelegateRegistry.class.getClassLoader());
+                    return true;
+                } catch (ClassNotFoundException e) {
+                    LoggerFactory.getLogger(DelegateRegistry.class).error("Error loading class: {}", className, e);
+                } finally {
+                    // Only once loading has finished; a concurrent lookup must wait for initialization, not skip it.
+                    loadedClassNames.add(className);
                 }
-            });
-        } catch (IOException e) {
-            logger.error("Error loading class path.", e);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Run the static initialization of {@code clazz}, which registers its delegates if it is a generated type, unless
+     * it has already been run.
+     *
+     * @return {@code true} if {@code clazz} was initialized and delegates may now be registered for it.
+     */
+    private static boolean loadDelegates(Class<?> clazz) {
+        if (clazz != null && !loadedClasses.contains(clazz)) {
+            try {
+                Class.forName(clazz.getName(), true, clazz.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException e) {
+                LoggerFactory.getLogger(DelegateRegistry.class).error("Error loading class: {}", clazz, e);
+            } finally {
+                loadedClasses.add(clazz);
+            }
         }
+
+        return false;
     }
 
 }
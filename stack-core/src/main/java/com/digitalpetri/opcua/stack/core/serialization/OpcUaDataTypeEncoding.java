@@ -19,6 +19,7 @@ package com.digitalpetri.opcua.stack.core.serialization;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
 import javax.xml.stream.XMLStreamException;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
@@ -31,77 +32,203 @@ import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
 import com.digitalpetri.opcua.stack.core.types.builtin.XmlElement;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 
+/**
+ * The OPC UA binary and XML encodings.
+ * <p>
+ * Bodies are encoded and decoded with codecs and scratch buffers kept per thread and reused from call to call, rather
+ * than created for every ExtensionObject. A call made while the calling thread's codecs are already in use, e.g. by a
+ * delegate that encodes or decodes a nested ExtensionObject itself, gets codecs of its own.
+ */
 public class OpcUaDataTypeEncoding implements DataTypeEncoding {
 
-    private final ByteBufAllocator allocator = ByteBufAllocator.DEFAULT;
+    /**
+     * Scratch buffers that have grown larger than this while encoding are replaced rather than kept for the next call.
+     */
+    private static final int MAX_SCRATCH_CAPACITY = 64 * 1024;
+
+    private final LongAdder codecsAcquired = new LongAdder();
+    private final LongAdder codecsCreated = new LongAdder();
+
+    private final ThreadLocal<Codecs> threadCodecs = ThreadLocal.withInitial(this::newCodecs);
+
+    /**
+     * @return {@link DataTypeEncoding#OPC_UA}, e.g. to read the codec statistics of the encoding ExtensionObjects use
+     * by default.
+     */
+    public static OpcUaDataTypeEncoding getDefault() {
+        return (OpcUaDataTypeEncoding) OPC_UA;
+    }
 
     @Override
     public ByteString encodeToByteString(Object object, NodeId encodingTypeId) {
         EncoderDelegate<Object> delegate = DelegateRegistry.getEncoder(encodingTypeId);
 
-        ByteBuf buffer = allocator.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        Codecs codecs = acquire();
+
+        try {
+            ByteBuf buffer = codecs.scratch.clear();
+
+            delegate.encode(object, codecs.encoder.setBuffer(buffer));
 
-        BinaryEncoder encoder = new BinaryEncoder();
-        encoder.setBuffer(buffer);
+            byte[] bs = new byte[buffer.readableBytes()];
+            buffer.readBytes(bs);
 
-        delegate.encode(object, encoder);
+            return ByteString.of(bs);
+        } finally {
+            codecs.encoder.setBuffer(null);
 
-        byte[] bs = new byte[buffer.readableBytes()];
-        buffer.readBytes(bs);
-        buffer.release();
+            if (codecs.scratch.capacity() > MAX_SCRATCH_CAPACITY) {
+                codecs.scratch = newScratch();
+            }
 
-        return ByteString.of(bs);
+            release(codecs);
+        }
     }
 
     @Override
     public Object decodeFromByteString(ByteString encoded, NodeId encodingTypeId) {
-        DecoderDelegate<Object> delegate = DelegateRegistry.getDecoder(encodingTypeId);
-
         byte[] bs = encoded.bytes();
         if (bs == null) bs = new byte[0];
 
-        ByteBuf buffer = Unpooled
-                .wrappedBuffer(bs)
-                .order(ByteOrder.LITTLE_ENDIAN);
+        return decode(Unpooled.wrappedBuffer(bs), encodingTypeId);
+    }
 
-        BinaryDecoder decoder = new BinaryDecoder();
-        decoder.setBuffer(buffer);
+    @Override
+    public Object decodeFromByteBuf(ByteBuf encoded, NodeId encodingTypeId) {
+        return decode(encoded.duplicate(), encodingTypeId);
+    }
 
-        return delegate.decode(decoder);
+    private Object decode(ByteBuf buffer, NodeId encodingTypeId) {
+        DecoderDelegate<Object> delegate = DelegateRegistry.getDecoder(encodingTypeId);
+
+        Codecs codecs = acquire();
+
+        try {
+            return delegate.decode(codecs.decoder.setBuffer(buffer.order(ByteOrder.LITTLE_ENDIAN)));
+        } finally {
+            codecs.decoder.setBuffer(null);
+
+            release(codecs);
+        }
     }
 
     @Override
     public XmlElement encodeToXmlElement(Object object, NodeId encodingTypeId) {
-        try {
-            EncoderDelegate<Object> delegate = DelegateRegistry.getEncoder(encodingTypeId);
+        EncoderDelegate<Object> delegate = DelegateRegistry.getEncoder(encodingTypeId);
 
-            StringWriter stringWriter = new StringWriter();
+        Codecs codecs = acquire();
 
-            XmlEncoder encoder = new XmlEncoder();
-            encoder.setOutput(stringWriter);
+        try {
+            StringWriter writer = codecs.xmlScratch;
+            writer.getBuffer().setLength(0);
+
+            XmlEncoder encoder = codecs.xmlEncoder().setOutput(writer);
 
             delegate.encode(object, encoder);
+            encoder.flush();
 
-            return new XmlElement(stringWriter.toString());
+            return new XmlElement(writer.toString());
         } catch (XMLStreamException e) {
             throw new UaSerializationException(StatusCodes.Bad_EncodingError, e);
+        } finally {
+            if (codecs.xmlScratch.getBuffer().capacity() > MAX_SCRATCH_CAPACITY) {
+                codecs.xmlScratch = new StringWriter();
+            }
+
+            release(codecs);
         }
     }
 
     @Override
     public Object decodeFromXmlElement(XmlElement encoded, NodeId encodingTypeId) {
-        try {
-            DecoderDelegate<Object> delegate = DelegateRegistry.getDecoder(encodingTypeId);
+        DecoderDelegate<Object> delegate = DelegateRegistry.getDecoder(encodingTypeId);
+
+        Codecs codecs = acquire();
 
-            XmlDecoder decoder = new XmlDecoder();
-            decoder.setInput(new StringReader(encoded.getFragment()));
+        try {
+            XmlDecoder decoder = codecs.xmlDecoder().setInput(new StringReader(encoded.getFragment()));
 
             return delegate.decode(decoder);
         } catch (XMLStreamException e) {
             throw new UaSerializationException(StatusCodes.Bad_DecodingError, e);
+        } finally {
+            release(codecs);
+        }
+    }
+
+    /**
+     * @return the number of times codecs have been used, whether reused or newly created.
+     */
+    public long getCodecAcquireCount() {
+        return codecsAcquired.sum();
+    }
+
+    /**
+     * @return the number of sets of codecs created: one for each thread that has used this encoding, plus one for each
+     * nested use.
+     */
+    public long getCodecCreateCount() {
+        return codecsCreated.sum();
+    }
+
+    /**
+     * @return the number of times codecs were reused rather than created.
+     */
+    public long getCodecReuseCount() {
+        return Math.max(0L, getCodecAcquireCount() - getCodecCreateCount());
+    }
+
+    private Codecs acquire() {
+        codecsAcquired.increment();
+
+        Codecs codecs = threadCodecs.get();
+
+        if (codecs.inUse) {
+            codecs = newCodecs();
+        }
+
+        codecs.inUse = true;
+
+        return codecs;
+    }
+
+    private void release(Codecs codecs) {
+        codecs.inUse = false;
+    }
+
+    private Codecs newCodecs() {
+        codecsCreated.increment();
+
+        return new Codecs();
+    }
+
+    private static ByteBuf newScratch() {
+        return Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static final class Codecs {
+        final BinaryEncoder encoder = new BinaryEncoder();
+        final BinaryDecoder decoder = new BinaryDecoder();
+
+        ByteBuf scratch = newScratch();
+
+        // The XML codecs are only created once a thread needs them.
+        XmlEncoder xmlEncoder;
+        XmlDecoder xmlDecoder;
+        StringWriter xmlScratch = new StringWriter();
+
+        boolean inUse;
+
+        XmlEncoder xmlEncoder() {
+            if (xmlEncoder == null) xmlEncoder = new XmlEncoder();
+            return xmlEncoder;
+        }
+
+        XmlDecoder xmlDecoder() {
+            if (xmlDecoder == null) xmlDecoder = new XmlDecoder();
+            return xmlDecoder;
         }
     }
 
@@ -62,6 +62,60 @@ public interface UaDecoder {
 
     Double decodeDouble(String field) throws UaSerializationException;
 
+    /*
+     * Primitive variants of the numeric decodings above, for values that don't need to be boxed. Unsigned values are
+     * returned in the next wider signed type, and a missing value decodes as zero. Implementations that can read
+     * primitives directly should override these.
+     */
+
+    default boolean decodeBooleanValue(String field) throws UaSerializationException {
+        Boolean value = decodeBoolean(field);
+
+        return value != null && value;
+    }
+
+    default short decodeInt16Value(String field) throws UaSerializationException {
+        Short value = decodeInt16(field);
+
+        return value != null ? value : 0;
+    }
+
+    default int decodeInt32Value(String field) throws UaSerializationException {
+        Integer value = decodeInt32(field);
+
+        return value != null ? value : 0;
+    }
+
+    default long decodeInt64Value(String field) throws UaSerializationException {
+        Long value = decodeInt64(field);
+
+        return value != null ? value : 0L;
+    }
+
+    default int decodeUInt16AsInt(String field) throws UaSerializationException {
+        UShort value = decodeUInt16(field);
+
+        return value != null ? value.intValue() : 0;
+    }
+
+    default long decodeUInt32AsLong(String field) throws UaSerializationException {
+        UInteger value = decodeUInt32(field);
+
+        return value != null ? value.longValue() : 0L;
+    }
+
+    default float decodeFloatValue(String field) throws UaSerializationException {
+        Float value = decodeFloat(field);
+
+        return value != null ? value : 0f;
+    }
+
+    default double decodeDoubleValue(String field) throws UaSerializationException {
+        Double value = decodeDouble(field);
+
+        return value != null ? value : 0d;
+    }
+
     String decodeString(String field) throws UaSerializationException;
 
     DateTime decodeDateTime(String field) throws UaSerializationException;
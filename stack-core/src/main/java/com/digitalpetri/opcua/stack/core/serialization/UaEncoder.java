@@ -36,6 +36,7 @@ import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UByte;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.ULong;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 
 public interface UaEncoder {
 
@@ -61,6 +62,43 @@ public interface UaEncoder {
 
     void encodeDouble(String field, Double value) throws UaSerializationException;
 
+    /*
+     * Primitive overloads of the numeric encodings above, for values that aren't already boxed. Unsigned values are
+     * passed in the next wider signed type. Implementations that can write primitives directly should override these.
+     */
+
+    default void encodeBoolean(String field, boolean value) throws UaSerializationException {
+        encodeBoolean(field, Boolean.valueOf(value));
+    }
+
+    default void encodeInt16(String field, short value) throws UaSerializationException {
+        encodeInt16(field, Short.valueOf(value));
+    }
+
+    default void encodeInt32(String field, int value) throws UaSerializationException {
+        encodeInt32(field, Integer.valueOf(value));
+    }
+
+    default void encodeInt64(String field, long value) throws UaSerializationException {
+        encodeInt64(field, Long.valueOf(value));
+    }
+
+    default void encodeUInt16(String field, int value) throws UaSerializationException {
+        encodeUInt16(field, Unsigned.ushort(value));
+    }
+
+    default void encodeUInt32(String field, long value) throws UaSerializationException {
+        encodeUInt32(field, Unsigned.uint(value));
+    }
+
+    default void encodeFloat(String field, float value) throws UaSerializationException {
+        encodeFloat(field, Float.valueOf(value));
+    }
+
+    default void encodeDouble(String field, double value) throws UaSerializationException {
+        encodeDouble(field, Double.valueOf(value));
+    }
+
     void encodeString(String field, String value) throws UaSerializationException;
 
     void encodeDateTime(String field, DateTime value) throws UaSerializationException;
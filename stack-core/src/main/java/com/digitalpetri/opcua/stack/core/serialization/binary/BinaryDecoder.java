@@ -16,13 +16,16 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
-import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import javax.annotation.Nullable;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaSerializationException;
@@ -41,6 +44,7 @@ import com.digitalpetri.opcua.stack.core.types.builtin.ExpandedNodeId;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
 import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeIdCache;
 import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
 import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
 import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
@@ -56,18 +60,95 @@ import io.netty.buffer.ByteBuf;
 
 public class BinaryDecoder implements UaDecoder {
 
+    private static final int MAX_SCRATCH_LENGTH = 64 * 1024;
+
     private volatile ByteBuf buffer;
 
     private final int maxArrayLength;
     private final int maxStringLength;
 
+    /**
+     * Scratch space strings are copied into when the buffer has no backing array; strings longer than
+     * {@link #MAX_SCRATCH_LENGTH} get a temporary array instead.
+     */
+    private byte[] scratch = new byte[256];
+
+    private final StringCache stringCache;
+
+    private final boolean decodePrimitiveArrays;
+
+    private final boolean retainExtensionObjectBodies;
+
+    /**
+     * ExtensionObjects with retained bodies decoded so far by the {@link #decodeMessage(String)} in progress, released
+     * if decoding the rest of the message fails.
+     */
+    private final List<ExtensionObject> retainedBodies = new ArrayList<>();
+    private int messageDepth = 0;
+
+    private final NodeIdCache nodeIdCache = new NodeIdCache();
+
+    private final DelegateCache<DecoderDelegate<?>> decoders =
+            new DelegateCache<>(DelegateRegistry::getDecoder);
+
     public BinaryDecoder() {
         this(ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH, ChannelConfig.DEFAULT_MAX_STRING_LENGTH);
     }
 
     public BinaryDecoder(int maxArrayLength, int maxStringLength) {
+        this(maxArrayLength, maxStringLength, null);
+    }
+
+    /**
+     * @param stringCache if non-null, the {@link StringCache} decoded strings are looked up in and added to.
+     */
+    public BinaryDecoder(int maxArrayLength, int maxStringLength, @Nullable StringCache stringCache) {
+        this(maxArrayLength, maxStringLength, stringCache, ChannelConfig.DEFAULT_DECODE_PRIMITIVE_ARRAYS);
+    }
+
+    /**
+     * @param stringCache           if non-null, the {@link StringCache} decoded strings are looked up in and added to.
+     * @param decodePrimitiveArrays if {@code true}, Variant arrays of Boolean, SByte, Int16, Int32, Int64, Float and
+     *                              Double are decoded as primitive arrays, e.g. {@code double[]} instead of
+     *                              {@code Double[]}.
+     */
+    public BinaryDecoder(int maxArrayLength,
+                         int maxStringLength,
+                         @Nullable StringCache stringCache,
+                         boolean decodePrimitiveArrays) {
+
+        this(maxArrayLength, maxStringLength, stringCache, decodePrimitiveArrays,
+                ChannelConfig.DEFAULT_RETAIN_EXTENSION_OBJECT_BODIES);
+    }
+
+    /**
+     * @param stringCache                 if non-null, the {@link StringCache} decoded strings are looked up in and
+     *                                    added to.
+     * @param decodePrimitiveArrays       if {@code true}, Variant arrays of Boolean, SByte, Int16, Int32, Int64, Float
+     *                                    and Double are decoded as primitive arrays.
+     * @param retainExtensionObjectBodies if {@code true}, binary ExtensionObject bodies are decoded as retained slices
+     *                                    of the buffer being decoded rather than copied; see
+     *                                    {@link ExtensionObject#ExtensionObject(ByteBuf, NodeId)}.
+     */
+    public BinaryDecoder(int maxArrayLength,
+                         int maxStringLength,
+                         @Nullable StringCache stringCache,
+                         boolean decodePrimitiveArrays,
+                         boolean retainExtensionObjectBodies) {
+
         this.maxArrayLength = maxArrayLength;
         this.maxStringLength = maxStringLength;
+        this.stringCache = stringCache;
+        this.decodePrimitiveArrays = decodePrimitiveArrays;
+        this.retainExtensionObjectBodies = retainExtensionObjectBodies;
+    }
+
+    /**
+     * @return the {@link StringCache} used by this decoder, or {@code null} if it doesn't have one.
+     */
+    @Nullable
+    public StringCache getStringCache() {
+        return stringCache;
     }
 
     public BinaryDecoder setBuffer(ByteBuf buffer) {
@@ -130,9 +211,49 @@ public class BinaryDecoder implements UaDecoder {
         return buffer.readDouble();
     }
 
+    @Override
+    public boolean decodeBooleanValue(String field) {
+        return buffer.readBoolean();
+    }
+
+    @Override
+    public short decodeInt16Value(String field) {
+        return buffer.readShort();
+    }
+
+    @Override
+    public int decodeInt32Value(String field) {
+        return buffer.readInt();
+    }
+
+    @Override
+    public long decodeInt64Value(String field) {
+        return buffer.readLong();
+    }
+
+    @Override
+    public int decodeUInt16AsInt(String field) {
+        return buffer.readUnsignedShort();
+    }
+
+    @Override
+    public long decodeUInt32AsLong(String field) {
+        return buffer.readUnsignedInt();
+    }
+
+    @Override
+    public float decodeFloatValue(String field) {
+        return buffer.readFloat();
+    }
+
+    @Override
+    public double decodeDoubleValue(String field) {
+        return buffer.readDouble();
+    }
+
     @Override
     public String decodeString(String field) throws UaSerializationException {
-        int length = decodeInt32(null);
+        int length = decodeInt32Value(null);
 
         if (length == -1) {
             return null;
@@ -142,12 +263,54 @@ public class BinaryDecoder implements UaDecoder {
                         String.format("max string length exceeded (length=%s, max=%s)", length, maxStringLength));
             }
 
-            String s = buffer.toString(buffer.readerIndex(), length, Charset.forName("UTF-8"));
-            buffer.skipBytes(length);
-            return s;
+            return readUtf8(length);
+        }
+    }
+
+    /**
+     * Read {@code length} bytes of UTF-8 straight from the buffer (or its backing array) into a String.
+     */
+    private String readUtf8(int length) {
+        int index = buffer.readerIndex();
+
+        // Skip first so a bad length fails before anything is read or allocated.
+        buffer.skipBytes(length);
+
+        if (buffer.hasArray()) {
+            return decodeUtf8(buffer.array(), buffer.arrayOffset() + index, length, stringCache);
+        } else {
+            byte[] bytes = scratch;
+
+            if (bytes.length < length) {
+                bytes = new byte[length];
+
+                if (length <= MAX_SCRATCH_LENGTH) scratch = bytes;
+            }
+
+            buffer.getBytes(index, bytes, 0, length);
+
+            return decodeUtf8(bytes, 0, length, stringCache);
         }
     }
 
+    private static String decodeUtf8(byte[] bytes, int offset, int length, @Nullable StringCache stringCache) {
+        return stringCache != null ?
+                stringCache.decode(bytes, offset, length) :
+                decodeUtf8(bytes, offset, length);
+    }
+
+    @SuppressWarnings("deprecation")
+    static String decodeUtf8(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, offset, length, StandardCharsets.UTF_8);
+            }
+        }
+
+        // All ASCII; every byte is its own char and can be widened without decoding.
+        return new String(bytes, 0, offset, length);
+    }
+
     @Override
     public DateTime decodeDateTime(String field) {
         return new DateTime(buffer.readLong());
@@ -167,7 +330,7 @@ public class BinaryDecoder implements UaDecoder {
 
     @Override
     public ByteString decodeByteString(String field) {
-        int length = decodeInt32(null);
+        int length = decodeInt32Value(null);
 
         if (length == -1) {
             return ByteString.NULL_VALUE;
@@ -180,18 +343,12 @@ public class BinaryDecoder implements UaDecoder {
 
     @Override
     public XmlElement decodeXmlElement(String field) throws UaSerializationException {
-        ByteString byteString = decodeByteString(null);
-        byte[] bs = byteString.bytes();
+        int length = decodeInt32Value(null);
 
-        if (bs == null) {
+        if (length == -1) {
             return new XmlElement(null);
         } else {
-            try {
-                String fragment = new String(bs, "UTF-8");
-                return new XmlElement(fragment);
-            } catch (UnsupportedEncodingException e) {
-                throw new UaSerializationException(StatusCodes.Bad_DecodingError, e);
-            }
+            return new XmlElement(readUtf8(length));
         }
     }
 
@@ -199,16 +356,18 @@ public class BinaryDecoder implements UaDecoder {
     public NodeId decodeNodeId(String field) throws UaSerializationException {
         int format = buffer.readByte() & 0x0F;
 
-
+        // Numeric ids are canonicalized through nodeIdCache rather than allocated on every decode.
         if (format == 0x00) {
             /* Two-byte format */
-            return new NodeId(Unsigned.ushort(0), Unsigned.uint(buffer.readUnsignedByte()));
+            return NodeIdCache.namespaceZero(buffer.readUnsignedByte());
         } else if (format == 0x01) {
             /* Four-byte format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedByte()), Unsigned.uint(buffer.readUnsignedShort()));
+            int namespaceIndex = buffer.readUnsignedByte();
+            return nodeIdCache.get(namespaceIndex, buffer.readUnsignedShort());
         } else if (format == 0x02) {
             /* Numeric format */
-            return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), Unsigned.uint(buffer.readUnsignedInt()));
+            int namespaceIndex = buffer.readUnsignedShort();
+            return nodeIdCache.get(namespaceIndex, buffer.readUnsignedInt());
         } else if (format == 0x03) {
             /* String format */
             return new NodeId(Unsigned.ushort(buffer.readUnsignedShort()), decodeString(null));
@@ -237,7 +396,7 @@ public class BinaryDecoder implements UaDecoder {
         }
 
         if ((flags & 0x40) == 0x40) {
-            serverIndex = decodeUInt32(null).longValue();
+            serverIndex = decodeUInt32AsLong(null);
         }
 
         return new ExpandedNodeId(nodeId, namespaceUri, serverIndex);
@@ -245,12 +404,12 @@ public class BinaryDecoder implements UaDecoder {
 
     @Override
     public StatusCode decodeStatusCode(String field) {
-        return new StatusCode(decodeUInt32(null));
+        return new StatusCode(decodeUInt32AsLong(null));
     }
 
     @Override
     public QualifiedName decodeQualifiedName(String field) throws UaSerializationException {
-        int namespaceIndex = decodeUInt16(null).intValue();
+        int namespaceIndex = decodeUInt16AsInt(null);
         String name = decodeString(null);
 
         return new QualifiedName(Unsigned.ushort(namespaceIndex), name);
@@ -282,6 +441,22 @@ public class BinaryDecoder implements UaDecoder {
         if (encoding == 0) {
             return new ExtensionObject((ByteString) null, encodingTypeId);
         } else if (encoding == 1) {
+            if (retainExtensionObjectBodies) {
+                int length = buffer.getInt(buffer.readerIndex());
+
+                if (length >= 0) {
+                    buffer.skipBytes(4);
+
+                    ByteBuf body = buffer.slice(buffer.readerIndex(), length).retain();
+                    buffer.skipBytes(length);
+
+                    ExtensionObject xo = new ExtensionObject(body, encodingTypeId);
+                    if (messageDepth > 0) retainedBodies.add(xo);
+
+                    return xo;
+                }
+            }
+
             ByteString byteString = decodeByteString(null);
 
             return new ExtensionObject(byteString, encodingTypeId);
@@ -318,14 +493,18 @@ public class BinaryDecoder implements UaDecoder {
             boolean arrayEncoded = (encodingMask & 0x80) == 0x80;
 
             if (arrayEncoded) {
-                int length = decodeInt32(null);
-                Class<?> backingClass = TypeUtil.getBackingClass(typeId);
-                Object flatArray = Array.newInstance(backingClass, length);
+                int length = decodeInt32Value(null);
+                Object flatArray = decodePrimitiveArrays ? decodePrimitiveArray(typeId, length) : null;
 
-                for (int i = 0; i < length; i++) {
-                    Object element = decodeBuiltinType(typeId);
+                if (flatArray == null) {
+                    Class<?> backingClass = TypeUtil.getBackingClass(typeId);
+                    flatArray = Array.newInstance(backingClass, length);
 
-                    Array.set(flatArray, i, element);
+                    for (int i = 0; i < length; i++) {
+                        Object element = decodeBuiltinType(typeId);
+
+                        Array.set(flatArray, i, element);
+                    }
                 }
 
                 int[] dimensions = dimensionsEncoded ? decodeDimensions() : new int[]{length};
@@ -340,6 +519,86 @@ public class BinaryDecoder implements UaDecoder {
         }
     }
 
+    /**
+     * Decode the elements of a Variant array of a builtin type backed by a Java primitive directly into a primitive
+     * array, copying fixed-size elements in bulk.
+     *
+     * @return the primitive array, or {@code null} if {@code typeId} isn't backed by a Java primitive.
+     */
+    private Object decodePrimitiveArray(int typeId, int length) throws UaSerializationException {
+        int elementSize;
+
+        switch (typeId) {
+            case 1:
+            case 2:
+                elementSize = 1;
+                break;
+            case 4:
+                elementSize = 2;
+                break;
+            case 6:
+            case 10:
+                elementSize = 4;
+                break;
+            case 8:
+            case 11:
+                elementSize = 8;
+                break;
+            default:
+                return null;
+        }
+
+        if (length < 0 || (long) length * elementSize > buffer.readableBytes()) {
+            throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                    String.format("invalid array length: %s", length));
+        }
+
+        int byteLength = length * elementSize;
+
+        if (typeId == 1) {
+            boolean[] array = new boolean[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = buffer.readBoolean();
+            }
+            return array;
+        } else if (typeId == 2) {
+            byte[] array = new byte[length];
+            buffer.readBytes(array);
+            return array;
+        }
+
+        ByteBuffer elements = buffer.nioBuffer(buffer.readerIndex(), byteLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.skipBytes(byteLength);
+
+        switch (typeId) {
+            case 4: {
+                short[] array = new short[length];
+                elements.asShortBuffer().get(array);
+                return array;
+            }
+            case 6: {
+                int[] array = new int[length];
+                elements.asIntBuffer().get(array);
+                return array;
+            }
+            case 8: {
+                long[] array = new long[length];
+                elements.asLongBuffer().get(array);
+                return array;
+            }
+            case 10: {
+                float[] array = new float[length];
+                elements.asFloatBuffer().get(array);
+                return array;
+            }
+            default: {
+                double[] array = new double[length];
+                elements.asDoubleBuffer().get(array);
+                return array;
+            }
+        }
+    }
+
     @Override
     public DiagnosticInfo decodeDiagnosticInfo(String field) throws UaSerializationException {
         int mask = buffer.readByte();
@@ -347,10 +606,10 @@ public class BinaryDecoder implements UaDecoder {
         if (mask == 0) {
             return null;
         } else {
-            int symbolicId = ((mask & 0x01) == 0x01) ? decodeInt32(null) : -1;
-            int namespaceUri = ((mask & 0x02) == 0x02) ? decodeInt32(null) : -1;
-            int localizedText = ((mask & 0x04) == 0x04) ? decodeInt32(null) : -1;
-            int locale = ((mask & 0x08) == 0x08) ? decodeInt32(null) : -1;
+            int symbolicId = ((mask & 0x01) == 0x01) ? decodeInt32Value(null) : -1;
+            int namespaceUri = ((mask & 0x02) == 0x02) ? decodeInt32Value(null) : -1;
+            int localizedText = ((mask & 0x04) == 0x04) ? decodeInt32Value(null) : -1;
+            int locale = ((mask & 0x08) == 0x08) ? decodeInt32Value(null) : -1;
             String additionalInfo = ((mask & 0x10) == 0x10) ? decodeString(null) : null;
             StatusCode innerStatusCode = ((mask & 0x20) == 0x20) ? decodeStatusCode(null) : null;
             DiagnosticInfo innerDiagnosticInfo = ((mask & 0x40) == 0x40) ? decodeDiagnosticInfo(null) : null;
@@ -366,27 +625,56 @@ public class BinaryDecoder implements UaDecoder {
 
         DecoderDelegate<?> delegate = DelegateRegistry.getDecoder(encodingId);
 
-        return (T) delegate.decode(this);
+        if (!retainExtensionObjectBodies) {
+            return (T) delegate.decode(this);
+        }
+
+        boolean outermost = messageDepth++ == 0;
+
+        try {
+            return (T) delegate.decode(this);
+        } catch (RuntimeException e) {
+            // The message is never returned, so nothing else can release the bodies it retained.
+            if (outermost) retainedBodies.forEach(ExtensionObject::release);
+
+            throw e;
+        } finally {
+            messageDepth--;
+
+            if (outermost) retainedBodies.clear();
+        }
     }
 
     @Override
     public <T extends UaEnumeration> T decodeEnumeration(String field, Class<T> clazz) throws UaSerializationException {
-        DecoderDelegate<T> delegate = DelegateRegistry.getDecoder(clazz);
+        DecoderDelegate<T> delegate = getDecoder(clazz);
 
         return delegate.decode(this);
     }
 
     @Override
     public <T extends UaSerializable> T decodeSerializable(String field, Class<T> clazz) throws UaSerializationException {
-        DecoderDelegate<T> delegate = DelegateRegistry.getDecoder(clazz);
+        DecoderDelegate<T> delegate = getDecoder(clazz);
 
         return delegate.decode(this);
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> DecoderDelegate<T> getDecoder(Class<T> clazz) throws UaSerializationException {
+        DecoderDelegate<T> delegate = (DecoderDelegate<T>) decoders.get(clazz);
+
+        if (delegate == null) {
+            throw new UaSerializationException(StatusCodes.Bad_DecodingError,
+                    "no decoder registered for class=" + clazz);
+        }
+
+        return delegate;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T[] decodeArray(String field, Function<String, T> decoder, Class<T> clazz) throws UaSerializationException {
-        int length = decodeInt32(null);
+        int length = decodeInt32Value(null);
 
         if (length == -1) {
             return (T[]) Array.newInstance(clazz, 0);
@@ -396,20 +684,20 @@ public class BinaryDecoder implements UaDecoder {
                         "max array length exceeded");
             }
 
-            Object array = Array.newInstance(clazz, length);
+            T[] array = (T[]) Array.newInstance(clazz, length);
 
             for (int i = 0; i < length; i++) {
-                Array.set(array, i, decoder.apply(null));
+                array[i] = decoder.apply(null);
             }
 
-            return (T[]) array;
+            return array;
         }
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T[] decodeArray(String field, BiFunction<String, Class<T>, T> decoder, Class<T> clazz) throws UaSerializationException {
-        int length = decodeInt32(null);
+        int length = decodeInt32Value(null);
 
         if (length == -1) {
             return (T[]) Array.newInstance(clazz, 0);
@@ -428,14 +716,14 @@ public class BinaryDecoder implements UaDecoder {
     }
 
     private int[] decodeDimensions() {
-        int length = decodeInt32(null);
+        int length = decodeInt32Value(null);
 
         if (length == -1) {
             return new int[0];
         } else {
             int[] is = new int[length];
             for (int i = 0; i < length; i++) {
-                is[i] = decodeInt32(null);
+                is[i] = decodeInt32Value(null);
             }
             return is;
         }
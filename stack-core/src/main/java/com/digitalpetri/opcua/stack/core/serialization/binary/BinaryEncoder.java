@@ -16,12 +16,14 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
-import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.UUID;
 import java.util.function.BiConsumer;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaSerializationException;
@@ -32,6 +34,7 @@ import com.digitalpetri.opcua.stack.core.serialization.UaEncoder;
 import com.digitalpetri.opcua.stack.core.serialization.UaEnumeration;
 import com.digitalpetri.opcua.stack.core.serialization.UaSerializable;
 import com.digitalpetri.opcua.stack.core.serialization.UaStructure;
+import com.digitalpetri.opcua.stack.core.serialization.xml.XmlEncoder;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
 import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
@@ -48,7 +51,6 @@ import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UByte;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.ULong;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
-import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 import com.digitalpetri.opcua.stack.core.types.enumerated.IdType;
 import com.digitalpetri.opcua.stack.core.util.ArrayUtil;
 import com.digitalpetri.opcua.stack.core.util.TypeUtil;
@@ -56,11 +58,28 @@ import io.netty.buffer.ByteBuf;
 
 public class BinaryEncoder implements UaEncoder {
 
+    /**
+     * Large ByteStrings, strings and primitive arrays are written at most this many bytes (or characters) at a time,
+     * with a checkpoint after each slice.
+     */
+    private static final int CHECKPOINT_SLICE_LENGTH = 4096;
+
     private volatile ByteBuf buffer;
 
     private final int maxArrayLength;
     private final int maxStringLength;
 
+    private final DelegateCache<EncoderDelegate<?>> encoders =
+            new DelegateCache<>(DelegateRegistry::getEncoder);
+
+    private Runnable checkpoint;
+    private int checkpointsSuspended;
+
+    /**
+     * Encodes deferred XML ExtensionObject bodies; created the first time one is encoded.
+     */
+    private XmlEncoder xmlEncoder;
+
     public BinaryEncoder() {
         this(ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH, ChannelConfig.DEFAULT_MAX_STRING_LENGTH);
     }
@@ -79,6 +98,54 @@ public class BinaryEncoder implements UaEncoder {
         return buffer;
     }
 
+    /**
+     * Set a callback to run after each element of an array is encoded, and after each slice of a large ByteString,
+     * string or primitive array.
+     * <p>
+     * The callback may call {@link #setBuffer(ByteBuf)} to continue encoding into another buffer, e.g. to move on to
+     * the next chunk of a message while the rest of it is still being encoded. It is never run while a length that
+     * still has to be filled in is pending in the current buffer.
+     *
+     * @param checkpoint the callback, or {@code null} to remove it.
+     */
+    public BinaryEncoder setCheckpoint(@Nullable Runnable checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    private void runCheckpoint() {
+        if (checkpoint != null && checkpointsSuspended == 0) {
+            checkpoint.run();
+        }
+    }
+
+    /**
+     * Write {@code length} bytes of {@code bytes}, a slice at a time, with a checkpoint between slices.
+     */
+    private void writeSliced(byte[] bytes, int index, int length) {
+        int end = index + length;
+
+        while (index < end) {
+            int sliceLength = Math.min(end - index, CHECKPOINT_SLICE_LENGTH);
+            buffer.writeBytes(bytes, index, sliceLength);
+            index += sliceLength;
+
+            if (index < end) runCheckpoint();
+        }
+    }
+
+    private void writeSliced(ByteBuf bytes, int index, int length) {
+        int end = index + length;
+
+        while (index < end) {
+            int sliceLength = Math.min(end - index, CHECKPOINT_SLICE_LENGTH);
+            buffer.writeBytes(bytes, index, sliceLength);
+            index += sliceLength;
+
+            if (index < end) runCheckpoint();
+        }
+    }
+
     @Override
     public void encodeBoolean(String field, Boolean value) {
         if (value == null) {
@@ -178,6 +245,46 @@ public class BinaryEncoder implements UaEncoder {
         }
     }
 
+    @Override
+    public void encodeBoolean(String field, boolean value) {
+        buffer.writeBoolean(value);
+    }
+
+    @Override
+    public void encodeInt16(String field, short value) {
+        buffer.writeShort(value);
+    }
+
+    @Override
+    public void encodeInt32(String field, int value) {
+        buffer.writeInt(value);
+    }
+
+    @Override
+    public void encodeInt64(String field, long value) {
+        buffer.writeLong(value);
+    }
+
+    @Override
+    public void encodeUInt16(String field, int value) {
+        buffer.writeShort(value);
+    }
+
+    @Override
+    public void encodeUInt32(String field, long value) {
+        buffer.writeInt((int) value);
+    }
+
+    @Override
+    public void encodeFloat(String field, float value) {
+        buffer.writeFloat(value);
+    }
+
+    @Override
+    public void encodeDouble(String field, double value) {
+        buffer.writeDouble(value);
+    }
+
     @Override
     public void encodeString(String field, String value) throws UaSerializationException {
         if (value == null) {
@@ -188,27 +295,113 @@ public class BinaryEncoder implements UaEncoder {
                         "max string length exceeded");
             }
 
-            try {
-                // Record the current index and write a placeholder for the length.
-                int lengthIndex = buffer.writerIndex();
-                buffer.writeInt(0x42424242);
-
-                // Write the string bytes.
-                int indexBefore = buffer.writerIndex();
-                buffer.writeBytes(value.getBytes("UTF-8"));
-                int indexAfter = buffer.writerIndex();
-                int bytesWritten = indexAfter - indexBefore;
-
-                // Go back and update the length.
-                buffer.writerIndex(lengthIndex);
-                buffer.writeInt(bytesWritten);
-
-                // Return to where we were after writing the string.
-                buffer.writerIndex(indexAfter);
-            } catch (UnsupportedEncodingException e) {
-                throw new UaSerializationException(StatusCodes.Bad_EncodingError, e);
+            writeUtf8(value);
+        }
+    }
+
+    /**
+     * Write {@code value} as a length-prefixed UTF-8 string directly into the buffer, without an intermediate
+     * {@code byte[]}. Unpaired surrogates are written as '?', as {@link String#getBytes(java.nio.charset.Charset)} does.
+     * <p>
+     * Long strings are written a slice at a time, with a checkpoint between slices.
+     */
+    private void writeUtf8(String value) {
+        int length = value.length();
+        int utf8Length = utf8Length(value);
+
+        buffer.writeInt(utf8Length);
+
+        int remaining = utf8Length;
+        int i = 0;
+
+        while (i < length) {
+            int end = Math.min(length, i + CHECKPOINT_SLICE_LENGTH);
+
+            // A surrogate pair at the end of the slice is written whole, 4 bytes for the one character counted.
+            buffer.ensureWritable(Math.min(remaining, 3 * (end - i) + 1));
+
+            int start = buffer.writerIndex();
+            i = writeUtf8(value, i, end);
+            remaining -= buffer.writerIndex() - start;
+
+            if (i < length) runCheckpoint();
+        }
+    }
+
+    /**
+     * Write the characters of {@code value} from {@code i} to {@code end} into space already reserved in the buffer.
+     *
+     * @return the index of the next character to write; past {@code end} if a surrogate pair was split by it.
+     */
+    private int writeUtf8(String value, int i, int end) {
+        int length = value.length();
+        int index = buffer.writerIndex();
+
+        // The ASCII prefix, usually the whole string, is written without any encoding.
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+
+            if (c >= 0x80) break;
+
+            buffer.setByte(index++, c);
+        }
+
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+
+            if (c < 0x80) {
+                buffer.setByte(index++, c);
+            } else if (c < 0x800) {
+                buffer.setByte(index++, 0xC0 | (c >> 6));
+                buffer.setByte(index++, 0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+
+                    buffer.setByte(index++, 0xF0 | (codePoint >> 18));
+                    buffer.setByte(index++, 0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer.setByte(index++, 0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer.setByte(index++, 0x80 | (codePoint & 0x3F));
+                } else {
+                    buffer.setByte(index++, '?');
+                }
+            } else {
+                buffer.setByte(index++, 0xE0 | (c >> 12));
+                buffer.setByte(index++, 0x80 | ((c >> 6) & 0x3F));
+                buffer.setByte(index++, 0x80 | (c & 0x3F));
             }
         }
+
+        buffer.writerIndex(index);
+
+        return i;
+    }
+
+    /**
+     * @return the number of bytes needed to encode {@code value} as UTF-8.
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int utf8Length = length;
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    utf8Length += 1;
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        utf8Length += 2;
+                        i++;
+                    }
+                } else {
+                    utf8Length += 2;
+                }
+            }
+        }
+
+        return utf8Length;
     }
 
     @Override
@@ -246,7 +439,7 @@ public class BinaryEncoder implements UaEncoder {
             assert (bytes != null);
 
             buffer.writeInt(bytes.length);
-            buffer.writeBytes(bytes);
+            writeSliced(bytes, 0, bytes.length);
         }
     }
 
@@ -255,11 +448,7 @@ public class BinaryEncoder implements UaEncoder {
         if (value == null || value.isNull()) {
             buffer.writeInt(-1);
         } else {
-            try {
-                encodeByteString(null, new ByteString(value.getFragment().getBytes("UTF-8")));
-            } catch (UnsupportedEncodingException e) {
-                throw new UaSerializationException(StatusCodes.Bad_DecodingError, e);
-            }
+            writeUtf8(value.getFragment());
         }
     }
 
@@ -375,7 +564,7 @@ public class BinaryEncoder implements UaEncoder {
         }
 
         if (serverIndex > 0) {
-            encodeUInt32(null, Unsigned.uint(serverIndex));
+            encodeUInt32(null, serverIndex);
         }
     }
 
@@ -384,7 +573,7 @@ public class BinaryEncoder implements UaEncoder {
         if (value == null) {
             buffer.writeInt(0);
         } else {
-            encodeUInt32(null, Unsigned.uint(value.getValue()));
+            encodeUInt32(null, value.getValue());
         }
     }
 
@@ -423,7 +612,39 @@ public class BinaryEncoder implements UaEncoder {
 
     @Override
     public void encodeExtensionObject(String field, ExtensionObject value) throws UaSerializationException {
-        if (value == null || value.getEncoded() == null) {
+        ByteBuf body = value != null ? value.getEncodedBuffer() : null;
+        Object unencoded = value != null ? value.getUnencoded() : null;
+
+        if (body != null) {
+            encodeNodeId(null, value.getEncodingTypeId());
+            buffer.writeByte(1); // Body is binary encoded
+
+            buffer.writeInt(body.readableBytes());
+            writeSliced(body, body.readerIndex(), body.readableBytes());
+        } else if (unencoded != null) {
+            EncoderDelegate<Object> delegate = DelegateRegistry.getEncoder(value.getEncodingTypeId());
+            boolean xml = value.getBodyType() == ExtensionObject.BodyType.XmlElement;
+
+            encodeNodeId(null, value.getEncodingTypeId());
+            buffer.writeByte(xml ? 2 : 1); // Body is XML or binary encoded
+
+            // Write a placeholder for the length, encode the body, then go back and fill in the length.
+            int lengthIndex = buffer.writerIndex();
+            buffer.writeInt(0);
+
+            checkpointsSuspended++;
+            try {
+                if (xml) {
+                    encodeXmlBody(delegate, unencoded);
+                } else {
+                    delegate.encode(unencoded, this);
+                }
+            } finally {
+                checkpointsSuspended--;
+            }
+
+            buffer.setInt(lengthIndex, buffer.writerIndex() - lengthIndex - 4);
+        } else if (value == null || value.getEncoded() == null) {
             encodeNodeId(null, NodeId.NULL_VALUE);
             buffer.writeByte(0); // No body is encoded
         } else {
@@ -448,47 +669,23 @@ public class BinaryEncoder implements UaEncoder {
                     encodeXmlElement(null, xmlElement);
                     break;
             }
+        }
+    }
+
+    /**
+     * Encode an XML body as UTF-8 straight into the buffer, rather than into a String that is then encoded again.
+     */
+    private void encodeXmlBody(EncoderDelegate<Object> delegate, Object body) throws UaSerializationException {
+        if (xmlEncoder == null) xmlEncoder = new XmlEncoder();
 
-//            if (object instanceof UaSerializable) {
-//                UaSerializable serializable = (UaSerializable) object;
-//
-//                encodeNodeId(null, value.getEncodingTypeId());
-//                buffer.writeByte(1); // Body is binary encoded
-//
-//                // Record the current index and write a placeholder for the length.
-//                int lengthIndex = buffer.writerIndex();
-//                buffer.writeInt(0);
-//
-//                // Write the body.
-//                int indexBefore = buffer.writerIndex();
-//                encodeSerializable(null, serializable);
-//                int indexAfter = buffer.writerIndex();
-//                int bytesWritten = indexAfter - indexBefore;
-//
-//                // Go back and update the length.
-//                buffer.writerIndex(lengthIndex);
-//                buffer.writeInt(bytesWritten);
-//
-//                // Return to where we were after writing the body.
-//                buffer.writerIndex(indexAfter);
-//            } else if (object instanceof ByteString) {
-//                ByteString byteString = (ByteString) object;
-//
-//                encodeNodeId(null, value.getEncodingTypeId());
-//                buffer.writeByte(1); // Body is binary encoded
-//
-//                encodeByteString(null, byteString);
-//            } else if (object instanceof XmlElement) {
-//                XmlElement xmlElement = (XmlElement) object;
-//
-//                encodeNodeId(null, value.getEncodingTypeId());
-//                buffer.writeByte(2);
-//
-//                encodeXmlElement(null, xmlElement);
-//            } else {
-//                throw new UaSerializationException(StatusCodes.Bad_EncodingError, "unexpected object in ExtensionObject: " + object);
-//            }
+        try {
+            xmlEncoder.setOutput(buffer);
+        } catch (XMLStreamException e) {
+            throw new UaSerializationException(StatusCodes.Bad_EncodingError, e);
         }
+
+        delegate.encode(body, xmlEncoder);
+        xmlEncoder.flush();
     }
 
     @Override
@@ -533,7 +730,9 @@ public class BinaryEncoder implements UaEncoder {
 
             int typeId = TypeUtil.getBuiltinTypeId(valueClass);
 
-            if (value.getClass().isArray()) {
+            if (valueClass.isPrimitive()) {
+                encodePrimitiveArray(typeId, value);
+            } else if (value.getClass().isArray()) {
                 int[] dimensions = ArrayUtil.getDimensions(value);
 
                 if (dimensions.length == 1) {
@@ -554,6 +753,8 @@ public class BinaryEncoder implements UaEncoder {
                         } else {
                             encodeBuiltinType(typeId, o);
                         }
+
+                        runCheckpoint();
                     }
                 } else {
                     buffer.writeByte(typeId | 0xC0);
@@ -574,6 +775,8 @@ public class BinaryEncoder implements UaEncoder {
                         } else {
                             encodeBuiltinType(typeId, o);
                         }
+
+                        runCheckpoint();
                     }
 
                     encodeInt32(null, dimensions.length);
@@ -597,6 +800,140 @@ public class BinaryEncoder implements UaEncoder {
         }
     }
 
+    /**
+     * Encode a Variant array backed by a Java primitive array, e.g. {@code double[]} or {@code int[][]}, without
+     * boxing the elements, copying fixed-size elements in bulk.
+     */
+    private void encodePrimitiveArray(int typeId, Object value) throws UaSerializationException {
+        int[] dimensions = ArrayUtil.getDimensions(value);
+        Object array = dimensions.length > 1 ? ArrayUtil.flatten(value) : value;
+        int length = Array.getLength(array);
+
+        buffer.writeByte(dimensions.length > 1 ? typeId | 0xC0 : typeId | 0x80);
+        buffer.writeInt(length);
+
+        int sliceLength = CHECKPOINT_SLICE_LENGTH / primitiveSize(typeId, value);
+
+        for (int from = 0; from < length; from += sliceLength) {
+            if (from > 0) runCheckpoint();
+
+            writePrimitiveElements(typeId, array, from, Math.min(length - from, sliceLength));
+        }
+
+        if (dimensions.length > 1) {
+            encodeInt32(null, dimensions.length);
+            for (int dimension : dimensions) {
+                encodeInt32(null, dimension);
+            }
+        }
+    }
+
+    private static int primitiveSize(int typeId, Object value) throws UaSerializationException {
+        switch (typeId) {
+            case 1:
+            case 2:
+                return 1;
+            case 4:
+                return 2;
+            case 6:
+            case 10:
+                return 4;
+            case 8:
+            case 11:
+                return 8;
+            default:
+                throw new UaSerializationException(StatusCodes.Bad_EncodingError,
+                        "unsupported primitive array: " + value.getClass());
+        }
+    }
+
+    /**
+     * Write {@code count} elements of a flattened primitive array, starting at {@code from}.
+     */
+    private void writePrimitiveElements(int typeId, Object array, int from, int count) {
+        switch (typeId) {
+            case 1: {
+                boolean[] booleans = (boolean[]) array;
+                buffer.ensureWritable(count);
+                for (int i = from; i < from + count; i++) {
+                    buffer.writeBoolean(booleans[i]);
+                }
+                break;
+            }
+            case 2:
+                buffer.writeBytes((byte[]) array, from, count);
+                break;
+            case 4: {
+                short[] shorts = (short[]) array;
+                ByteBuffer elements = nioBufferForWrite(count * 2);
+                if (elements != null) {
+                    elements.asShortBuffer().put(shorts, from, count);
+                } else {
+                    for (int i = from; i < from + count; i++) buffer.writeShort(shorts[i]);
+                }
+                break;
+            }
+            case 6: {
+                int[] ints = (int[]) array;
+                ByteBuffer elements = nioBufferForWrite(count * 4);
+                if (elements != null) {
+                    elements.asIntBuffer().put(ints, from, count);
+                } else {
+                    for (int i = from; i < from + count; i++) buffer.writeInt(ints[i]);
+                }
+                break;
+            }
+            case 8: {
+                long[] longs = (long[]) array;
+                ByteBuffer elements = nioBufferForWrite(count * 8);
+                if (elements != null) {
+                    elements.asLongBuffer().put(longs, from, count);
+                } else {
+                    for (int i = from; i < from + count; i++) buffer.writeLong(longs[i]);
+                }
+                break;
+            }
+            case 10: {
+                float[] floats = (float[]) array;
+                ByteBuffer elements = nioBufferForWrite(count * 4);
+                if (elements != null) {
+                    elements.asFloatBuffer().put(floats, from, count);
+                } else {
+                    for (int i = from; i < from + count; i++) buffer.writeFloat(floats[i]);
+                }
+                break;
+            }
+            case 11: {
+                double[] doubles = (double[]) array;
+                ByteBuffer elements = nioBufferForWrite(count * 8);
+                if (elements != null) {
+                    elements.asDoubleBuffer().put(doubles, from, count);
+                } else {
+                    for (int i = from; i < from + count; i++) buffer.writeDouble(doubles[i]);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Reserve {@code length} bytes at the end of the buffer and get a little-endian view of them to write into.
+     *
+     * @return the view, or {@code null} if the buffer isn't backed by a single NIO buffer the writes would go through
+     * to; in that case nothing is reserved.
+     */
+    private ByteBuffer nioBufferForWrite(int length) {
+        buffer.ensureWritable(length);
+
+        if (buffer.nioBufferCount() != 1) return null;
+
+        int index = buffer.writerIndex();
+        ByteBuffer view = buffer.nioBuffer(index, length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.writerIndex(index + length);
+
+        return view;
+    }
+
     private Class<?> getClass(@Nonnull Object o) {
         if (o.getClass().isArray()) {
             return ArrayUtil.getType(o);
@@ -647,7 +984,7 @@ public class BinaryEncoder implements UaEncoder {
         if (value == null) {
             encodeInt32(null, -1);
         } else {
-            EncoderDelegate<T> delegate = DelegateRegistry.getEncoder(value);
+            EncoderDelegate<T> delegate = getEncoder(value);
 
             delegate.encode(value, this);
         }
@@ -655,11 +992,23 @@ public class BinaryEncoder implements UaEncoder {
 
     @Override
     public <T extends UaSerializable> void encodeSerializable(String field, T value) throws UaSerializationException {
-        EncoderDelegate<T> delegate = DelegateRegistry.getEncoder(value);
+        EncoderDelegate<T> delegate = getEncoder(value);
 
         delegate.encode(value, this);
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> EncoderDelegate<T> getEncoder(T value) throws UaSerializationException {
+        EncoderDelegate<T> delegate = value != null ? (EncoderDelegate<T>) encoders.get(value.getClass()) : null;
+
+        if (delegate == null) {
+            throw new UaSerializationException(StatusCodes.Bad_EncodingError,
+                    "no encoder registered for class=" + (value != null ? value.getClass() : null));
+        }
+
+        return delegate;
+    }
+
     @Override
     public <T> void encodeArray(String field, T[] values, BiConsumer<String, T> consumer) throws UaSerializationException {
         if (values == null) {
@@ -673,6 +1022,8 @@ public class BinaryEncoder implements UaEncoder {
             encodeInt32(null, values.length);
             for (T t : values) {
                 consumer.accept(null, t);
+
+                runCheckpoint();
             }
         }
     }
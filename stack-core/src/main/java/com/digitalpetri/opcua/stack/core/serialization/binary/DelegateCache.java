@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import com.digitalpetri.opcua.stack.core.serialization.DelegateRegistry;
+
+/**
+ * A small direct-mapped cache of the delegates an encoder or decoder has looked up in
+ * {@link com.digitalpetri.opcua.stack.core.serialization.DelegateRegistry}, keyed on class identity.
+ * <p>
+ * Encoding or decoding an array of structures resolves the element delegate from the registry once; the remaining
+ * elements, and any structures nested in them, are found here with a single reference comparison.
+ * <p>
+ * The cache is emptied whenever {@link DelegateRegistry#getGeneration()} changes, so registering a delegate again for
+ * a class takes effect in encoders and decoders that already cached the old one.
+ * <p>
+ * Not thread safe; each cache belongs to one encoder or decoder.
+ */
+final class DelegateCache<D> {
+
+    private static final int SIZE = 16;
+
+    private final Class<?>[] classes = new Class<?>[SIZE];
+    private final Object[] delegates = new Object[SIZE];
+
+    private final Function<Class<?>, D> lookup;
+
+    private int generation = DelegateRegistry.getGeneration();
+
+    DelegateCache(Function<Class<?>, D> lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * @return the delegate for {@code clazz}, or {@code null} if none is registered.
+     */
+    @SuppressWarnings("unchecked")
+    D get(Class<?> clazz) {
+        int current = DelegateRegistry.getGeneration();
+
+        if (current != generation) {
+            Arrays.fill(classes, null);
+            Arrays.fill(delegates, null);
+            generation = current;
+        }
+
+        int slot = clazz.hashCode() & (SIZE - 1);
+
+        if (classes[slot] == clazz) {
+            return (D) delegates[slot];
+        }
+
+        D delegate = lookup.apply(clazz);
+
+        if (delegate != null) {
+            classes[slot] = clazz;
+            delegates[slot] = delegate;
+        }
+
+        return delegate;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.util.Arrays;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * A bounded cache of decoded strings keyed on their encoded UTF-8 bytes, used by a {@link BinaryDecoder} so that
+ * strings repeated throughout a message (locales, BrowseNames, string NodeId identifiers) are decoded once and share a
+ * single {@link String} instance.
+ * <p>
+ * The cache is direct-mapped: each string hashes to one slot and replaces whatever was there, so lookups and updates
+ * are constant time and the size never grows past {@code size} entries. Strings longer than {@code maxStringLength}
+ * bytes are never cached.
+ * <p>
+ * Like {@link BinaryDecoder}, a {@link StringCache} is not thread safe. Hit and miss counts are updated by the decoding
+ * thread only and may be slightly stale when read from another thread.
+ */
+public class StringCache {
+
+    public static final int DEFAULT_MAX_STRING_LENGTH = 128;
+
+    private final int mask;
+    private final int maxStringLength;
+
+    private final int[] hashes;
+    private final byte[][] keys;
+    private final String[] values;
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param size the number of entries in the cache; rounded up to a power of 2.
+     */
+    public StringCache(int size) {
+        this(size, DEFAULT_MAX_STRING_LENGTH);
+    }
+
+    /**
+     * @param size            the number of entries in the cache; rounded up to a power of 2.
+     * @param maxStringLength the maximum encoded length, in bytes, of a string to cache.
+     */
+    public StringCache(int size, int maxStringLength) {
+        Preconditions.checkArgument(size > 0 && size <= (1 << 30), "size must be in (0, 2^30]");
+
+        int capacity = 1 << (32 - Integer.numberOfLeadingZeros(size - 1));
+
+        this.mask = capacity - 1;
+        this.maxStringLength = maxStringLength;
+
+        hashes = new int[capacity];
+        keys = new byte[capacity][];
+        values = new String[capacity];
+    }
+
+    /**
+     * Get the string encoded as UTF-8 in {@code bytes}, decoding and caching it if it isn't already cached.
+     */
+    String decode(byte[] bytes, int offset, int length) {
+        if (length > maxStringLength) {
+            return BinaryDecoder.decodeUtf8(bytes, offset, length);
+        }
+
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        byte[] key = keys[slot];
+
+        if (key != null && hashes[slot] == hash && equals(key, bytes, offset, length)) {
+            hitCount++;
+
+            return values[slot];
+        } else {
+            missCount++;
+
+            String value = BinaryDecoder.decodeUtf8(bytes, offset, length);
+
+            hashes[slot] = hash;
+            keys[slot] = Arrays.copyOfRange(bytes, offset, offset + length);
+            values[slot] = value;
+
+            return value;
+        }
+    }
+
+    /**
+     * Remove all entries from the cache and reset the hit and miss counts.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    /**
+     * @return the number of entries in the cache.
+     */
+    public int getSize() {
+        return values.length;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the fraction of cacheable strings that were found in the cache, or 0 if there have been none.
+     */
+    public double getHitRate() {
+        long hits = hitCount;
+        long total = hits + missCount;
+
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", getSize())
+                .add("hitCount", hitCount)
+                .add("missCount", missCount)
+                .add("hitRate", String.format("%.3f", getHitRate()))
+                .toString();
+    }
+
+    private static boolean equals(byte[] key, byte[] bytes, int offset, int length) {
+        if (key.length != length) return false;
+
+        for (int i = 0; i < length; i++) {
+            if (key[i] != bytes[offset + i]) return false;
+        }
+
+        return true;
+    }
+
+}
@@ -58,7 +58,11 @@ import com.google.common.collect.Lists;
 
 public class XmlDecoder implements UaDecoder {
 
-    private final XMLInputFactory factory = XMLInputFactory.newFactory();
+    /**
+     * Creating a factory goes through a service lookup, and StAX doesn't promise factories are thread safe; each thread
+     * creates one and keeps it.
+     */
+    private static final ThreadLocal<XMLInputFactory> FACTORY = ThreadLocal.withInitial(XMLInputFactory::newFactory);
 
     private volatile XMLStreamReader streamReader;
 
@@ -74,13 +78,13 @@ public class XmlDecoder implements UaDecoder {
     }
 
     public XmlDecoder setInput(InputStream inputStream) throws XMLStreamException {
-        streamReader = factory.createXMLStreamReader(inputStream);
+        streamReader = FACTORY.get().createXMLStreamReader(inputStream);
 
         return this;
     }
 
     public XmlDecoder setInput(Reader reader) throws XMLStreamException {
-        streamReader = factory.createXMLStreamReader(reader);
+        streamReader = FACTORY.get().createXMLStreamReader(reader);
 
         return this;
     }
@@ -18,6 +18,7 @@ package com.digitalpetri.opcua.stack.core.serialization.xml;
 
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.UUID;
 import java.util.function.BiConsumer;
@@ -52,12 +53,18 @@ import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.ULong;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 import com.digitalpetri.opcua.stack.core.util.Namespaces;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import org.jooq.lambda.Unchecked;
 
 public class XmlEncoder implements UaEncoder {
 
+    /**
+     * Looking up a factory is slow and factories aren't guaranteed to be thread safe, so one is kept per thread.
+     */
+    private static final ThreadLocal<XMLOutputFactory> FACTORY = ThreadLocal.withInitial(XMLOutputFactory::newFactory);
+
     private final Calendar calendar = Calendar.getInstance();
-    private final XMLOutputFactory factory = XMLOutputFactory.newFactory();
 
     private volatile XMLStreamWriter streamWriter;
 
@@ -73,21 +80,42 @@ public class XmlEncoder implements UaEncoder {
     }
 
     public XmlEncoder setOutput(OutputStream outputStream) throws XMLStreamException {
-        streamWriter = factory.createXMLStreamWriter(outputStream);
-        streamWriter.setPrefix("xsi", Namespaces.XML_SCHEMA_INSTANCE);
-        streamWriter.setPrefix("tns", Namespaces.OPC_UA_XSD);
-
-        return this;
+        return setStreamWriter(FACTORY.get().createXMLStreamWriter(outputStream));
     }
 
     public XmlEncoder setOutput(Writer writer) throws XMLStreamException {
-        streamWriter = factory.createXMLStreamWriter(writer);
+        return setStreamWriter(FACTORY.get().createXMLStreamWriter(writer));
+    }
+
+    /**
+     * Write UTF-8 encoded output straight into {@code buffer}, starting at its writer index. Call {@link #flush()}
+     * once done encoding to make sure it has all been written.
+     */
+    public XmlEncoder setOutput(ByteBuf buffer) throws XMLStreamException {
+        return setStreamWriter(FACTORY.get().createXMLStreamWriter(
+                new ByteBufOutputStream(buffer), StandardCharsets.UTF_8.name()));
+    }
+
+    private XmlEncoder setStreamWriter(XMLStreamWriter streamWriter) throws XMLStreamException {
         streamWriter.setPrefix("xsi", Namespaces.XML_SCHEMA_INSTANCE);
         streamWriter.setPrefix("tns", Namespaces.OPC_UA_XSD);
 
+        this.streamWriter = streamWriter;
+
         return this;
     }
 
+    /**
+     * Write out anything buffered by the underlying {@link XMLStreamWriter}.
+     */
+    public void flush() throws UaSerializationException {
+        try {
+            streamWriter.flush();
+        } catch (XMLStreamException e) {
+            throw new UaSerializationException(StatusCodes.Bad_EncodingError, e);
+        }
+    }
+
     @Override
     public void encodeBoolean(String field, Boolean value) {
         if (value == null) value = false;
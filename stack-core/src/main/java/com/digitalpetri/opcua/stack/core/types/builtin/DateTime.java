@@ -16,9 +16,11 @@
 
 package com.digitalpetri.opcua.stack.core.types.builtin;
 
+import java.time.Clock;
 import java.util.Date;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 
 public final class DateTime {
 
@@ -27,10 +29,18 @@ public final class DateTime {
 	/** The delta in 100 nanosecond intervals between Java epoch (January 1, 1970) and UTC epoch (Jan 1, 1601). */
 	private static final long EPOCH_DELTA = 116444736000000000L;
 
+	private static volatile Clock clock = Clock.systemUTC();
+
+	// The last instance now() returned; reused while the clock still reads the same time.
+	private static volatile DateTime lastNow = MIN_VALUE;
+
 	private final long utcTime;
 
+	/**
+	 * Create a {@link DateTime} initialized to now, as read from the current {@link #getClock() clock}.
+	 */
 	public DateTime() {
-		this(javaToUtc(System.currentTimeMillis()));
+		this(nowUtcTime());
 	}
 
 	public DateTime(long utcTime) {
@@ -83,9 +93,43 @@ public final class DateTime {
                 .toString();
     }
 
-    /** @return a {@link DateTime} initialized to now. */
+    /**
+     * Consecutive calls that read the same time from the clock may return the same instance.
+     *
+     * @return a {@link DateTime} initialized to now.
+     */
 	public static DateTime now() {
-		return new DateTime();
+		long utcTime = nowUtcTime();
+
+		DateTime last = lastNow;
+		if (last.utcTime == utcTime) return last;
+
+		return lastNow = new DateTime(utcTime);
+	}
+
+	/**
+	 * @return now, as 100 nanosecond intervals since UTC epoch, without allocating a {@link DateTime}.
+	 */
+	public static long nowUtcTime() {
+		return javaToUtc(clock.millis());
+	}
+
+	/**
+	 * @return the {@link Clock} that {@link #now()} and {@link #nowUtcTime()} read.
+	 */
+	public static Clock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Set the {@link Clock} that {@link #now()} and {@link #nowUtcTime()} read, e.g. a
+	 * {@link com.digitalpetri.opcua.stack.core.util.CoarseClock} where the cost of reading the system clock for every
+	 * timestamp matters more than millisecond accuracy. Defaults to {@link Clock#systemUTC()}.
+	 *
+	 * @param clock the {@link Clock} to read.
+	 */
+	public static void setClock(Clock clock) {
+		DateTime.clock = Preconditions.checkNotNull(clock);
 	}
 
 	private static long javaToUtc(long javaTime) {
@@ -16,11 +16,16 @@
 
 package com.digitalpetri.opcua.stack.core.types.builtin;
 
+import javax.annotation.Nullable;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.serialization.DataTypeEncoding;
+import com.digitalpetri.opcua.stack.core.serialization.DelegateRegistry;
 import com.digitalpetri.opcua.stack.core.serialization.UaStructure;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import io.netty.buffer.ByteBuf;
 
 public final class ExtensionObject {
 
@@ -33,7 +38,25 @@ public final class ExtensionObject {
 
     private final BodyType bodyType;
 
-    private final Object encoded;
+    /**
+     * Null until first needed when this ExtensionObject was created from an object whose binary encoding is deferred;
+     * see {@link #getUnencoded()}.
+     */
+    private volatile Object encoded;
+
+    /**
+     * A retained slice of the message this ExtensionObject was decoded from, until its body is decoded, copied into a
+     * {@link ByteString}, or released.
+     */
+    private volatile ByteBuf buffer;
+
+    /**
+     * The binary or XML encoding of a body that is held in a buffer or hasn't been encoded yet, made for
+     * {@link #equals(Object)} and {@link #hashCode()}. Kept apart from {@link #encoded} so comparing doesn't change
+     * {@link #getUnencoded()} or release the buffer.
+     */
+    private volatile Object comparable;
+
     private final NodeId encodingTypeId;
 
     public ExtensionObject(ByteString encoded, NodeId encodingTypeId) {
@@ -50,10 +73,102 @@ public final class ExtensionObject {
         bodyType = BodyType.XmlElement;
     }
 
+    /**
+     * Create an ExtensionObject with a binary body held in {@code buffer}, e.g. a retained slice of the message it was
+     * decoded from, so the body is neither copied nor decoded unless it's asked for.
+     * <p>
+     * The ExtensionObject takes ownership of one reference to {@code buffer}, which it releases once the body has been
+     * decoded by {@link #decode()} or copied by {@link #getEncoded()}. If neither happens {@link #release()} must be
+     * called when the ExtensionObject is no longer needed.
+     *
+     * @param buffer         the binary encoded body, from its reader index to its writer index.
+     * @param encodingTypeId the id of the body's binary encoding.
+     */
+    public ExtensionObject(ByteBuf buffer, NodeId encodingTypeId) {
+        this.buffer = buffer;
+        this.encodingTypeId = encodingTypeId;
+
+        bodyType = BodyType.ByteString;
+    }
+
+    /**
+     * Create an ExtensionObject with a body that is encoded from {@code decoded} only when it's needed.
+     */
+    private ExtensionObject(Object decoded, NodeId encodingTypeId, BodyType bodyType) {
+        this.decoded = decoded;
+        this.encodingTypeId = encodingTypeId;
+        this.bodyType = bodyType;
+    }
+
     public Object getEncoded() {
+        Object encoded = this.encoded;
+
+        if (encoded == null && buffer != null) {
+            synchronized (this) {
+                ByteBuf buffer = this.buffer;
+
+                if (buffer != null) {
+                    this.encoded = encoded = copyAndRelease(buffer);
+                }
+            }
+        }
+
+        if (encoded == null && decoded != null) {
+            encoded = comparable != null ? comparable : encodeDecoded();
+            this.encoded = encoded;
+        }
+
         return encoded;
     }
 
+    /**
+     * Get the buffer holding the binary encoded body of an ExtensionObject created with
+     * {@link #ExtensionObject(ByteBuf, NodeId)}, so it can be forwarded without copying it into a {@link ByteString}.
+     * <p>
+     * No reference is added; the buffer is only valid until the body is decoded, copied or released.
+     *
+     * @return the buffer, or {@code null} if the body isn't held in a buffer.
+     */
+    @Nullable
+    public ByteBuf getEncodedBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Release the buffer holding the body of an ExtensionObject created with {@link #ExtensionObject(ByteBuf, NodeId)}
+     * that has been neither decoded nor copied. Its body is null afterwards.
+     * <p>
+     * Does nothing if the body isn't held in a buffer.
+     */
+    public void release() {
+        if (buffer != null) {
+            synchronized (this) {
+                ByteBuf buffer = this.buffer;
+
+                if (buffer != null) {
+                    this.buffer = null;
+                    buffer.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the object this ExtensionObject was created from by {@link #encode(UaStructure)},
+     * {@link #encodeAsByteString(Object, NodeId)} or {@link #encodeAsXmlElement(Object, NodeId)}, if its body hasn't
+     * been encoded yet.
+     * <p>
+     * A binary encoder can encode such an object directly into its own output, using the encoder registered for
+     * {@link #getEncodingTypeId()} and the encoding given by {@link #getBodyType()}, rather than encoding it into a
+     * separate {@link ByteString} or {@link XmlElement} by calling {@link #getEncoded()}.
+     *
+     * @return the object to encode, or {@code null} if the body has already been encoded.
+     */
+    @Nullable
+    public Object getUnencoded() {
+        return encoded == null ? decoded : null;
+    }
+
     public NodeId getEncodingTypeId() {
         return encodingTypeId;
     }
@@ -69,6 +184,21 @@ public final class ExtensionObject {
     public <T> T decode(DataTypeEncoding context) throws UaSerializationException {
         if (decoded != null) return (T) decoded;
 
+        if (buffer != null) {
+            synchronized (this) {
+                ByteBuf buffer = this.buffer;
+
+                if (buffer != null) {
+                    decoded = context.decodeFromByteBuf(buffer.duplicate(), encodingTypeId);
+
+                    // Keep the bytes, so equality and hashing don't change because the body was read.
+                    encoded = copyAndRelease(buffer);
+                }
+            }
+
+            if (decoded != null) return (T) decoded;
+        }
+
         switch (bodyType) {
             case ByteString: {
                 ByteString bs = (ByteString) encoded;
@@ -98,12 +228,43 @@ public final class ExtensionObject {
         return encodeAsByteString(structure, structure.getBinaryEncodingId());
     }
 
+    /**
+     * Create an ExtensionObject with {@code object} as its binary encoded body.
+     * <p>
+     * Encoding the body is deferred: a {@link com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder}
+     * writes it straight into the message being encoded, and {@link #getEncoded()} encodes it if it's asked for.
+     * Errors encoding the body itself, e.g. a limit being exceeded, surface then rather than here.
+     *
+     * @throws UaSerializationException if no encoder is registered for {@code encodingTypeId}.
+     */
     public static ExtensionObject encodeAsByteString(Object object, NodeId encodingTypeId) throws UaSerializationException {
-        return encodeAsByteString(object, encodingTypeId, DataTypeEncoding.OPC_UA);
+        return deferred(object, encodingTypeId, BodyType.ByteString);
     }
 
+    /**
+     * Create an ExtensionObject with {@code object} as its XML encoded body.
+     * <p>
+     * Encoding the body is deferred: a {@link com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder}
+     * writes it straight into the message being encoded as UTF-8, and {@link #getEncoded()} encodes it if it's asked
+     * for.
+     * Errors encoding the body itself, e.g. a limit being exceeded, surface then rather than here.
+     *
+     * @throws UaSerializationException if no encoder is registered for {@code encodingTypeId}.
+     */
     public static ExtensionObject encodeAsXmlElement(Object object, NodeId encodingTypeId) throws UaSerializationException {
-        return encodeAsXmlElement(object, encodingTypeId, DataTypeEncoding.OPC_UA);
+        return deferred(object, encodingTypeId, BodyType.XmlElement);
+    }
+
+    private static ExtensionObject deferred(Object object,
+                                            NodeId encodingTypeId,
+                                            BodyType bodyType) throws UaSerializationException {
+
+        if (DelegateRegistry.getEncoder(encodingTypeId) == null) {
+            throw new UaSerializationException(StatusCodes.Bad_EncodingError,
+                    "no encoder registered for encodingId=" + encodingTypeId);
+        }
+
+        return new ExtensionObject(object, encodingTypeId, bodyType);
     }
 
     public static ExtensionObject encodeAsByteString(Object object,
@@ -124,6 +285,11 @@ public final class ExtensionObject {
         return new ExtensionObject(encoded, encodingTypeId);
     }
 
+    /**
+     * ExtensionObjects are equal if they have the same encoding and the same encoded body, whether the body is encoded
+     * already, still held in a buffer, or not encoded yet. Comparing doesn't release the buffer or change
+     * {@link #getUnencoded()}.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -131,19 +297,86 @@ public final class ExtensionObject {
 
         ExtensionObject that = (ExtensionObject) o;
 
-        return Objects.equal(encoded, that.encoded) &&
+        return Objects.equal(comparableBody(), that.comparableBody()) &&
                 Objects.equal(encodingTypeId, that.encodingTypeId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(encoded, encodingTypeId);
+        return Objects.hashCode(comparableBody(), encodingTypeId);
+    }
+
+    /**
+     * @return the encoded body, or a copy of it made from the buffer or the unencoded object.
+     */
+    @Nullable
+    private Object comparableBody() {
+        Object encoded = this.encoded;
+        if (encoded != null) return encoded;
+
+        Object comparable = this.comparable;
+        if (comparable != null) return comparable;
+
+        synchronized (this) {
+            if (this.encoded != null) return this.encoded;
+            if (this.comparable != null) return this.comparable;
+
+            ByteBuf buffer = this.buffer;
+
+            if (buffer != null) {
+                byte[] bs = new byte[buffer.readableBytes()];
+                buffer.getBytes(buffer.readerIndex(), bs);
+
+                comparable = ByteString.of(bs);
+            } else if (decoded != null) {
+                comparable = encodeDecoded();
+            }
+
+            this.comparable = comparable;
+        }
+
+        return comparable;
+    }
+
+    private Object encodeDecoded() throws UaSerializationException {
+        return bodyType == BodyType.XmlElement ?
+                DataTypeEncoding.OPC_UA.encodeToXmlElement(decoded, encodingTypeId) :
+                DataTypeEncoding.OPC_UA.encodeToByteString(decoded, encodingTypeId);
+    }
+
+    /**
+     * Copy the body out of {@code buffer}, or take the copy already made for comparing, and release the buffer. Must be
+     * called holding this ExtensionObject's lock, with {@code buffer} the current {@link #buffer}.
+     */
+    private ByteString copyAndRelease(ByteBuf buffer) {
+        ByteString bs = (ByteString) comparable;
+
+        if (bs == null) {
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.getBytes(buffer.readerIndex(), bytes);
+            bs = ByteString.of(bytes);
+        }
+
+        this.comparable = null;
+        this.buffer = null;
+        buffer.release();
+
+        return bs;
     }
 
     @Override
     public String toString() {
-        return MoreObjects.toStringHelper(this)
-                .add("encoded", encoded)
+        ByteBuf buffer = this.buffer;
+        Object encoded = this.encoded;
+
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this)
+                .add("encoded", buffer != null ? buffer : encoded);
+
+        if (buffer == null && encoded == null) {
+            helper.add("unencoded", decoded);
+        }
+
+        return helper
                 .add("encodingTypeId", encodingTypeId)
                 .toString();
     }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.types.builtin;
+
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
+import com.google.common.base.Preconditions;
+
+/**
+ * Canonical instances of numeric {@link NodeId}s, so decoding the same id over and over returns a shared instance
+ * rather than allocating a new {@link NodeId} and its unsigned wrappers each time.
+ * <p>
+ * Namespace 0 ids below {@link #NAMESPACE_ZERO_TABLE_SIZE} live in a table shared by everything in the JVM; the
+ * constants in {@link com.digitalpetri.opcua.stack.core.Identifiers} are registered into it, so a decoded id is the
+ * same instance as its constant. Other numeric ids are kept in a bounded, direct-mapped cache per {@link NodeIdCache}
+ * instance, which, like the decoder that owns it, is not thread safe.
+ */
+public class NodeIdCache {
+
+    public static final int NAMESPACE_ZERO_TABLE_SIZE = 16384;
+
+    public static final int DEFAULT_SIZE = 256;
+
+    /*
+     * Written without synchronization; NodeId is immutable and only has final fields, so a racing reader sees either
+     * null or a fully constructed instance. At worst two equal instances get created for the same id.
+     */
+    private static final NodeId[] NAMESPACE_ZERO = new NodeId[NAMESPACE_ZERO_TABLE_SIZE];
+
+    private final int mask;
+
+    private long[] keys;
+    private NodeId[] nodeIds;
+
+    public NodeIdCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size the number of entries in the cache for ids outside namespace 0; rounded up to a power of 2.
+     */
+    public NodeIdCache(int size) {
+        Preconditions.checkArgument(size > 0 && size <= (1 << 30), "size must be in (0, 2^30]");
+
+        mask = (1 << (32 - Integer.numberOfLeadingZeros(size - 1))) - 1;
+    }
+
+    /**
+     * Get the canonical numeric {@link NodeId} for {@code namespaceIndex} and {@code identifier}.
+     *
+     * @param namespaceIndex an unsigned 16-bit namespace index.
+     * @param identifier     an unsigned 32-bit identifier.
+     * @return a shared {@link NodeId} equal to {@code new NodeId(ushort(namespaceIndex), uint(identifier))}.
+     */
+    public NodeId get(int namespaceIndex, long identifier) {
+        if (namespaceIndex == 0 && identifier < NAMESPACE_ZERO_TABLE_SIZE) {
+            return namespaceZero((int) identifier);
+        }
+
+        if (nodeIds == null) {
+            keys = new long[mask + 1];
+            nodeIds = new NodeId[mask + 1];
+        }
+
+        long key = ((long) namespaceIndex << 32) | identifier;
+        int slot = (int) (key ^ (key >>> 29) ^ (key >>> 45)) & mask;
+
+        NodeId nodeId = nodeIds[slot];
+
+        if (nodeId == null || keys[slot] != key) {
+            nodeId = new NodeId(Unsigned.ushort(namespaceIndex), Unsigned.uint(identifier));
+
+            keys[slot] = key;
+            nodeIds[slot] = nodeId;
+        }
+
+        return nodeId;
+    }
+
+    /**
+     * @param identifier a numeric identifier in namespace 0, less than {@link #NAMESPACE_ZERO_TABLE_SIZE}.
+     * @return the shared {@link NodeId} for {@code identifier} in namespace 0.
+     */
+    public static NodeId namespaceZero(int identifier) {
+        NodeId nodeId = NAMESPACE_ZERO[identifier];
+
+        if (nodeId == null) {
+            nodeId = new NodeId(Unsigned.ushort(0), Unsigned.uint(identifier));
+            NAMESPACE_ZERO[identifier] = nodeId;
+        }
+
+        return nodeId;
+    }
+
+}
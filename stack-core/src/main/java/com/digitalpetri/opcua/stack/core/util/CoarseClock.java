@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.google.common.base.Preconditions;
+
+/**
+ * A {@link Clock} that reads a source clock once per tick and answers every read in between with the value from the
+ * last tick, so reading the time is a single volatile read.
+ * <p>
+ * Times are up to one resolution behind the source clock. If ticking stops, because the clock was closed or its
+ * executor was shut down, reads go to the source clock directly rather than returning a stale time.
+ */
+public class CoarseClock extends Clock implements AutoCloseable {
+
+    private volatile long millis;
+
+    private final Clock source;
+    private final ScheduledFuture<?> tick;
+
+    /**
+     * Create a clock that ticks on {@link Stack#sharedScheduledExecutor()}.
+     *
+     * @param resolution how often to read the system clock.
+     * @param unit       the unit of {@code resolution}.
+     */
+    public CoarseClock(long resolution, TimeUnit unit) {
+        this(Clock.systemUTC(), resolution, unit, Stack.sharedScheduledExecutor());
+    }
+
+    /**
+     * @param source     the clock to read once per tick.
+     * @param resolution how often to read {@code source}.
+     * @param unit       the unit of {@code resolution}.
+     * @param executor   the executor to tick on.
+     */
+    public CoarseClock(Clock source, long resolution, TimeUnit unit, ScheduledExecutorService executor) {
+        Preconditions.checkArgument(resolution > 0, "resolution must be > 0");
+
+        this.source = source;
+        this.millis = source.millis();
+        this.tick = executor.scheduleAtFixedRate(
+                () -> millis = source.millis(), resolution, resolution, unit);
+    }
+
+    @Override
+    public long millis() {
+        return tick.isDone() ? source.millis() : millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        CoarseClock coarse = this;
+
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return zone;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return coarse.withZone(zone);
+            }
+
+            @Override
+            public long millis() {
+                return coarse.millis();
+            }
+
+            @Override
+            public Instant instant() {
+                return coarse.instant();
+            }
+        };
+    }
+
+    /**
+     * Stop ticking; reads go to the source clock from now on.
+     */
+    @Override
+    public void close() {
+        tick.cancel(false);
+    }
+
+}
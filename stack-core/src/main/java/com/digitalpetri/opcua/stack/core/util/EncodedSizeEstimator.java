@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.util;
+
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+/**
+ * Estimates the encoded size of messages from the sizes recently encoded for the same message type, so a buffer can
+ * be allocated close to its final size instead of growing, reallocating and copying while the message is encoded.
+ * <p>
+ * Each type keeps a decaying average of its recorded sizes and of how far they deviate from it, the way TCP estimates
+ * round trip times; the estimate is the average plus twice the deviation. Steady sizes are estimated closely, sizes
+ * that vary get proportionally more room, and a single outlier raises the estimate only for the next few messages
+ * rather than pinning it at the largest size ever seen.
+ * <p>
+ * Meant to be kept per channel. Safe for concurrent use; concurrent updates of the same type can lose a recording,
+ * which only makes an estimate slightly less accurate.
+ */
+public class EncodedSizeEstimator {
+
+    /**
+     * The smallest estimate given, and the estimate for a type that hasn't been recorded yet.
+     */
+    public static final int MIN_ESTIMATE = 256;
+
+    /**
+     * The default largest estimate given, however big the recorded sizes.
+     */
+    public static final int DEFAULT_MAX_ESTIMATE = 16 * 1024 * 1024;
+
+    private final Map<Class<?>, Estimate> estimates = Maps.newConcurrentMap();
+
+    private final int maxEstimate;
+
+    public EncodedSizeEstimator() {
+        this(DEFAULT_MAX_ESTIMATE);
+    }
+
+    /**
+     * @param maxEstimate the largest estimate to give.
+     */
+    public EncodedSizeEstimator(int maxEstimate) {
+        Preconditions.checkArgument(maxEstimate >= MIN_ESTIMATE, "maxEstimate must be >= " + MIN_ESTIMATE);
+
+        this.maxEstimate = maxEstimate;
+    }
+
+    /**
+     * @param type the type of message about to be encoded.
+     * @return the number of bytes to allocate for encoding a message of {@code type}.
+     */
+    public int estimate(Class<?> type) {
+        Estimate estimate = estimates.get(type);
+
+        if (estimate == null) return MIN_ESTIMATE;
+
+        long size = estimate.average + 2L * estimate.deviation;
+
+        return (int) Math.max(MIN_ESTIMATE, Math.min(size, maxEstimate));
+    }
+
+    /**
+     * @param type        the type of message that was encoded.
+     * @param encodedSize the size, in bytes, it was encoded to.
+     */
+    public void record(Class<?> type, int encodedSize) {
+        Estimate estimate = estimates.get(type);
+
+        if (estimate == null) {
+            // The first size recorded stands alone, with 1/16 of it as headroom.
+            estimates.putIfAbsent(type, new Estimate(encodedSize, encodedSize >>> 5));
+            return;
+        }
+
+        long average = estimate.average;
+        long error = encodedSize - average;
+
+        estimate.average = average + (error >> 3);
+        estimate.deviation += (Math.abs(error) - estimate.deviation) >> 2;
+    }
+
+    private static class Estimate {
+        volatile long average;
+        volatile long deviation;
+
+        Estimate(long average, long deviation) {
+            this.average = average;
+            this.deviation = deviation;
+        }
+    }
+
+}
@@ -17,7 +17,9 @@
 package com.digitalpetri.opcua.stack.core.util;
 
 import java.util.LinkedList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +33,7 @@ public class ExecutionQueue {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final Object queueLock = new Object();
-    private final LinkedList<Runnable> queue = new LinkedList<>();
+    private final LinkedList<Task> queue = new LinkedList<>();
 
     private volatile boolean pollSubmitted = false;
     private volatile boolean paused = false;
@@ -48,8 +50,21 @@ public class ExecutionQueue {
      * @param runnable the {@link Runnable} to be executed.
      */
     public void submit(Runnable runnable) {
+        submit(runnable, service);
+    }
+
+    /**
+     * Submit a {@link Runnable} to be executed, in order with the rest of the queue, on {@code executor} instead of
+     * this queue's {@link ExecutorService}.
+     * <p>
+     * If {@code executor} rejects it the {@link Runnable} is executed on this queue's {@link ExecutorService}.
+     *
+     * @param runnable the {@link Runnable} to be executed.
+     * @param executor the {@link Executor} to execute it on.
+     */
+    public void submit(Runnable runnable, Executor executor) {
         synchronized (queueLock) {
-            queue.add(runnable);
+            queue.add(new Task(runnable, executor));
 
             maybeSubmitPoll();
         }
@@ -62,7 +77,7 @@ public class ExecutionQueue {
      */
     public void submitToHead(Runnable runnable) {
         synchronized (queueLock) {
-            queue.addFirst(runnable);
+            queue.addFirst(new Task(runnable, service));
 
             maybeSubmitPoll();
         }
@@ -91,23 +106,42 @@ public class ExecutionQueue {
     private void maybeSubmitPoll() {
         synchronized (queueLock) {
             if (!pollSubmitted && !paused && !queue.isEmpty()) {
-                service.submit(new PollAndExecute());
+                submitPoll();
                 pollSubmitted = true;
             }
         }
     }
 
+    /**
+     * Submit a {@link PollAndExecute} to the {@link Executor} of the task at the head of the queue.
+     */
+    private void submitPoll() {
+        Executor executor = queue.peek().executor;
+
+        if (executor == service) {
+            service.submit(new PollAndExecute());
+        } else {
+            try {
+                executor.execute(new PollAndExecute());
+            } catch (RejectedExecutionException e) {
+                log.debug("Executor rejected task; executing on queue's ExecutorService.", e);
+
+                service.submit(new PollAndExecute());
+            }
+        }
+    }
+
     private class PollAndExecute implements Runnable {
         @Override
         public void run() {
-            Runnable runnable;
+            Task task;
 
             synchronized (queueLock) {
-                runnable = queue.poll();
+                task = queue.poll();
             }
 
             try {
-                runnable.run();
+                task.runnable.run();
             } catch (Throwable throwable) {
                 log.warn("Uncaught Throwable during execution.", throwable);
             }
@@ -117,10 +151,20 @@ public class ExecutionQueue {
                     pollSubmitted = false;
                 } else {
                     // polling remains true
-                    service.submit(new PollAndExecute());
+                    submitPoll();
                 }
             }
         }
     }
 
+    private static class Task {
+        private final Runnable runnable;
+        private final Executor executor;
+
+        private Task(Runnable runnable, Executor executor) {
+            this.runnable = runnable;
+            this.executor = executor;
+        }
+    }
+
 }
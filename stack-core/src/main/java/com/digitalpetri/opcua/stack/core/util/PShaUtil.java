@@ -39,19 +39,40 @@ import com.digitalpetri.opcua.stack.core.UaRuntimeException;
  */
 public class PShaUtil {
 
+    private static final ThreadLocal<Mac> hmacSha1 = new ThreadLocal<>();
+    private static final ThreadLocal<Mac> hmacSha256 = new ThreadLocal<>();
+
     public static byte[] createPSha1Key(byte[] secret, byte[] seed, int offset, int length) {
-        return createKey("HmacSHA1", secret, seed, offset, length);
+        return createKey(hmacSha1, "HmacSHA1", secret, seed, offset, length);
     }
 
     public static byte[] createPSha256Key(byte[] secret, byte[] seed, int offset, int length) {
-        return createKey("HmacSHA256", secret, seed, offset, length);
+        return createKey(hmacSha256, "HmacSHA256", secret, seed, offset, length);
     }
 
-    private static byte[] createKey(String transformation, byte[] secret, byte[] seed, int offset, int length) {
+    private static byte[] createKey(ThreadLocal<Mac> macs,
+                                    String transformation,
+                                    byte[] secret,
+                                    byte[] seed,
+                                    int offset,
+                                    int length) {
+
         try {
-            Mac mac = Mac.getInstance(transformation);
+            Mac mac = macs.get();
+
+            if (mac == null) {
+                mac = Mac.getInstance(transformation);
+                macs.set(mac);
+            }
+
+            mac.init(new SecretKeySpec(secret, transformation));
+
+            byte[] tempBytes = P_hash(seed, mac, offset + length);
+
+            if (offset == 0 && length == tempBytes.length) {
+                return tempBytes;
+            }
 
-            byte[] tempBytes = P_hash(transformation, secret, seed, mac, offset + length);
             byte[] key = new byte[length];
 
             System.arraycopy(tempBytes, offset, key, 0, key.length);
@@ -62,25 +83,32 @@ public class PShaUtil {
         }
     }
 
-    private static byte[] P_hash(String transformation, byte[] secret, byte[] seed, Mac mac, int required) throws Exception {
+    /**
+     * Expand {@code seed} to {@code required} bytes. {@code mac} must already be initialized with the secret; it is
+     * re-used for every iteration because {@link Mac#doFinal()} resets it to its initialized state.
+     */
+    private static byte[] P_hash(byte[] seed, Mac mac, int required) throws Exception {
         byte[] out = new byte[required];
         int offset = 0;
-        int toCopy;
+        int macLength = mac.getMacLength();
         byte[] A = seed;
-        byte[] tmp;
+        byte[] tmp = new byte[macLength];
 
         while (required > 0) {
-            SecretKeySpec key = new SecretKeySpec(secret, transformation);
-            mac.init(key);
             mac.update(A);
             A = mac.doFinal();
-            mac.reset();
-            mac.init(key);
             mac.update(A);
             mac.update(seed);
-            tmp = mac.doFinal();
-            toCopy = min(required, tmp.length);
-            System.arraycopy(tmp, 0, out, offset, toCopy);
+
+            int toCopy = min(required, macLength);
+
+            if (toCopy == macLength) {
+                mac.doFinal(out, offset);
+            } else {
+                mac.doFinal(tmp, 0);
+                System.arraycopy(tmp, 0, out, offset, toCopy);
+            }
+
             offset += toCopy;
             required -= toCopy;
         }
@@ -45,10 +45,30 @@ public class SignatureUtil {
 
         String transformation = securityAlgorithm.getTransformation();
 
+        Signature signature;
+
         try {
-            Signature signature = Signature.getInstance(transformation);
+            signature = Signature.getInstance(transformation);
             signature.initSign(privateKey);
+        } catch (GeneralSecurityException e) {
+            throw new UaException(StatusCodes.Bad_InternalError, e);
+        }
 
+        return sign(signature, buffers);
+    }
+
+    /**
+     * Sign the contents of the provided buffers using a {@link Signature} that has already been initialized for
+     * signing. The signature is reset by this call and can be re-used with the same key.
+     * Note that only the bytes between position and limit of each buffer are considered.
+     *
+     * @param signature the initialized {@link Signature}.
+     * @param buffers   the data to sign.
+     * @return the signature bytes.
+     * @throws UaException
+     */
+    public static byte[] sign(Signature signature, ByteBuffer... buffers) throws UaException {
+        try {
             for (ByteBuffer buffer : buffers) {
                 signature.update(buffer);
             }
@@ -75,18 +95,32 @@ public class SignatureUtil {
 
         String transformation = securityAlgorithm.getTransformation();
 
+        Mac mac;
+
         try {
-            Mac mac = Mac.getInstance(transformation);
+            mac = Mac.getInstance(transformation);
             mac.init(new SecretKeySpec(secretKey, transformation));
-
-            for (ByteBuffer buffer : buffers) {
-                mac.update(buffer);
-            }
-
-            return mac.doFinal();
         } catch (GeneralSecurityException e) {
             throw new UaException(StatusCodes.Bad_SecurityChecksFailed, e);
         }
+
+        return hmac(mac, buffers);
+    }
+
+    /**
+     * Compute the HMAC of the provided buffers using a {@link Mac} that has already been initialized with its key.
+     * The Mac is reset by this call and can be re-used with the same key.
+     *
+     * @param mac     the initialized {@link Mac}.
+     * @param buffers the buffers to use.
+     * @return the computed HMAC.
+     */
+    public static byte[] hmac(Mac mac, ByteBuffer... buffers) {
+        for (ByteBuffer buffer : buffers) {
+            mac.update(buffer);
+        }
+
+        return mac.doFinal();
     }
 
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class SerializationQueueTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final ChannelParameters parameters = new ChannelParameters(
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT,
+            ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+            ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
+    );
+
+    @AfterClass
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test(description = "Pausing a queue returns the crypto permits of the asymmetric work queued in it.")
+    public void testPauseReturnsCryptoPermits() throws Exception {
+        CryptoExecutor cryptoExecutor = new CryptoExecutor(executor, 1);
+
+        SerializationQueue queue = new SerializationQueue(
+                executor, parameters, ChannelConfig.DEFAULT, null, cryptoExecutor);
+
+        // Hold up the decoding queue so the asymmetric work stays queued behind it.
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+
+        queue.decode((binaryDecoder, chunkDecoder) -> {
+            running.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean asymmetricRan = new AtomicBoolean(false);
+        queue.decodeAsymmetric((binaryDecoder, chunkDecoder) -> asymmetricRan.set(true));
+
+        assertEquals(cryptoExecutor.getPendingTaskCount(), 1);
+
+        queue.pause();
+        proceed.countDown();
+
+        assertEquals(cryptoExecutor.getPendingTaskCount(), 0);
+
+        // Another channel sharing the executor can still open.
+        SerializationQueue other = new SerializationQueue(
+                executor, parameters, ChannelConfig.DEFAULT, null, cryptoExecutor);
+
+        CountDownLatch otherRan = new CountDownLatch(1);
+        other.decodeAsymmetric((binaryDecoder, chunkDecoder) -> otherRan.countDown());
+
+        assertTrue(otherRan.await(5, TimeUnit.SECONDS));
+        assertFalse(asymmetricRan.get());
+    }
+
+    @Test(description = "Asymmetric work queued after a pause doesn't keep its crypto permit.")
+    public void testQueuedAfterPauseReturnsCryptoPermit() throws Exception {
+        CryptoExecutor cryptoExecutor = new CryptoExecutor(executor, 1);
+
+        SerializationQueue queue = new SerializationQueue(
+                executor, parameters, ChannelConfig.DEFAULT, null, cryptoExecutor);
+
+        queue.pause();
+        queue.encodeAsymmetric((binaryEncoder, chunkEncoder) -> {});
+        queue.decodeAsymmetric((binaryDecoder, chunkDecoder) -> {});
+
+        assertEquals(cryptoExecutor.getPendingTaskCount(), 0);
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.channel;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
+import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ResponseHeader;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class StreamingMessageBufferTest {
+
+    private static final long READ_TIMEOUT = ChannelConfig.DEFAULT_INCREMENTAL_DECODE_TIMEOUT;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterClass
+    public void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    @Test(description = "A message is decoded while its bodies are still being appended.")
+    public void testDecodeWhileAppending() throws Exception {
+        DataValue[] results = new DataValue[1000];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new DataValue(new Variant("value" + i));
+        }
+
+        ByteBuf encoded = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        new BinaryEncoder().setBuffer(encoded).encodeMessage(null, new ReadResponse(
+                new ResponseHeader(DateTime.now(), uint(1), StatusCode.GOOD, null, null, null), results, null));
+
+        StreamingMessageBuffer message = new StreamingMessageBuffer(ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE, READ_TIMEOUT);
+
+        Future<ReadResponse> decoded = executor.submit(() -> {
+            try {
+                return new BinaryDecoder().setBuffer(message.order(ByteOrder.LITTLE_ENDIAN)).decodeMessage(null);
+            } finally {
+                message.release();
+            }
+        });
+
+        // Bodies that split the encoding at arbitrary points, including in the middle of values.
+        while (encoded.isReadable()) {
+            message.append(encoded.readBytes(Math.min(encoded.readableBytes(), 997)));
+            Thread.sleep(1);
+        }
+        message.complete();
+
+        ReadResponse response = decoded.get(5, TimeUnit.SECONDS);
+
+        assertEquals(response.getResults().length, results.length);
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(response.getResults()[i].getValue().getValue(), "value" + i);
+        }
+    }
+
+    @Test(description = "Each body is released once reading has moved past it.")
+    public void testBodiesReleasedOnceRead() {
+        ByteBuf body1 = Unpooled.buffer().writeInt(1).writeInt(2);
+        ByteBuf body2 = Unpooled.buffer().writeInt(3).writeInt(4);
+        ByteBuf body3 = Unpooled.buffer().writeShort(5);
+
+        StreamingMessageBuffer message = new StreamingMessageBuffer(1024, READ_TIMEOUT);
+        message.append(body1);
+        message.append(body2);
+        message.append(body3);
+        message.complete();
+
+        assertEquals(message.readInt(), 1);
+        assertEquals(message.readInt(), 2);
+        assertEquals(body1.refCnt(), 1);
+
+        assertEquals(message.readInt(), 3);
+        assertEquals(body1.refCnt(), 0);
+        assertEquals(body2.refCnt(), 1);
+
+        // Spans body2 and body3.
+        message.skipBytes(2);
+        assertEquals(message.readInt(), (4 << 16) | 5);
+        assertEquals(body2.refCnt(), 0);
+        assertEquals(body3.refCnt(), 1);
+
+        message.release();
+        assertEquals(body3.refCnt(), 0);
+    }
+
+    @Test(description = "A failed message wakes a waiting read, which fails with the same status.")
+    public void testFailWakesWaitingRead() throws Exception {
+        StreamingMessageBuffer message = new StreamingMessageBuffer(1024, READ_TIMEOUT);
+        message.append(Unpooled.buffer().writeShort(1));
+
+        Future<Integer> read = executor.submit(() -> message.readInt());
+
+        Thread.sleep(50);
+        message.fail(new UaException(StatusCodes.Bad_ConnectionClosed, "connection closed"));
+
+        try {
+            read.get(5, TimeUnit.SECONDS);
+            fail("expected read to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UaSerializationException);
+            assertEquals(((UaSerializationException) e.getCause()).getStatusCode(), StatusCodes.Bad_ConnectionClosed);
+        } finally {
+            message.release();
+        }
+    }
+
+    @Test(description = "A read that waits too long for the next body fails the message with Bad_Timeout.")
+    public void testWaitingReadTimesOut() {
+        StreamingMessageBuffer message = new StreamingMessageBuffer(1024, 50);
+        message.append(Unpooled.buffer().writeShort(1));
+
+        try {
+            message.readInt();
+            fail("expected read to fail");
+        } catch (UaSerializationException e) {
+            assertEquals(e.getStatusCode(), StatusCodes.Bad_Timeout);
+        }
+
+        // The message has failed; a body that arrives late is released rather than held.
+        ByteBuf late = Unpooled.buffer().writeShort(2);
+        message.append(late);
+        assertEquals(late.refCnt(), 0);
+
+        message.release();
+    }
+
+    @Test
+    public void testReadPastEndOfCompleteMessage() {
+        StreamingMessageBuffer message = new StreamingMessageBuffer(1024, READ_TIMEOUT);
+        message.append(Unpooled.buffer().writeShort(1));
+        message.complete();
+
+        try {
+            message.readInt();
+            fail("expected read to fail");
+        } catch (UaSerializationException e) {
+            assertEquals(e.getStatusCode(), StatusCodes.Bad_DecodingError);
+        } finally {
+            message.release();
+        }
+    }
+
+    @Test
+    public void testAppendAfterReleaseReleasesBody() {
+        StreamingMessageBuffer message = new StreamingMessageBuffer(1024, READ_TIMEOUT);
+        message.release();
+
+        ByteBuf body = Unpooled.buffer().writeInt(1);
+        message.append(body);
+
+        assertEquals(body.refCnt(), 0);
+    }
+
+}
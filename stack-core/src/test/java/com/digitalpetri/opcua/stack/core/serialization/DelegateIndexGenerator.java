@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SortedMap;
+
+import com.digitalpetri.opcua.stack.core.Identifiers;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
+import com.google.common.collect.Maps;
+
+/**
+ * Generates the source of {@link DelegateIndex} from the encoding ids in {@link Identifiers}.
+ * <p>
+ * Run {@link #main(String[])} from the stack-core directory after structured types are added or removed; it
+ * overwrites {@link #SOURCE_PATH}, or the path given as the first argument.
+ */
+public class DelegateIndexGenerator {
+
+    static final Path SOURCE_PATH =
+            Paths.get("src/main/java/com/digitalpetri/opcua/stack/core/serialization/DelegateIndex.java");
+
+    static final String STRUCTURED_PACKAGE = "com.digitalpetri.opcua.stack.core.types.structured.";
+    static final String BINARY_SUFFIX = "_Encoding_DefaultBinary";
+    static final String XML_SUFFIX = "_Encoding_DefaultXml";
+
+    private static final String HEADER =
+            "/*\n" +
+            " * Copyright 2015 Kevin Herron\n" +
+            " *\n" +
+            " * Licensed under the Apache License, Version 2.0 (the \"License\");\n" +
+            " * you may not use this file except in compliance with the License.\n" +
+            " * You may obtain a copy of the License at\n" +
+            " *\n" +
+            " *     http://www.apache.org/licenses/LICENSE-2.0\n" +
+            " *\n" +
+            " * Unless required by applicable law or agreed to in writing, software\n" +
+            " * distributed under the License is distributed on an \"AS IS\" BASIS,\n" +
+            " * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\n" +
+            " * See the License for the specific language governing permissions and\n" +
+            " * limitations under the License.\n" +
+            " */\n" +
+            "\n" +
+            "package com.digitalpetri.opcua.stack.core.serialization;\n" +
+            "\n" +
+            "import javax.annotation.Nullable;\n" +
+            "\n" +
+            "/**\n" +
+            " * Index of the generated structures by encoding id, so {@link DelegateRegistry} can load the one class that registers a\n" +
+            " * delegate for an encoding id the first time that id is seen, instead of loading every generated type up front.\n" +
+            " * <p>\n" +
+            " * Generated by DelegateIndexGenerator, in the stack-core test sources, from the encoding ids in\n" +
+            " * {@link com.digitalpetri.opcua.stack.core.Identifiers}; don't edit it by hand. Run the generator again when\n" +
+            " * structured types are added or removed. DelegateIndexTest fails if it is out of date.\n" +
+            " */\n" +
+            "final class DelegateIndex {\n" +
+            "\n" +
+            "    private static final String STRUCTURED = \"" + STRUCTURED_PACKAGE + "\";\n" +
+            "\n" +
+            "    private DelegateIndex() {}\n" +
+            "\n" +
+            "    /**\n" +
+            "     * @param encodingId the numeric identifier of a namespace 0 encoding id.\n" +
+            "     * @return the name of the class that registers delegates for {@code encodingId}, or {@code null} if none does.\n" +
+            "     */\n" +
+            "    @Nullable\n" +
+            "    static String getClassName(long encodingId) {\n" +
+            "        switch ((int) encodingId) {\n";
+
+    private static final String FOOTER =
+            "            default:\n" +
+            "                return null;\n" +
+            "        }\n" +
+            "    }\n" +
+            "\n" +
+            "}\n";
+
+    public static void main(String[] args) throws Exception {
+        Path path = args.length > 0 ? Paths.get(args[0]) : SOURCE_PATH;
+
+        Files.write(path, generate().getBytes(StandardCharsets.UTF_8));
+
+        System.out.println("wrote " + path.toAbsolutePath());
+    }
+
+    /**
+     * @return the expected source of {@link DelegateIndex}.
+     */
+    static String generate() throws ReflectiveOperationException {
+        SortedMap<String, long[]> encodingIds = Maps.newTreeMap();
+
+        for (Field binaryField : Identifiers.class.getFields()) {
+            if (!binaryField.getName().endsWith(BINARY_SUFFIX)) continue;
+
+            String typeName = binaryField.getName().substring(0, binaryField.getName().length() - BINARY_SUFFIX.length());
+            NodeId binaryEncodingId = (NodeId) binaryField.get(null);
+            NodeId xmlEncodingId = (NodeId) Identifiers.class.getField(typeName + XML_SUFFIX).get(null);
+
+            encodingIds.put(typeName, new long[]{identifier(binaryEncodingId), identifier(xmlEncodingId)});
+        }
+
+        StringBuilder source = new StringBuilder(HEADER);
+
+        encodingIds.forEach((typeName, ids) -> {
+            source.append(String.format("            case %d: // %s%s\n", ids[0], typeName, BINARY_SUFFIX));
+            source.append(String.format("            case %d: // %s%s\n", ids[1], typeName, XML_SUFFIX));
+            source.append(String.format("                return STRUCTURED + \"%s\";\n", typeName));
+        });
+
+        return source.append(FOOTER).toString();
+    }
+
+    private static long identifier(NodeId encodingId) {
+        return ((UInteger) encodingId.getIdentifier()).longValue();
+    }
+
+}
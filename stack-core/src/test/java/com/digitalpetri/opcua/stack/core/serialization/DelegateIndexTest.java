@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+
+import com.digitalpetri.opcua.stack.core.Identifiers;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
+import com.digitalpetri.opcua.stack.core.types.enumerated.NodeClass;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import com.google.common.collect.Sets;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.serialization.DelegateIndexGenerator.BINARY_SUFFIX;
+import static com.digitalpetri.opcua.stack.core.serialization.DelegateIndexGenerator.STRUCTURED_PACKAGE;
+import static com.digitalpetri.opcua.stack.core.serialization.DelegateIndexGenerator.XML_SUFFIX;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class DelegateIndexTest {
+
+    @Test(description = "DelegateIndex.java is what DelegateIndexGenerator produces.")
+    public void testIndexIsUpToDate() throws Exception {
+        String expected = DelegateIndexGenerator.generate();
+        String actual = new String(Files.readAllBytes(DelegateIndexGenerator.SOURCE_PATH), StandardCharsets.UTF_8);
+
+        assertEquals(actual, expected,
+                "DelegateIndex is out of date; run DelegateIndexGenerator from stack-core. Expected source:\n" +
+                        expected + "\n");
+    }
+
+    /**
+     * Driven by the encoding ids in {@link Identifiers}, which is generated from the same NodeIds input as the
+     * structured types, rather than by scanning the class path, so it finds the same types on any JDK.
+     */
+    @Test(description = "DelegateIndex has an entry for the encoding ids of every generated structure.")
+    public void testIndexIsComplete() throws Exception {
+        Set<Class<?>> structures = Sets.newHashSet();
+        Set<Long> indexedIds = Sets.newHashSet();
+
+        for (Field binaryField : Identifiers.class.getFields()) {
+            if (!binaryField.getName().endsWith(BINARY_SUFFIX)) continue;
+
+            String typeName = binaryField.getName().substring(0, binaryField.getName().length() - BINARY_SUFFIX.length());
+            Class<?> clazz = Class.forName(STRUCTURED_PACKAGE + typeName);
+
+            NodeId binaryEncodingId = (NodeId) binaryField.get(null);
+            NodeId xmlEncodingId = (NodeId) Identifiers.class.getField(typeName + XML_SUFFIX).get(null);
+
+            assertEquals(clazz.getField("BinaryEncodingId").get(null), binaryEncodingId, typeName);
+            assertEquals(clazz.getField("XmlEncodingId").get(null), xmlEncodingId, typeName);
+
+            for (NodeId encodingId : new NodeId[]{binaryEncodingId, xmlEncodingId}) {
+                long id = ((UInteger) encodingId.getIdentifier()).longValue();
+
+                assertEquals(DelegateIndex.getClassName(id), clazz.getName(), encodingId + " of " + clazz);
+
+                indexedIds.add(id);
+            }
+
+            structures.add(clazz);
+        }
+
+        assertFalse(structures.isEmpty());
+        assertEquals(indexedIds.size(), structures.size() * 2);
+    }
+
+    @Test
+    public void testUnknownIdIsNotIndexed() {
+        assertNull(DelegateIndex.getClassName(0));
+        assertNull(DelegateIndex.getClassName(Integer.MAX_VALUE + 1L));
+    }
+
+    @Test
+    public void testDelegatesAreFoundByIdAndClass() {
+        assertNotNull(DelegateRegistry.getDecoder(Identifiers.ReadValueId_Encoding_DefaultBinary));
+        assertNotNull(DelegateRegistry.getEncoder(Identifiers.ReadValueId_Encoding_DefaultXml));
+        assertNotNull(DelegateRegistry.getDecoder(ReadValueId.class));
+        assertNotNull(DelegateRegistry.getDecoder(NodeClass.class));
+    }
+
+    @Test
+    public void testUnregisteredClassMissesRepeatedly() {
+        assertNull(DelegateRegistry.getDecoder(String.class));
+        assertNull(DelegateRegistry.getDecoder(String.class));
+        assertNull(DelegateRegistry.getEncoder(String.class));
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.digitalpetri.opcua.stack.core.serialization;
+
+import com.digitalpetri.opcua.stack.core.AttributeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
+import com.digitalpetri.opcua.stack.core.types.builtin.XmlElement;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class OpcUaDataTypeEncodingTest {
+
+    @Test(description = "Binary codecs are created once per thread and reused by later calls.")
+    public void testCodecsReused() {
+        OpcUaDataTypeEncoding encoding = new OpcUaDataTypeEncoding();
+
+        for (int i = 0; i < 100; i++) {
+            ReadValueId value = readValueId(i % 2 == 0 ? 10 : 10_000);
+
+            ByteString encoded = encoding.encodeToByteString(value, ReadValueId.BinaryEncodingId);
+            ReadValueId decoded = (ReadValueId) encoding.decodeFromByteString(encoded, ReadValueId.BinaryEncodingId);
+
+            assertEquals(decoded.getNodeId(), value.getNodeId());
+            assertEquals(decoded.getIndexRange(), value.getIndexRange());
+        }
+
+        assertEquals(encoding.getCodecAcquireCount(), 200);
+        assertEquals(encoding.getCodecCreateCount(), 1);
+        assertEquals(encoding.getCodecReuseCount(), 199);
+    }
+
+    @Test(description = "The default encoding's statistics count calls made through DataTypeEncoding.OPC_UA.")
+    public void testDefaultEncodingStatistics() {
+        OpcUaDataTypeEncoding encoding = OpcUaDataTypeEncoding.getDefault();
+        assertSame(encoding, DataTypeEncoding.OPC_UA);
+
+        long acquired = encoding.getCodecAcquireCount();
+
+        ReadValueId value = readValueId(10);
+        ByteString encoded = DataTypeEncoding.OPC_UA.encodeToByteString(value, ReadValueId.BinaryEncodingId);
+        DataTypeEncoding.OPC_UA.decodeFromByteString(encoded, ReadValueId.BinaryEncodingId);
+
+        assertEquals(encoding.getCodecAcquireCount(), acquired + 2);
+    }
+
+    @Test(description = "XML codecs are reused the same way.")
+    public void testXmlCodecsReused() {
+        OpcUaDataTypeEncoding encoding = new OpcUaDataTypeEncoding();
+        NodeId encodingId = new NodeId(2, "OpcUaDataTypeEncodingTest.Text");
+
+        DelegateRegistry.registerEncoder(
+                (Text text, UaEncoder encoder) -> encoder.encodeString("Value", text.value), Text.class, encodingId);
+        DelegateRegistry.registerDecoder(
+                decoder -> new Text(decoder.decodeString("Value")), Text.class, encodingId);
+
+        for (int i = 0; i < 10; i++) {
+            XmlElement encoded = encoding.encodeToXmlElement(new Text("text" + i), encodingId);
+            Text decoded = (Text) encoding.decodeFromXmlElement(encoded, encodingId);
+
+            assertEquals(decoded.value, "text" + i);
+        }
+
+        assertEquals(encoding.getCodecAcquireCount(), 20);
+        assertEquals(encoding.getCodecCreateCount(), 1);
+    }
+
+    @Test(description = "A delegate that encodes a nested body itself gets codecs of its own.")
+    public void testNestedEncodeGetsOwnCodecs() {
+        OpcUaDataTypeEncoding encoding = new OpcUaDataTypeEncoding();
+        NodeId encodingId = new NodeId(2, "OpcUaDataTypeEncodingTest.Nested");
+
+        DelegateRegistry.registerEncoder((Nested nested, UaEncoder encoder) -> {
+            encoder.encodeString(null, "outer");
+            encoder.encodeByteString(null, encoding.encodeToByteString(nested.inner, ReadValueId.BinaryEncodingId));
+            encoder.encodeString(null, "after");
+        }, Nested.class, encodingId);
+
+        DelegateRegistry.registerDecoder(decoder -> {
+            assertEquals(decoder.decodeString(null), "outer");
+            ByteString inner = decoder.decodeByteString(null);
+            ReadValueId value = (ReadValueId) encoding.decodeFromByteString(inner, ReadValueId.BinaryEncodingId);
+            assertEquals(decoder.decodeString(null), "after");
+            return new Nested(value);
+        }, Nested.class, encodingId);
+
+        Nested nested = new Nested(readValueId(100));
+
+        ByteString encoded = encoding.encodeToByteString(nested, encodingId);
+        Nested decoded = (Nested) encoding.decodeFromByteString(encoded, encodingId);
+
+        assertEquals(decoded.inner.getIndexRange(), nested.inner.getIndexRange());
+        // The thread's codecs, plus one set each for the nested encode and decode.
+        assertEquals(encoding.getCodecAcquireCount(), 4);
+        assertEquals(encoding.getCodecCreateCount(), 3);
+    }
+
+    private static ReadValueId readValueId(int indexRangeLength) {
+        StringBuilder indexRange = new StringBuilder();
+        for (int i = 0; i < indexRangeLength; i++) {
+            indexRange.append(i % 10);
+        }
+
+        return new ReadValueId(new NodeId(2, "node"), AttributeId.Value.uid(), indexRange.toString(),
+                QualifiedName.NULL_VALUE);
+    }
+
+    private static class Text {
+        final String value;
+
+        Text(String value) {
+            this.value = value;
+        }
+    }
+
+    private static class Nested {
+        final ReadValueId inner;
+
+        Nested(ReadValueId inner) {
+            this.inner = inner;
+        }
+    }
+
+}
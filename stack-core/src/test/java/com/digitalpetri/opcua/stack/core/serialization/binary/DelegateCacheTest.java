@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import com.digitalpetri.opcua.stack.core.serialization.DelegateRegistry;
+import com.digitalpetri.opcua.stack.core.serialization.UaSerializable;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class DelegateCacheTest extends BinarySerializationFixture {
+
+    @Test(description = "Registering an encoder again takes effect in an encoder that already cached the old one.")
+    public void testEncoderRegisteredAgain() {
+        DelegateRegistry.registerEncoder((value, e) -> e.encodeInt32(null, 1), Marker.class);
+        encoder.encodeSerializable(null, new Marker(0));
+
+        DelegateRegistry.registerEncoder((value, e) -> e.encodeInt32(null, 2), Marker.class);
+        encoder.encodeSerializable(null, new Marker(0));
+
+        assertEquals(decoder.decodeInt32(null).intValue(), 1);
+        assertEquals(decoder.decodeInt32(null).intValue(), 2);
+    }
+
+    @Test(description = "Registering a decoder again takes effect in a decoder that already cached the old one.")
+    public void testDecoderRegisteredAgain() {
+        encoder.encodeInt32(null, 42);
+        encoder.encodeInt32(null, 42);
+
+        DelegateRegistry.registerDecoder(d -> new Marker(d.decodeInt32(null)), Marker.class);
+        assertEquals(decoder.decodeSerializable(null, Marker.class).value, 42);
+
+        DelegateRegistry.registerDecoder(d -> new Marker(-d.decodeInt32(null)), Marker.class);
+        assertEquals(decoder.decodeSerializable(null, Marker.class).value, -42);
+    }
+
+    private static class Marker implements UaSerializable {
+
+        private final int value;
+
+        Marker(int value) {
+            this.value = value;
+        }
+
+    }
+
+}
@@ -16,14 +16,38 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
+import java.nio.ByteOrder;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
+import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
+import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
 import com.digitalpetri.opcua.stack.core.types.builtin.XmlElement;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import com.digitalpetri.opcua.stack.core.types.structured.ResponseHeader;
+import com.digitalpetri.opcua.stack.core.types.structured.ServiceCounterDataType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class ExtensionObjectSerializationTest extends BinarySerializationFixture {
 
@@ -43,4 +67,220 @@ public class ExtensionObjectSerializationTest extends BinarySerializationFixture
         assertEquals(decoded, xo);
     }
 
+    @Test(description = "A structure's body is encoded inline, the same as when encoded into a ByteString first.")
+    public void testInlineBodyEncoding() throws Exception {
+        ServiceCounterDataType structure = new ServiceCounterDataType(uint(1), uint(2));
+
+        ExtensionObject inline = ExtensionObject.encode(structure);
+        assertNotNull(inline.getUnencoded());
+
+        encoder.encodeExtensionObject(null, inline);
+        encoder.encodeVariant(null, new Variant(new ServiceCounterDataType[]{structure, structure}));
+
+        // Force the body into a ByteString and encode the same things again.
+        ExtensionObject copied = ExtensionObject.encode(structure);
+        ByteString body = (ByteString) copied.getEncoded();
+        assertNull(copied.getUnencoded());
+
+        ByteBuf expected = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        BinaryEncoder expectedEncoder = new BinaryEncoder().setBuffer(expected);
+        expectedEncoder.encodeExtensionObject(null, new ExtensionObject(body, structure.getBinaryEncodingId()));
+        expectedEncoder.encodeVariant(null, new Variant(new ExtensionObject[]{copied, copied}));
+
+        assertTrue(ByteBufUtil.equals(buffer, expected));
+
+        ExtensionObject decoded = decoder.decodeExtensionObject(null);
+        ServiceCounterDataType decodedStructure = decoded.decode();
+
+        assertEquals(decoded, inline);
+        assertEquals(decodedStructure.getTotalCount(), uint(1));
+        assertEquals(decodedStructure.getErrorCount(), uint(2));
+    }
+
+    @Test(description = "A deferred XML body is encoded inline as UTF-8, the same as when encoded into an XmlElement first.")
+    public void testInlineXmlBodyEncoding() throws Exception {
+        ReadValueId structure = new ReadValueId(
+                new NodeId(2, "caf\u00e9 <&>"), uint(13), "1:2", new QualifiedName(1, "\u6e29\u5ea6"));
+
+        ExtensionObject inline = ExtensionObject.encodeAsXmlElement(structure, ReadValueId.XmlEncodingId);
+        assertNotNull(inline.getUnencoded());
+        encoder.encodeExtensionObject(null, inline);
+
+        ExtensionObject copied = ExtensionObject.encodeAsXmlElement(structure, ReadValueId.XmlEncodingId);
+        XmlElement body = (XmlElement) copied.getEncoded();
+        assertNull(copied.getUnencoded());
+
+        ByteBuf expected = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        new BinaryEncoder().setBuffer(expected).encodeExtensionObject(null, copied);
+
+        assertTrue(ByteBufUtil.equals(buffer, expected));
+
+        ExtensionObject decoded = decoder.decodeExtensionObject(null);
+        assertEquals(decoded.getBodyType(), ExtensionObject.BodyType.XmlElement);
+        assertEquals(decoded.getEncoded(), body);
+    }
+
+    @Test(expectedExceptions = UaSerializationException.class)
+    public void testEncodeWithoutRegisteredEncoder() {
+        ExtensionObject.encodeAsByteString("not a structure", new NodeId(1, 2));
+    }
+
+    @Test(description = "Retained ExtensionObject bodies are forwarded without copying and decoded on demand.")
+    public void testRetainedBodies() throws Exception {
+        BinaryDecoder retainingDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                null,
+                false,
+                true
+        ).setBuffer(buffer);
+
+        ServiceCounterDataType structure = new ServiceCounterDataType(uint(1), uint(2));
+
+        encoder.encodeExtensionObject(null, ExtensionObject.encode(structure));
+        encoder.encodeExtensionObject(null, ExtensionObject.encode(structure));
+        encoder.encodeExtensionObject(null, new ExtensionObject(ByteString.NULL_VALUE, structure.getBinaryEncodingId()));
+
+        ByteBuf expected = buffer.copy();
+
+        ExtensionObject xo1 = retainingDecoder.decodeExtensionObject(null);
+        ExtensionObject xo2 = retainingDecoder.decodeExtensionObject(null);
+        ExtensionObject xo3 = retainingDecoder.decodeExtensionObject(null);
+
+        assertNotNull(xo1.getEncodedBuffer());
+        assertNotNull(xo2.getEncodedBuffer());
+        assertNull(xo3.getEncodedBuffer());
+        assertEquals(buffer.refCnt(), 3);
+
+        ByteBuf forwarded = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        BinaryEncoder forwardingEncoder = new BinaryEncoder().setBuffer(forwarded);
+        forwardingEncoder.encodeExtensionObject(null, xo1);
+        forwardingEncoder.encodeExtensionObject(null, xo2);
+        forwardingEncoder.encodeExtensionObject(null, xo3);
+
+        assertTrue(ByteBufUtil.equals(forwarded, expected));
+
+        ServiceCounterDataType decoded = xo1.decode();
+        assertEquals(decoded.getTotalCount(), uint(1));
+        assertNull(xo1.getEncodedBuffer());
+        assertEquals(buffer.refCnt(), 2);
+
+        xo2.release();
+        xo2.release();
+        assertNull(xo2.getEncodedBuffer());
+        assertEquals(buffer.refCnt(), 1);
+    }
+
+    @Test(description = "Bodies retained by a message that then fails to decode are released.")
+    public void testRetainedBodiesReleasedWhenMessageFails() {
+        BinaryDecoder retainingDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                null,
+                false,
+                true
+        ).setBuffer(buffer);
+
+        ExtensionObject xo = ExtensionObject.encode(new ServiceCounterDataType(uint(1), uint(2)));
+
+        encoder.encodeMessage(null, new ReadResponse(
+                new ResponseHeader(DateTime.now(), uint(1), StatusCode.GOOD, null, null, null),
+                new DataValue[]{new DataValue(new Variant(xo)), new DataValue(new Variant(xo))},
+                null
+        ));
+
+        // Cut the message off after its ExtensionObjects.
+        buffer.writerIndex(buffer.writerIndex() - 4);
+
+        try {
+            retainingDecoder.decodeMessage(null);
+            fail("expected decoding to fail");
+        } catch (IndexOutOfBoundsException expected) {
+            assertEquals(buffer.refCnt(), 1);
+        }
+    }
+
+    @Test
+    public void testRetainedBodyCopiedOnGetEncoded() {
+        BinaryDecoder retainingDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                null,
+                false,
+                true
+        ).setBuffer(buffer);
+
+        ExtensionObject xo = new ExtensionObject(ByteString.of(new byte[]{1, 2, 3, 4}), new NodeId(1, 2));
+        encoder.encodeExtensionObject(null, xo);
+
+        ExtensionObject retained = retainingDecoder.decodeExtensionObject(null);
+
+        // Comparing doesn't copy the body out of the buffer...
+        assertEquals(retained, xo);
+        assertEquals(retained.hashCode(), xo.hashCode());
+        assertNotNull(retained.getEncodedBuffer());
+
+        // ...but asking for it does.
+        assertEquals(retained.getEncoded(), xo.getEncoded());
+        assertNull(retained.getEncodedBuffer());
+        assertEquals(buffer.refCnt(), 1);
+    }
+
+    @Test(description = "A deferred body is equal to any body with the same encoding, without being encoded itself.")
+    public void testDeferredBodyEquality() {
+        ExtensionObject xo1 = ExtensionObject.encode(new ServiceCounterDataType(uint(1), uint(2)));
+        ExtensionObject xo2 = ExtensionObject.encode(new ServiceCounterDataType(uint(1), uint(2)));
+        ExtensionObject other = ExtensionObject.encode(new ServiceCounterDataType(uint(1), uint(3)));
+
+        assertEquals(xo1, xo2);
+        assertEquals(xo1.hashCode(), xo2.hashCode());
+        assertNotEquals(xo1, other);
+
+        assertNotNull(xo1.getUnencoded());
+        assertNotNull(xo2.getUnencoded());
+
+        int hashCode = xo1.hashCode();
+        ExtensionObject copied = new ExtensionObject((ByteString) xo1.getEncoded(), xo1.getEncodingTypeId());
+
+        assertEquals(xo1.hashCode(), hashCode);
+        assertEquals(copied, xo2);
+        assertEquals(copied.hashCode(), hashCode);
+    }
+
+    @Test(description = "An ExtensionObject in a Variant is equal to itself after a round trip.")
+    public void testDeferredBodyVariantRoundTrip() {
+        Variant variant = new Variant(ExtensionObject.encode(new ServiceCounterDataType(uint(1), uint(2))));
+
+        encoder.encodeVariant(null, variant);
+
+        assertEquals(decoder.decodeVariant(null), variant);
+    }
+
+    @Test(description = "Decoding a retained body doesn't change its equality or hash code.")
+    public void testRetainedBodyEqualityAfterDecode() {
+        BinaryDecoder retainingDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                null,
+                false,
+                true
+        ).setBuffer(buffer);
+
+        ExtensionObject xo = ExtensionObject.encode(new ServiceCounterDataType(uint(1), uint(2)));
+        encoder.encodeExtensionObject(null, xo);
+
+        ExtensionObject retained = retainingDecoder.decodeExtensionObject(null);
+        Set<ExtensionObject> set = new HashSet<>();
+        set.add(retained);
+
+        ServiceCounterDataType decoded = retained.decode();
+        assertEquals(decoded.getErrorCount(), uint(2));
+        assertNull(retained.getEncodedBuffer());
+        assertEquals(buffer.refCnt(), 1);
+
+        assertTrue(set.contains(retained));
+        assertTrue(set.contains(xo));
+        assertEquals(retained, xo);
+    }
+
 }
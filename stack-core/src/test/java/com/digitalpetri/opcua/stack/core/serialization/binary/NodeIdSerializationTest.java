@@ -18,12 +18,17 @@ package com.digitalpetri.opcua.stack.core.serialization.binary;
 
 import java.util.UUID;
 
+import com.digitalpetri.opcua.stack.core.Identifiers;
 import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeIdCache;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 public class NodeIdSerializationTest extends BinarySerializationFixture {
 
@@ -39,6 +44,8 @@ public class NodeIdSerializationTest extends BinarySerializationFixture {
                 {new NodeId(255, 65535)},
                 {new NodeId(255, 65536)},
                 {new NodeId(1234, 567890)},
+                {new NodeId(0, NodeIdCache.NAMESPACE_ZERO_TABLE_SIZE)},
+                {new NodeId(ushort(65535), uint(4294967295L))},
                 {new NodeId(0, "hello, world")},
                 {new NodeId(1, "hello, world")},
                 {new NodeId(0, UUID.randomUUID())},
@@ -60,4 +67,47 @@ public class NodeIdSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, nodeId);
     }
 
+    @Test
+    public void testDecodedNamespaceZeroIdIsIdentifiersConstant() {
+        encoder.encodeNodeId(null, new NodeId(0, 631));
+        encoder.encodeNodeId(null, new NodeId(0, 11));
+
+        assertSame(decoder.decodeNodeId(null), Identifiers.ReadRequest_Encoding_DefaultBinary);
+        assertSame(decoder.decodeNodeId(null), Identifiers.Double);
+    }
+
+    @Test
+    public void testRepeatedNumericIdsShareInstance() {
+        for (int i = 0; i < 2; i++) {
+            encoder.encodeNodeId(null, new NodeId(2, 1000));
+            encoder.encodeNodeId(null, new NodeId(2, 1001));
+            encoder.encodeNodeId(null, new NodeId(3, 1000));
+        }
+
+        NodeId n1 = decoder.decodeNodeId(null);
+        NodeId n2 = decoder.decodeNodeId(null);
+        NodeId n3 = decoder.decodeNodeId(null);
+
+        assertEquals(n1, new NodeId(2, 1000));
+        assertEquals(n2, new NodeId(2, 1001));
+        assertEquals(n3, new NodeId(3, 1000));
+
+        assertSame(decoder.decodeNodeId(null), n1);
+        assertSame(decoder.decodeNodeId(null), n2);
+        assertSame(decoder.decodeNodeId(null), n3);
+    }
+
+    @Test
+    public void testNodeIdCacheEvictsOnCollision() {
+        NodeIdCache cache = new NodeIdCache(1);
+
+        NodeId n1 = cache.get(2, 1000);
+        NodeId n2 = cache.get(2, 1001);
+
+        assertEquals(n1, new NodeId(2, 1000));
+        assertEquals(n2, new NodeId(2, 1001));
+        assertSame(cache.get(2, 1001), n2);
+        assertEquals(cache.get(2, 1000), n1);
+    }
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
+import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UShort;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+
+public class PrimitiveSerializationTest extends BinarySerializationFixture {
+
+    @Test(description = "Primitive overloads encode the same bytes as their boxed counterparts.")
+    public void testPrimitiveMatchesBoxed() {
+        encoder.encodeBoolean(null, true);
+        encoder.encodeInt16(null, (short) -2);
+        encoder.encodeInt32(null, -3);
+        encoder.encodeInt64(null, -4L);
+        encoder.encodeUInt16(null, UShort.MAX_VALUE);
+        encoder.encodeUInt32(null, UInteger.MAX_VALUE);
+        encoder.encodeFloat(null, 5.5f);
+        encoder.encodeDouble(null, 6.5d);
+
+        assertEquals(decoder.decodeBoolean(null), Boolean.TRUE);
+        assertEquals(decoder.decodeInt16(null), Short.valueOf((short) -2));
+        assertEquals(decoder.decodeInt32(null), Integer.valueOf(-3));
+        assertEquals(decoder.decodeInt64(null), Long.valueOf(-4L));
+        assertEquals(decoder.decodeUInt16AsInt(null), UShort.MAX_VALUE);
+        assertEquals(decoder.decodeUInt32AsLong(null), UInteger.MAX_VALUE);
+        assertEquals(decoder.decodeFloatValue(null), 5.5f);
+        assertEquals(decoder.decodeDoubleValue(null), 6.5d);
+    }
+
+    @Test
+    public void testBoxedDecodesAsPrimitive() {
+        encoder.encodeBoolean(null, Boolean.FALSE);
+        encoder.encodeInt16(null, Short.valueOf((short) 2));
+        encoder.encodeInt32(null, Integer.valueOf(3));
+        encoder.encodeInt64(null, Long.valueOf(4L));
+        encoder.encodeUInt16(null, ushort(65000));
+        encoder.encodeUInt32(null, uint(4000000000L));
+        encoder.encodeFloat(null, (Float) null);
+        encoder.encodeDouble(null, (Double) null);
+
+        assertEquals(decoder.decodeBooleanValue(null), false);
+        assertEquals(decoder.decodeInt16Value(null), (short) 2);
+        assertEquals(decoder.decodeInt32Value(null), 3);
+        assertEquals(decoder.decodeInt64Value(null), 4L);
+        assertEquals(decoder.decodeUInt16(null), ushort(65000));
+        assertEquals(decoder.decodeUInt32(null), uint(4000000000L));
+        assertEquals(decoder.decodeFloatValue(null), 0f);
+        assertEquals(decoder.decodeDoubleValue(null), 0d);
+    }
+
+}
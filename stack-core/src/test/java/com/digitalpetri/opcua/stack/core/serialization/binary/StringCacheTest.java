@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import java.nio.ByteOrder;
+
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
+import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
+import com.google.common.base.Strings;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.ushort;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class StringCacheTest {
+
+    private ByteBuf buffer;
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+    private StringCache stringCache;
+
+    @BeforeMethod
+    public void setUp() {
+        buffer = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        stringCache = new StringCache(64);
+
+        encoder = new BinaryEncoder().setBuffer(buffer);
+        decoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                stringCache
+        ).setBuffer(buffer);
+    }
+
+    @Test
+    public void testRepeatedStringsShareInstance() {
+        for (int i = 0; i < 10; i++) {
+            encoder.encodeLocalizedText(null, LocalizedText.english("Temperature"));
+            encoder.encodeQualifiedName(null, new QualifiedName(ushort(2), "Temperature"));
+        }
+
+        LocalizedText first = decoder.decodeLocalizedText(null);
+        QualifiedName firstName = decoder.decodeQualifiedName(null);
+
+        assertSame(firstName.getName(), first.getText());
+
+        for (int i = 1; i < 10; i++) {
+            LocalizedText text = decoder.decodeLocalizedText(null);
+            QualifiedName name = decoder.decodeQualifiedName(null);
+
+            assertEquals(text, LocalizedText.english("Temperature"));
+            assertSame(text.getLocale(), first.getLocale());
+            assertSame(text.getText(), first.getText());
+            assertSame(name.getName(), first.getText());
+        }
+
+        // "en" and "Temperature" each miss once; the other 28 lookups hit.
+        assertEquals(stringCache.getMissCount(), 2);
+        assertEquals(stringCache.getHitCount(), 28);
+        assertEquals(stringCache.getHitRate(), 28 / 30.0, 0.0001);
+    }
+
+    @Test
+    public void testCollidingStringsAreNotConfused() {
+        StringCache tinyCache = new StringCache(1);
+
+        BinaryDecoder tinyDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                tinyCache
+        ).setBuffer(buffer);
+
+        String[] values = {"a", "b", "a", "水Boy", "水Boy", "b"};
+
+        for (String value : values) {
+            encoder.encodeString(null, value);
+        }
+
+        for (String value : values) {
+            assertEquals(tinyDecoder.decodeString(null), value);
+        }
+
+        assertEquals(tinyCache.getHitCount(), 1);
+        assertEquals(tinyCache.getMissCount(), 5);
+    }
+
+    @Test
+    public void testLongStringsAreNotCached() {
+        String value = Strings.repeat("x", StringCache.DEFAULT_MAX_STRING_LENGTH + 1);
+
+        encoder.encodeString(null, value);
+        encoder.encodeString(null, value);
+
+        String s1 = decoder.decodeString(null);
+        String s2 = decoder.decodeString(null);
+
+        assertEquals(s1, value);
+        assertEquals(s2, value);
+        assertNotSame(s1, s2);
+        assertEquals(stringCache.getHitCount() + stringCache.getMissCount(), 0);
+    }
+
+    @Test
+    public void testSizeRoundsUpToPowerOfTwo() {
+        assertEquals(new StringCache(1).getSize(), 1);
+        assertEquals(new StringCache(100).getSize(), 128);
+        assertEquals(new StringCache(128).getSize(), 128);
+    }
+
+}
@@ -16,10 +16,19 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class StringSerializationTest extends BinarySerializationFixture {
 
@@ -29,7 +38,10 @@ public class StringSerializationTest extends BinarySerializationFixture {
                 {null},
                 {""},
                 {"Hello, world!"},
-                {"水Boy"}
+                {"水Boy"},
+                {"Größe"},
+                {"\uD83D\uDE00 emoji"},
+                {Strings.repeat("ns=2;s=Device.Tag", 100)}
         };
     }
 
@@ -41,4 +53,66 @@ public class StringSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, value);
     }
 
+    @Test(dataProvider = "StringProvider")
+    public void testStringRoundTripDirect(String value) {
+        ByteBuf directBuffer = Unpooled.directBuffer().order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            new BinaryEncoder().setBuffer(directBuffer).encodeString(null, value);
+            String decoded = new BinaryDecoder().setBuffer(directBuffer).decodeString(null);
+
+            assertEquals(decoded, value);
+        } finally {
+            directBuffer.release();
+        }
+    }
+
+    @Test(dataProvider = "StringProvider")
+    public void testEncodedBytesMatchGetBytes(String value) {
+        encoder.encodeString(null, value);
+
+        if (value == null) {
+            assertEquals(buffer.readInt(), -1);
+        } else {
+            byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+            byte[] actual = new byte[buffer.readInt()];
+            buffer.readBytes(actual);
+
+            assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testUnpairedSurrogateEncodedAsQuestionMark() {
+        String value = "a\uD800b\uDC00";
+
+        encoder.encodeString(null, value);
+        String decoded = decoder.decodeString(null);
+
+        assertEquals(decoded, new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+        assertEquals(decoded, "a?b?");
+    }
+
+    @Test(description = "A long string is written a slice at a time, including surrogate pairs split by a slice.")
+    public void testLongStringCheckpoints() {
+        String value = Strings.repeat("Größe 水 \uD83D\uDE00 ", 2000);
+
+        List<Integer> checkpoints = Lists.newArrayList(0);
+        encoder.setCheckpoint(() -> checkpoints.add(buffer.writerIndex()));
+
+        encoder.encodeString(null, value);
+        checkpoints.add(buffer.writerIndex());
+
+        assertTrue(checkpoints.size() > 2);
+        for (int i = 1; i < checkpoints.size(); i++) {
+            assertTrue(checkpoints.get(i) - checkpoints.get(i - 1) <= 3 * 4096 + 4 + 1);
+        }
+
+        byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+        byte[] actual = new byte[buffer.readInt()];
+        buffer.readBytes(actual);
+
+        assertEquals(actual, expected);
+    }
+
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.serialization.binary;
+
+import com.digitalpetri.opcua.stack.core.AttributeId;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.builtin.NodeId;
+import com.digitalpetri.opcua.stack.core.types.builtin.QualifiedName;
+import com.digitalpetri.opcua.stack.core.types.enumerated.MonitoringMode;
+import com.digitalpetri.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import com.digitalpetri.opcua.stack.core.types.structured.CreateMonitoredItemsRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.MonitoredItemCreateRequest;
+import com.digitalpetri.opcua.stack.core.types.structured.MonitoringParameters;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadValueId;
+import com.digitalpetri.opcua.stack.core.types.structured.RequestHeader;
+import org.testng.annotations.Test;
+
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static org.testng.Assert.assertEquals;
+
+public class StructureArraySerializationTest extends BinarySerializationFixture {
+
+    @Test(description = "Arrays of structures with nested structures and enumerations are round-trip serializable.")
+    public void testNestedStructureArrayRoundTrip() {
+        MonitoredItemCreateRequest[] items = new MonitoredItemCreateRequest[100];
+
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new MonitoredItemCreateRequest(
+                    new ReadValueId(new NodeId(2, i), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE),
+                    i % 2 == 0 ? MonitoringMode.Reporting : MonitoringMode.Sampling,
+                    new MonitoringParameters(uint(i), 250.0, null, uint(10), true)
+            );
+        }
+
+        RequestHeader header = new RequestHeader(
+                NodeId.NULL_VALUE, DateTime.now(), uint(1), uint(0), null, uint(5000), null);
+
+        encoder.encodeMessage(null, new CreateMonitoredItemsRequest(header, uint(42), TimestampsToReturn.Both, items));
+
+        CreateMonitoredItemsRequest decoded = decoder.decodeMessage(null);
+
+        assertEquals(decoded.getSubscriptionId(), uint(42));
+        assertEquals(decoded.getTimestampsToReturn(), TimestampsToReturn.Both);
+        assertEquals(decoded.getItemsToCreate().length, items.length);
+
+        for (int i = 0; i < items.length; i++) {
+            MonitoredItemCreateRequest item = decoded.getItemsToCreate()[i];
+
+            assertEquals(item.getItemToMonitor().getNodeId(), new NodeId(2, i));
+            assertEquals(item.getMonitoringMode(), items[i].getMonitoringMode());
+            assertEquals(item.getRequestedParameters().getClientHandle(), uint(i));
+        }
+    }
+
+    @Test(expectedExceptions = UaSerializationException.class)
+    public void testNullArrayElementFailsToEncode() {
+        ReadValueId[] values = {
+                new ReadValueId(new NodeId(2, 1), AttributeId.Value.uid(), null, QualifiedName.NULL_VALUE),
+                null
+        };
+
+        encoder.encodeArray(null, values, encoder::encodeSerializable);
+    }
+
+}
@@ -16,16 +16,28 @@
 
 package com.digitalpetri.opcua.stack.core.serialization.binary;
 
+import java.nio.ByteOrder;
+import java.util.List;
+
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
+import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
 import com.digitalpetri.opcua.stack.core.types.builtin.ExtensionObject;
 import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.UInteger;
 import com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned;
 import com.digitalpetri.opcua.stack.core.types.structured.ServiceCounterDataType;
+import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class VariantSerializationTest extends BinarySerializationFixture {
 
@@ -93,4 +105,101 @@ public class VariantSerializationTest extends BinarySerializationFixture {
         assertEquals(decoded, expected);
     }
 
+    @DataProvider(name = "PrimitiveArrayProvider")
+    public Object[][] getPrimitiveArrays() {
+        return new Object[][]{
+                {new boolean[]{true, false, true}, new Boolean[]{true, false, true}},
+                {new byte[]{-1, 0, 1}, new Byte[]{-1, 0, 1}},
+                {new short[]{Short.MIN_VALUE, 0, Short.MAX_VALUE}, new Short[]{Short.MIN_VALUE, 0, Short.MAX_VALUE}},
+                {new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE}, new Integer[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE}},
+                {new long[]{Long.MIN_VALUE, 0L, Long.MAX_VALUE}, new Long[]{Long.MIN_VALUE, 0L, Long.MAX_VALUE}},
+                {new float[]{-1.5f, 0f, Float.NaN}, new Float[]{-1.5f, 0f, Float.NaN}},
+                {new double[]{-1.5, 0.0, Double.MAX_VALUE}, new Double[]{-1.5, 0.0, Double.MAX_VALUE}},
+                {new double[][]{{0.0, 1.0}, {2.0, 3.0}}, new Double[][]{{0.0, 1.0}, {2.0, 3.0}}},
+                {new double[0], new Double[0]}
+        };
+    }
+
+    @Test(dataProvider = "PrimitiveArrayProvider",
+            description = "Primitive arrays encode the same as boxed arrays and decode as primitive arrays when configured to.")
+    public void testPrimitiveArrayDecoding(Object primitiveArray, Object[] boxedArray) {
+        BinaryDecoder primitiveDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                null,
+                true
+        );
+
+        ByteBuf boxedBuffer = Unpooled.buffer().order(ByteOrder.LITTLE_ENDIAN);
+        new BinaryEncoder().setBuffer(boxedBuffer).encodeVariant(null, new Variant(boxedArray));
+
+        ByteBuf directBuffer = Unpooled.directBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        CompositeByteBuf compositeBuffer = Unpooled.compositeBuffer();
+        compositeBuffer.addComponent(Unpooled.buffer(1));
+        ByteBuf composite = compositeBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        for (ByteBuf b : new ByteBuf[]{buffer, directBuffer, composite}) {
+            new BinaryEncoder().setBuffer(b).encodeVariant(null, new Variant(primitiveArray));
+
+            assertTrue(ByteBufUtil.equals(b, boxedBuffer), "encoded differently: " + b);
+
+            Variant decoded = primitiveDecoder.setBuffer(b).decodeVariant(null);
+
+            assertEquals(decoded.getValue().getClass(), primitiveArray.getClass());
+            assertEquals(decoded, new Variant(primitiveArray));
+        }
+
+        Variant decoded = decoder.setBuffer(boxedBuffer).decodeVariant(null);
+        assertEquals(decoded, new Variant(boxedArray));
+    }
+
+    @Test(expectedExceptions = UaSerializationException.class)
+    public void testPrimitiveArrayLengthExceedsBuffer() {
+        BinaryDecoder primitiveDecoder = new BinaryDecoder(
+                ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH,
+                ChannelConfig.DEFAULT_MAX_STRING_LENGTH,
+                null,
+                true
+        ).setBuffer(buffer);
+
+        buffer.writeByte(11 | 0x80);
+        buffer.writeInt(Integer.MAX_VALUE);
+        buffer.writeDouble(1.0);
+
+        primitiveDecoder.decodeVariant(null);
+    }
+
+    @DataProvider(name = "LargeVariantProvider")
+    public Object[][] getLargeVariants() {
+        double[] doubles = new double[10000];
+        Double[] boxed = new Double[doubles.length];
+        for (int i = 0; i < doubles.length; i++) boxed[i] = doubles[i] = i;
+
+        byte[] bytes = new byte[50000];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) i;
+
+        return new Object[][]{
+                {new Variant(doubles), new Variant(boxed)},
+                {new Variant(boxed), new Variant(boxed)},
+                {new Variant(ByteString.of(bytes)), new Variant(ByteString.of(bytes))}
+        };
+    }
+
+    @Test(dataProvider = "LargeVariantProvider",
+            description = "Large values are written a slice at a time, so a checkpoint never follows more than one slice.")
+    public void testLargeVariantCheckpoints(Variant variant, Variant expected) {
+        List<Integer> checkpoints = Lists.newArrayList(0);
+        encoder.setCheckpoint(() -> checkpoints.add(buffer.writerIndex()));
+
+        encoder.encodeVariant(null, variant);
+        checkpoints.add(buffer.writerIndex());
+
+        assertTrue(checkpoints.size() > 10);
+        for (int i = 1; i < checkpoints.size(); i++) {
+            assertTrue(checkpoints.get(i) - checkpoints.get(i - 1) <= 4096 + 5);
+        }
+
+        assertEquals(decoder.decodeVariant(null), expected);
+    }
+
 }
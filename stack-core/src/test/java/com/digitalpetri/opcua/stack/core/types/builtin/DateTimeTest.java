@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.digitalpetri.opcua.stack.core.types.builtin;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class DateTimeTest {
+
+    @AfterMethod
+    public void restoreClock() {
+        DateTime.setClock(Clock.systemUTC());
+    }
+
+    @Test
+    public void testNowReadsClock() {
+        Instant instant = Instant.parse("2015-06-01T12:00:00Z");
+        DateTime.setClock(Clock.fixed(instant, ZoneOffset.UTC));
+
+        assertEquals(DateTime.now().getJavaTime(), instant.toEpochMilli());
+        assertEquals(new DateTime().getJavaTime(), instant.toEpochMilli());
+        assertEquals(DateTime.nowUtcTime(), new DateTime(instant.toEpochMilli() * 10000L + 116444736000000000L).getUtcTime());
+    }
+
+    @Test
+    public void testNowReusedWhileClockReadsSameTime() {
+        Instant instant = Instant.parse("2015-06-01T12:00:00Z");
+        DateTime.setClock(Clock.fixed(instant, ZoneOffset.UTC));
+
+        DateTime now = DateTime.now();
+        assertSame(DateTime.now(), now);
+
+        DateTime.setClock(Clock.fixed(instant.plusMillis(1), ZoneOffset.UTC));
+
+        DateTime later = DateTime.now();
+        assertNotSame(later, now);
+        assertEquals(later.getJavaTime(), now.getJavaTime() + 1);
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.digitalpetri.opcua.stack.core.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class CoarseClockTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterClass
+    public void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReadsLastTick() throws Exception {
+        AtomicLong sourceMillis = new AtomicLong(1000L);
+        AtomicLong sourceReads = new AtomicLong();
+
+        Clock source = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                sourceReads.incrementAndGet();
+                return Instant.ofEpochMilli(sourceMillis.get());
+            }
+        };
+
+        try (CoarseClock clock = new CoarseClock(source, 10, TimeUnit.MILLISECONDS, executor)) {
+            long reads = sourceReads.get();
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(clock.millis(), 1000L);
+            }
+            assertTrue(sourceReads.get() - reads < 1000, "reads=" + (sourceReads.get() - reads));
+
+            sourceMillis.set(2000L);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (clock.millis() != 2000L && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(clock.millis(), 2000L);
+        }
+    }
+
+    @Test
+    public void testReadsSourceOnceClosed() {
+        Instant instant = Instant.parse("2015-06-01T12:00:00Z");
+        AtomicLong offset = new AtomicLong();
+
+        Clock source = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return instant.plusMillis(offset.get());
+            }
+        };
+
+        CoarseClock clock = new CoarseClock(source, 1, TimeUnit.HOURS, executor);
+        clock.close();
+
+        offset.set(5);
+        assertEquals(clock.instant(), instant.plusMillis(5));
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.util;
+
+import com.digitalpetri.opcua.stack.core.types.structured.BrowseResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class EncodedSizeEstimatorTest {
+
+    @Test
+    public void testUnknownTypeGetsMinimum() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator();
+
+        assertEquals(estimator.estimate(ReadResponse.class), EncodedSizeEstimator.MIN_ESTIMATE);
+
+        estimator.record(ReadResponse.class, 10);
+        assertEquals(estimator.estimate(ReadResponse.class), EncodedSizeEstimator.MIN_ESTIMATE);
+    }
+
+    @Test
+    public void testSteadySizesAreEstimatedClosely() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator();
+
+        estimator.record(ReadResponse.class, 1_000_000);
+        int estimate = estimator.estimate(ReadResponse.class);
+        assertTrue(estimate >= 1_000_000 && estimate < 1_100_000, "estimate=" + estimate);
+
+        // Other types are unaffected.
+        assertEquals(estimator.estimate(BrowseResponse.class), EncodedSizeEstimator.MIN_ESTIMATE);
+
+        for (int i = 0; i < 100; i++) {
+            estimator.record(ReadResponse.class, 1_000_000);
+        }
+        int settled = estimator.estimate(ReadResponse.class);
+        assertTrue(settled >= 999_000 && settled < 1_010_000, "settled=" + settled);
+    }
+
+    @Test
+    public void testOutlierDecays() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator();
+
+        for (int i = 0; i < 20; i++) {
+            estimator.record(ReadResponse.class, 1000);
+        }
+
+        estimator.record(ReadResponse.class, 1_000_000);
+        int raised = estimator.estimate(ReadResponse.class);
+        assertTrue(raised > 100_000 && raised < 1_000_000, "raised=" + raised);
+
+        for (int i = 0; i < 60; i++) {
+            estimator.record(ReadResponse.class, 1000);
+        }
+        int settled = estimator.estimate(ReadResponse.class);
+        assertTrue(settled >= 900 && settled < 1500, "settled=" + settled);
+    }
+
+    @Test
+    public void testVaryingSizesGetHeadroom() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator();
+
+        for (int i = 0; i < 100; i++) {
+            estimator.record(ReadResponse.class, i % 2 == 0 ? 8000 : 12_000);
+        }
+
+        int estimate = estimator.estimate(ReadResponse.class);
+        assertTrue(estimate >= 12_000 && estimate < 16_000, "estimate=" + estimate);
+    }
+
+    @Test
+    public void testEstimateIsCapped() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator(4096);
+
+        estimator.record(ReadResponse.class, Integer.MAX_VALUE);
+        assertEquals(estimator.estimate(ReadResponse.class), 4096);
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.channel.CryptoExecutor;
+import com.google.common.collect.Lists;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class ExecutionQueueTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService otherExecutor = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, "other-executor"));
+
+    @AfterClass
+    public void shutdownExecutors() {
+        executor.shutdownNow();
+        otherExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSubmitToOtherExecutorKeepsOrder() throws Exception {
+        ExecutionQueue queue = new ExecutionQueue(executor);
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(30);
+
+        for (int i = 0; i < 30; i++) {
+            final int n = i;
+
+            Runnable runnable = () -> {
+                order.add(n);
+                threads.add(Thread.currentThread().getName());
+                latch.countDown();
+            };
+
+            if (i % 3 == 0) {
+                queue.submit(runnable, otherExecutor);
+            } else {
+                queue.submit(runnable);
+            }
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        List<Integer> expected = Lists.newArrayList();
+        for (int i = 0; i < 30; i++) expected.add(i);
+        assertEquals(order, expected);
+
+        for (int i = 0; i < 30; i++) {
+            assertEquals(threads.get(i).equals("other-executor"), i % 3 == 0);
+        }
+    }
+
+    @Test
+    public void testRejectedSubmissionRunsOnQueueExecutor() throws Exception {
+        ExecutorService shutdownExecutor = Executors.newSingleThreadExecutor();
+        shutdownExecutor.shutdown();
+
+        ExecutionQueue queue = new ExecutionQueue(executor);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        queue.submit(latch::countDown, shutdownExecutor);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCryptoExecutorRejectsWhenFull() throws Exception {
+        CryptoExecutor cryptoExecutor = new CryptoExecutor(otherExecutor, 2);
+
+        cryptoExecutor.acquire();
+        cryptoExecutor.acquire();
+        assertEquals(cryptoExecutor.getPendingTaskCount(), 2);
+
+        try {
+            cryptoExecutor.acquire();
+            fail("expected Bad_TooManyOperations");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_TooManyOperations);
+        }
+
+        cryptoExecutor.release();
+        cryptoExecutor.acquire();
+        assertEquals(cryptoExecutor.getPendingTaskCount(), 2);
+    }
+
+}
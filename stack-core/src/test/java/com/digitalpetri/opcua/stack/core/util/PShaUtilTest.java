@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Kevin Herron
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.digitalpetri.opcua.stack.core.util;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class PShaUtilTest {
+
+    private static final byte[] SECRET = new byte[32];
+    private static final byte[] SEED = new byte[32];
+
+    static {
+        for (int i = 0; i < 32; i++) {
+            SECRET[i] = (byte) i;
+            SEED[i] = (byte) (0xFF - i);
+        }
+    }
+
+    private static final String PSHA1_KEY =
+            "abd920a34b1fa152da9c8b13e016fe44e94bc1d1639210714f874da0d01f57cc62959b0aafc7637b17e5d815e2c27783a3cfa5ff";
+
+    private static final String PSHA256_KEY =
+            "dadafdc1fe7d07f575c686e4e393b856921e7759c9d1f0db9198bf1e6be497f2d4d16633e62b5f4fccf35a3e298959504176015d" +
+                    "78c74cc371037eeb6f72313e83972ec7e0ea6d869ee596220bd079b4";
+
+    @Test
+    public void testPSha1() {
+        assertEquals(hex(PShaUtil.createPSha1Key(SECRET, SEED, 0, 52)), PSHA1_KEY);
+    }
+
+    @Test
+    public void testPSha256() {
+        assertEquals(hex(PShaUtil.createPSha256Key(SECRET, SEED, 0, 80)), PSHA256_KEY);
+    }
+
+    @Test
+    public void testOffsetKeysAreSlicesOfOneExpansion() {
+        byte[] keyBlock = PShaUtil.createPSha256Key(SECRET, SEED, 0, 80);
+
+        assertEquals(PShaUtil.createPSha256Key(SECRET, SEED, 0, 32), Arrays.copyOfRange(keyBlock, 0, 32));
+        assertEquals(PShaUtil.createPSha256Key(SECRET, SEED, 32, 32), Arrays.copyOfRange(keyBlock, 32, 64));
+        assertEquals(PShaUtil.createPSha256Key(SECRET, SEED, 64, 16), Arrays.copyOfRange(keyBlock, 64, 80));
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+}
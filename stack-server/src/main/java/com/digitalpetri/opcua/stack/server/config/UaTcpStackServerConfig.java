@@ -17,11 +17,15 @@
 package com.digitalpetri.opcua.stack.server.config;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
+import com.digitalpetri.opcua.stack.core.Stack;
+import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.application.CertificateManager;
 import com.digitalpetri.opcua.stack.core.application.CertificateValidator;
 import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.CryptoExecutor;
 import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
 import com.digitalpetri.opcua.stack.core.types.structured.ApplicationDescription;
 import com.digitalpetri.opcua.stack.core.types.structured.SignedSoftwareCertificate;
@@ -79,6 +83,29 @@ public interface UaTcpStackServerConfig {
 
     ExecutorService getExecutor();
 
+    /**
+     * Get the {@link ExecutorService} used to sign and encrypt the chunks of large multi-chunk messages in parallel.
+     * If absent, chunks are secured one after another on the serialization queue.
+     * <p>
+     * This should not be the same bounded executor returned by {@link #getExecutor()}.
+     *
+     * @return an {@link Optional} containing the {@link ExecutorService} to secure chunks on.
+     */
+    default Optional<ExecutorService> getChunkExecutor() {
+        return Optional.empty();
+    }
+
+    /**
+     * Get the {@link CryptoExecutor} that asymmetric (OpenSecureChannel) work is done on. It bounds the threads used
+     * for RSA signing and encryption and rejects handshakes with {@link StatusCodes#Bad_TooManyOperations} once too
+     * many are pending.
+     *
+     * @return the {@link CryptoExecutor} to do asymmetric work on.
+     */
+    default CryptoExecutor getCryptoExecutor() {
+        return Stack.sharedCryptoExecutor();
+    }
+
     /**
      * Get the list of {@link UserTokenPolicy}s supported by the server.
      *
@@ -17,12 +17,14 @@
 package com.digitalpetri.opcua.stack.server.config;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import com.digitalpetri.opcua.stack.core.Stack;
 import com.digitalpetri.opcua.stack.core.application.CertificateManager;
 import com.digitalpetri.opcua.stack.core.application.CertificateValidator;
 import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
+import com.digitalpetri.opcua.stack.core.channel.CryptoExecutor;
 import com.digitalpetri.opcua.stack.core.types.builtin.LocalizedText;
 import com.digitalpetri.opcua.stack.core.types.structured.SignedSoftwareCertificate;
 import com.digitalpetri.opcua.stack.core.types.structured.UserTokenPolicy;
@@ -44,6 +46,8 @@ public class UaTcpStackServerConfigBuilder {
     private CertificateValidator certificateValidator;
 
     private ExecutorService executor;
+    private ExecutorService chunkExecutor;
+    private CryptoExecutor cryptoExecutor;
     private List<UserTokenPolicy> userTokenPolicies = Lists.newArrayList();
     private List<SignedSoftwareCertificate> softwareCertificates = Lists.newArrayList();
 
@@ -93,6 +97,16 @@ public class UaTcpStackServerConfigBuilder {
         return this;
     }
 
+    public UaTcpStackServerConfigBuilder setChunkExecutor(ExecutorService chunkExecutor) {
+        this.chunkExecutor = chunkExecutor;
+        return this;
+    }
+
+    public UaTcpStackServerConfigBuilder setCryptoExecutor(CryptoExecutor cryptoExecutor) {
+        this.cryptoExecutor = cryptoExecutor;
+        return this;
+    }
+
     public UaTcpStackServerConfigBuilder setChannelConfig(ChannelConfig channelConfig) {
         this.channelConfig = channelConfig;
         return this;
@@ -110,6 +124,9 @@ public class UaTcpStackServerConfigBuilder {
         if (executor == null) {
             executor = Stack.sharedExecutor();
         }
+        if (cryptoExecutor == null) {
+            cryptoExecutor = Stack.sharedCryptoExecutor();
+        }
 
         return new UaTcpStackServerConfigImpl(
                 serverName,
@@ -121,6 +138,8 @@ public class UaTcpStackServerConfigBuilder {
                 certificateManager,
                 certificateValidator,
                 executor,
+                chunkExecutor,
+                cryptoExecutor,
                 userTokenPolicies,
                 softwareCertificates
         );
@@ -140,6 +159,8 @@ public class UaTcpStackServerConfigBuilder {
         private final CertificateValidator certificateValidator;
 
         private final ExecutorService executor;
+        private final ExecutorService chunkExecutor;
+        private final CryptoExecutor cryptoExecutor;
         private final List<UserTokenPolicy> userTokenPolicies;
         private final List<SignedSoftwareCertificate> softwareCertificates;
 
@@ -152,6 +173,8 @@ public class UaTcpStackServerConfigBuilder {
                                           CertificateManager certificateManager,
                                           CertificateValidator certificateValidator,
                                           ExecutorService executor,
+                                          ExecutorService chunkExecutor,
+                                          CryptoExecutor cryptoExecutor,
                                           List<UserTokenPolicy> userTokenPolicies,
                                           List<SignedSoftwareCertificate> softwareCertificates) {
 
@@ -164,6 +187,8 @@ public class UaTcpStackServerConfigBuilder {
             this.certificateManager = certificateManager;
             this.certificateValidator = certificateValidator;
             this.executor = executor;
+            this.chunkExecutor = chunkExecutor;
+            this.cryptoExecutor = cryptoExecutor;
             this.userTokenPolicies = userTokenPolicies;
             this.softwareCertificates = softwareCertificates;
         }
@@ -213,6 +238,16 @@ public class UaTcpStackServerConfigBuilder {
             return executor;
         }
 
+        @Override
+        public Optional<ExecutorService> getChunkExecutor() {
+            return Optional.ofNullable(chunkExecutor);
+        }
+
+        @Override
+        public CryptoExecutor getCryptoExecutor() {
+            return cryptoExecutor;
+        }
+
         @Override
         public List<UserTokenPolicy> getUserTokenPolicies() {
             return userTokenPolicies;
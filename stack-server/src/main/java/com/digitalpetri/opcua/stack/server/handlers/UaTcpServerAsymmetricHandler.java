@@ -253,31 +253,40 @@ public class UaTcpServerAsymmetricHandler extends ByteToMessageDecoder implement
                 chunkBuffers = Lists.newArrayListWithCapacity(maxChunkCount);
                 headerRef.set(null);
 
-                serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                    ByteBuf messageBuffer = null;
-
-                    try {
-                        messageBuffer = chunkDecoder.decodeAsymmetric(secureChannel, buffersToDecode);
-
-                        OpenSecureChannelRequest request = binaryDecoder
-                                .setBuffer(messageBuffer)
-                                .decodeMessage(null);
-
-                        logger.debug("Received OpenSecureChannelRequest ({}, id={}).",
-                                request.getRequestType(), secureChannelId);
-
-                        long requestId = chunkDecoder.getLastRequestId();
-                        installSecurityToken(ctx, request, requestId);
-                    } catch (UaException e) {
-                        logger.error("Error decoding asymmetric message: {}", e.getMessage(), e);
-                        ctx.close();
-                    } finally {
-                        if (messageBuffer != null) {
-                            messageBuffer.release();
+                // Decrypting and verifying the request and signing and encrypting the response happen on the
+                // CryptoExecutor, which rejects the request here if too many handshakes are already pending.
+                try {
+                    serializationQueue.decodeAsymmetric((binaryDecoder, chunkDecoder) -> {
+                        ByteBuf messageBuffer = null;
+
+                        try {
+                            messageBuffer = chunkDecoder.decodeAsymmetric(secureChannel, buffersToDecode);
+
+                            OpenSecureChannelRequest request = binaryDecoder
+                                    .setBuffer(messageBuffer)
+                                    .decodeMessage(null);
+
+                            logger.debug("Received OpenSecureChannelRequest ({}, id={}).",
+                                    request.getRequestType(), secureChannelId);
+
+                            long requestId = chunkDecoder.getLastRequestId();
+                            installSecurityToken(ctx, request, requestId);
+                        } catch (UaException e) {
+                            logger.error("Error decoding asymmetric message: {}", e.getMessage(), e);
+                            ctx.close();
+                        } finally {
+                            if (messageBuffer != null) {
+                                messageBuffer.release();
+                            }
+                            buffersToDecode.clear();
                         }
-                        buffersToDecode.clear();
-                    }
-                });
+                    });
+                } catch (UaException e) {
+                    buffersToDecode.forEach(ByteBuf::release);
+                    buffersToDecode.clear();
+
+                    throw e;
+                }
             }
         }
     }
@@ -380,39 +389,50 @@ public class UaTcpServerAsymmetricHandler extends ByteToMessageDecoder implement
     }
 
     private void sendOpenSecureChannelResponse(ChannelHandlerContext ctx, long requestId, OpenSecureChannelResponse response) {
-        serializationQueue.encode((binaryEncoder, chunkEncoder) -> {
-            ByteBuf messageBuffer = BufferUtil.buffer();
+        try {
+            serializationQueue.encodeAsymmetric((binaryEncoder, chunkEncoder) -> {
+                ByteBuf messageBuffer = BufferUtil.buffer();
 
-            try {
-                binaryEncoder.setBuffer(messageBuffer);
-                binaryEncoder.encodeMessage(null, response);
-
-                List<ByteBuf> chunks = chunkEncoder.encodeAsymmetricResponse(
-                        secureChannel,
-                        MessageType.OpenSecureChannel,
-                        messageBuffer,
-                        requestId
-                );
-
-                if (!symmetricHandlerAdded) {
-                    ctx.pipeline().addFirst(new UaTcpServerSymmetricHandler(server, serializationQueue, secureChannel));
-                    symmetricHandlerAdded = true;
-                }
+                try {
+                    binaryEncoder.setBuffer(messageBuffer);
+                    binaryEncoder.encodeMessage(null, response);
+
+                    List<ByteBuf> chunks = chunkEncoder.encodeAsymmetricResponse(
+                            secureChannel,
+                            MessageType.OpenSecureChannel,
+                            messageBuffer,
+                            requestId
+                    );
+
+                    if (!symmetricHandlerAdded) {
+                        ctx.pipeline().addFirst(new UaTcpServerSymmetricHandler(server, serializationQueue, secureChannel));
+                        symmetricHandlerAdded = true;
+                    }
+
+                    chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
+                    ctx.flush();
 
-                chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
-                ctx.flush();
+                    long lifetime = response.getSecurityToken().getRevisedLifetime().longValue();
+                    server.secureChannelIssuedOrRenewed(secureChannel, lifetime);
 
-                long lifetime = response.getSecurityToken().getRevisedLifetime().longValue();
-                server.secureChannelIssuedOrRenewed(secureChannel, lifetime);
+                    logger.debug("Sent OpenSecureChannelResponse.");
+                } catch (UaException e) {
+                    logger.error("Error encoding OpenSecureChannelResponse: {}", e.getMessage(), e);
+                    ctx.close();
+                } finally {
+                    messageBuffer.release();
+                }
+            });
+        } catch (UaException e) {
+            try {
+                ErrorMessage errorMessage = ExceptionHandler.sendErrorMessage(ctx, e);
 
-                logger.debug("Sent OpenSecureChannelResponse.");
-            } catch (UaException e) {
-                logger.error("Error encoding OpenSecureChannelResponse: {}", e.getMessage(), e);
+                logger.debug("[remote={}] OpenSecureChannelResponse not sent; sent {}",
+                        ctx.channel().remoteAddress(), errorMessage, e);
+            } catch (Exception ignored) {
                 ctx.close();
-            } finally {
-                messageBuffer.release();
             }
-        });
+        }
     }
 
     @Override
@@ -127,14 +127,12 @@ public class UaTcpServerHelloHandler extends ByteToMessageDecoder implements Hea
                 Ints.saturatedCast(remoteMaxChunkCount)
         );
 
-        int maxArrayLength = config.getMaxArrayLength();
-        int maxStringLength = config.getMaxStringLength();
-
         SerializationQueue serializationQueue = new SerializationQueue(
                 server.getConfig().getExecutor(),
                 parameters,
-                maxArrayLength,
-                maxStringLength
+                config,
+                server.getConfig().getChunkExecutor().orElse(null),
+                server.getConfig().getCryptoExecutor()
         );
 
         ctx.pipeline().addLast(new UaTcpServerAsymmetricHandler(server, serializationQueue));
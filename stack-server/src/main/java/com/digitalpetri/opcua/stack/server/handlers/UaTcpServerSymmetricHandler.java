@@ -22,10 +22,12 @@ import java.util.List;
 
 import com.digitalpetri.opcua.stack.core.StatusCodes;
 import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.application.services.ServiceRequest;
 import com.digitalpetri.opcua.stack.core.application.services.ServiceResponse;
 import com.digitalpetri.opcua.stack.core.channel.ChannelSecurity;
 import com.digitalpetri.opcua.stack.core.channel.ExceptionHandler;
+import com.digitalpetri.opcua.stack.core.channel.MessageAbortedException;
 import com.digitalpetri.opcua.stack.core.channel.SerializationQueue;
 import com.digitalpetri.opcua.stack.core.channel.ServerSecureChannel;
 import com.digitalpetri.opcua.stack.core.channel.headers.HeaderDecoder;
@@ -34,9 +36,9 @@ import com.digitalpetri.opcua.stack.core.channel.messages.ErrorMessage;
 import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
 import com.digitalpetri.opcua.stack.core.serialization.UaRequestMessage;
 import com.digitalpetri.opcua.stack.core.serialization.UaResponseMessage;
-import com.digitalpetri.opcua.stack.core.util.BufferUtil;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryDecoder;
+import com.digitalpetri.opcua.stack.core.util.EncodedSizeEstimator;
 import com.digitalpetri.opcua.stack.server.tcp.UaTcpStackServer;
-import com.google.common.collect.Lists;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageCodec;
@@ -47,7 +49,10 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private List<ByteBuf> chunkBuffers;
+    // Per channel, so one peer's unusually large responses don't inflate the buffers every other channel allocates.
+    private final EncodedSizeEstimator sizeEstimator = new EncodedSizeEstimator();
+
+    private int chunkCount;
 
     private final int maxChunkCount;
     private final int maxChunkSize;
@@ -66,8 +71,6 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
 
         maxChunkCount = serializationQueue.getParameters().getLocalMaxChunkCount();
         maxChunkSize = serializationQueue.getParameters().getLocalReceiveBufferSize();
-
-        chunkBuffers = Lists.newArrayListWithCapacity(maxChunkCount);
     }
 
     @Override
@@ -85,34 +88,38 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
             secureChannel.attr(UaTcpStackServer.BoundChannelKey).remove();
         }
 
+        serializationQueue.failIncrementalDecoding(
+                new UaException(StatusCodes.Bad_ConnectionClosed, "connection closed"));
+
         super.channelInactive(ctx);
     }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, ServiceResponse message, ByteBuf out) throws Exception {
         serializationQueue.encode((binaryEncoder, chunkEncoder) -> {
-            ByteBuf messageBuffer = BufferUtil.buffer();
+            Class<?> messageType = message.getResponse().getClass();
 
             try {
-                binaryEncoder.setBuffer(messageBuffer);
-                binaryEncoder.encodeMessage(null, message.getResponse());
-
-                final List<ByteBuf> chunks = chunkEncoder.encodeSymmetricResponse(
+                int encodedSize = chunkEncoder.encodeSymmetricResponse(
                         secureChannel,
                         MessageType.SecureMessage,
-                        messageBuffer,
-                        message.getRequestId()
+                        binaryEncoder,
+                        message.getResponse(),
+                        message.getRequestId(),
+                        sizeEstimator.estimate(messageType),
+                        chunk -> ctx.executor().execute(() -> ctx.writeAndFlush(chunk).addListener(f -> {
+                            if (!f.isSuccess()) {
+                                // The rest of the response can't follow; close so the client doesn't wait for it.
+                                logger.debug("Write failed, requestId={}", message.getRequestId(), f.cause());
+                                ctx.close();
+                            }
+                        }))
                 );
 
-                ctx.executor().execute(() -> {
-                    chunks.forEach(c -> ctx.write(c, ctx.voidPromise()));
-                    ctx.flush();
-                });
+                sizeEstimator.record(messageType, encodedSize);
             } catch (UaException e) {
                 logger.error("Error encoding {}: {}", message.getResponse().getClass(), e.getMessage(), e);
                 ctx.close();
-            } finally {
-                messageBuffer.release();
             }
         });
     }
@@ -139,100 +146,137 @@ public class UaTcpServerSymmetricHandler extends ByteToMessageCodec<ServiceRespo
     }
 
     private void onSecureMessage(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out) throws UaException {
-        buffer.skipBytes(3); // Skip messageType
+        buffer.skipBytes(3 + 1 + 4); // skip messageType, chunkType, messageSize
 
-        char chunkType = (char) buffer.readByte();
+        long secureChannelId = buffer.readUnsignedInt();
+        if (secureChannelId != secureChannel.getChannelId()) {
+            throw new UaException(StatusCodes.Bad_SecureChannelIdInvalid,
+                    "invalid secure channel id: " + secureChannelId);
+        }
 
-        if (chunkType == 'A') {
-            chunkBuffers.forEach(ByteBuf::release);
-            chunkBuffers.clear();
-        } else {
-            buffer.skipBytes(4); // Skip messageSize
+        int chunkSize = buffer.readerIndex(0).readableBytes();
+        if (chunkSize > maxChunkSize) {
+            throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
+                    String.format("max chunk size exceeded (%s)", maxChunkSize));
+        }
 
-            long secureChannelId = buffer.readUnsignedInt();
-            if (secureChannelId != secureChannel.getChannelId()) {
-                throw new UaException(StatusCodes.Bad_SecureChannelIdInvalid,
-                        "invalid secure channel id: " + secureChannelId);
-            }
+        if (++chunkCount > maxChunkCount) {
+            throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
+                    String.format("max chunk count exceeded (%s)", maxChunkCount));
+        }
 
-            int chunkSize = buffer.readerIndex(0).readableBytes();
-            if (chunkSize > maxChunkSize) {
-                throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
-                        String.format("max chunk size exceeded (%s)", maxChunkSize));
-            }
+        char chunkType = (char) buffer.getByte(3);
 
-            chunkBuffers.add(buffer.retain());
+        if (chunkType == 'A' || chunkType == 'F') {
+            chunkCount = 0;
+        }
 
-            if (chunkBuffers.size() > maxChunkCount) {
-                throw new UaException(StatusCodes.Bad_TcpMessageTooLarge,
-                        String.format("max chunk count exceeded (%s)", maxChunkCount));
-            }
+        /*
+         * Each chunk is verified and decrypted as soon as it arrives; the decoding queue preserves arrival order, so
+         * sequence numbers are still checked in order, and the request is decoded when its final chunk is done.
+         */
+        final ByteBuf chunkBuffer = buffer.retain();
 
-            if (chunkType == 'F') {
-                final List<ByteBuf> buffersToDecode = chunkBuffers;
-                chunkBuffers = Lists.newArrayListWithCapacity(maxChunkCount);
+        serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
+            ByteBuf messageBuffer = null;
 
-                serializationQueue.decode((binaryDecoder, chunkDecoder) -> {
-                    try {
-                        validateChunkHeaders(buffersToDecode);
+            try {
+                try {
+                    validateChunkHeader(chunkBuffer);
+                } catch (UaException e) {
+                    chunkBuffer.release();
+                    throw e;
+                }
 
-                        ByteBuf messageBuffer = chunkDecoder.decodeSymmetric(secureChannel, buffersToDecode);
+                if (serializationQueue.isDecodeIncrementally()) {
+                    messageBuffer = chunkDecoder.decodeSymmetricChunkIncrementally(secureChannel, chunkBuffer);
 
-                        binaryDecoder.setBuffer(messageBuffer);
-                        UaRequestMessage request = binaryDecoder.decodeMessage(null);
+                    if (messageBuffer != null && chunkType == 'C') {
+                        // The first of several chunks; decode the request while the rest are received.
+                        decodeIncrementally(ctx, messageBuffer, chunkDecoder.getLastRequestId());
+                        messageBuffer = null;
+                    }
+                } else {
+                    messageBuffer = chunkDecoder.decodeSymmetricChunk(secureChannel, chunkBuffer);
+                }
 
-                        ServiceRequest<UaRequestMessage, UaResponseMessage> serviceRequest = new ServiceRequest<>(
-                                request,
-                                chunkDecoder.getLastRequestId(),
-                                server,
-                                secureChannel
-                        );
+                if (messageBuffer == null) return;
 
-                        server.getExecutorService().execute(() -> server.receiveRequest(serviceRequest));
+                receiveRequest(binaryDecoder, messageBuffer, chunkDecoder.getLastRequestId());
+            } catch (MessageAbortedException e) {
+                logger.debug("Received message abort chunk; error={}, reason={}", e.getStatusCode(), e.getMessage());
+            } catch (UaException e) {
+                logger.error("Error decoding symmetric message: {}", e.getMessage(), e);
+                ctx.close();
+            } finally {
+                if (messageBuffer != null) {
+                    messageBuffer.release();
+                }
+            }
+        });
+    }
 
-                        messageBuffer.release();
-                        buffersToDecode.clear();
-                    } catch (UaException e) {
-                        logger.error("Error decoding symmetric message: {}", e.getMessage(), e);
-                        ctx.close();
-                    }
-                });
+    private void decodeIncrementally(ChannelHandlerContext ctx, ByteBuf messageBuffer, long requestId) {
+        serializationQueue.decodeIncrementally(binaryDecoder -> {
+            try {
+                receiveRequest(binaryDecoder, messageBuffer, requestId);
+            } catch (Throwable t) {
+                if (t instanceof UaSerializationException && t.getCause() instanceof MessageAbortedException) {
+                    logger.debug("Received message abort chunk; error={}, reason={}",
+                            ((UaSerializationException) t).getStatusCode(), t.getCause().getMessage());
+                } else {
+                    logger.error("Error decoding symmetric message: {}", t.getMessage(), t);
+                    ctx.close();
+                    serializationQueue.pause();
+                }
+            } finally {
+                messageBuffer.release();
             }
-        }
+        });
     }
 
+    private void receiveRequest(BinaryDecoder binaryDecoder, ByteBuf messageBuffer, long requestId) {
+        binaryDecoder.setBuffer(messageBuffer);
+        UaRequestMessage request = binaryDecoder.decodeMessage(null);
 
-    private void validateChunkHeaders(List<ByteBuf> chunkBuffers) throws UaException {
+        ServiceRequest<UaRequestMessage, UaResponseMessage> serviceRequest = new ServiceRequest<>(
+                request,
+                requestId,
+                server,
+                secureChannel
+        );
+
+        server.getExecutorService().execute(() -> server.receiveRequest(serviceRequest));
+    }
+
+    private void validateChunkHeader(ByteBuf chunkBuffer) throws UaException {
         ChannelSecurity channelSecurity = secureChannel.getChannelSecurity();
         long currentTokenId = channelSecurity.getCurrentToken().getTokenId().longValue();
         long previousTokenId = channelSecurity.getPreviousToken()
                 .map(t -> t.getTokenId().longValue())
                 .orElse(-1L);
 
-        for (ByteBuf chunkBuffer : chunkBuffers) {
-            chunkBuffer.skipBytes(3 + 1 + 4 + 4); // skip messageType, chunkType, messageSize, secureChannelId
+        chunkBuffer.skipBytes(3 + 1 + 4 + 4); // skip messageType, chunkType, messageSize, secureChannelId
 
-            SymmetricSecurityHeader securityHeader = SymmetricSecurityHeader.decode(chunkBuffer);
+        SymmetricSecurityHeader securityHeader = SymmetricSecurityHeader.decode(chunkBuffer);
 
-            if (securityHeader.getTokenId() != currentTokenId) {
-                if (securityHeader.getTokenId() != previousTokenId) {
-                    String message = String.format(
-                            "received unknown secure channel token. " +
-                                    "tokenId=%s, previousTokenId=%s, currentTokenId=%s",
-                            securityHeader.getTokenId(), previousTokenId, currentTokenId);
+        if (securityHeader.getTokenId() != currentTokenId) {
+            if (securityHeader.getTokenId() != previousTokenId) {
+                String message = String.format(
+                        "received unknown secure channel token. " +
+                                "tokenId=%s, previousTokenId=%s, currentTokenId=%s",
+                        securityHeader.getTokenId(), previousTokenId, currentTokenId);
 
-                    throw new UaException(StatusCodes.Bad_SecureChannelTokenUnknown, message);
-                }
+                throw new UaException(StatusCodes.Bad_SecureChannelTokenUnknown, message);
             }
-
-            chunkBuffer.readerIndex(0);
         }
+
+        chunkBuffer.readerIndex(0);
     }
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-        chunkBuffers.forEach(ByteBuf::release);
-        chunkBuffers.clear();
+        chunkCount = 0;
 
         if (cause instanceof IOException) {
             ctx.close();
@@ -17,25 +17,56 @@
 package com.digitalpetri.opcua.stack;
 
 import java.util.List;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.digitalpetri.opcua.stack.core.StatusCodes;
+import com.digitalpetri.opcua.stack.core.UaException;
+import com.digitalpetri.opcua.stack.core.UaSerializationException;
 import com.digitalpetri.opcua.stack.core.channel.ChannelConfig;
 import com.digitalpetri.opcua.stack.core.channel.ChannelParameters;
+import com.digitalpetri.opcua.stack.core.channel.ChannelSecurity;
 import com.digitalpetri.opcua.stack.core.channel.ChunkDecoder;
 import com.digitalpetri.opcua.stack.core.channel.ChunkEncoder;
+import com.digitalpetri.opcua.stack.core.channel.ClientSecureChannel;
+import com.digitalpetri.opcua.stack.core.channel.MessageAbortedException;
 import com.digitalpetri.opcua.stack.core.channel.SecureChannel;
+import com.digitalpetri.opcua.stack.core.channel.ServerSecureChannel;
 import com.digitalpetri.opcua.stack.core.channel.messages.MessageType;
 import com.digitalpetri.opcua.stack.core.security.SecurityPolicy;
+import com.digitalpetri.opcua.stack.core.serialization.binary.BinaryEncoder;
+import com.digitalpetri.opcua.stack.core.types.builtin.ByteString;
+import com.digitalpetri.opcua.stack.core.types.builtin.DataValue;
+import com.digitalpetri.opcua.stack.core.types.builtin.DateTime;
+import com.digitalpetri.opcua.stack.core.types.builtin.StatusCode;
+import com.digitalpetri.opcua.stack.core.types.builtin.Variant;
 import com.digitalpetri.opcua.stack.core.types.enumerated.MessageSecurityMode;
+import com.digitalpetri.opcua.stack.core.types.structured.ChannelSecurityToken;
+import com.digitalpetri.opcua.stack.core.types.structured.ReadResponse;
+import com.digitalpetri.opcua.stack.core.types.structured.ResponseHeader;
 import com.digitalpetri.opcua.stack.core.util.BufferUtil;
 import com.digitalpetri.opcua.stack.core.util.CryptoRestrictions;
+import com.digitalpetri.opcua.stack.core.util.EncodedSizeEstimator;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import io.netty.buffer.ByteBuf;
 import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static com.digitalpetri.opcua.stack.core.types.builtin.unsigned.Unsigned.uint;
+import static com.digitalpetri.opcua.stack.core.util.NonceUtil.generateNonce;
+import static com.digitalpetri.opcua.stack.core.util.NonceUtil.getNonceLength;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class ChunkSerializationTest extends SecureChannelFixture {
 
@@ -58,6 +89,13 @@ public class ChunkSerializationTest extends SecureChannelFixture {
             ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
     );
 
+    ExecutorService chunkExecutor = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public void shutdownChunkExecutor() {
+        chunkExecutor.shutdown();
+    }
+
     @DataProvider
     public Object[][] getAsymmetricSecurityParameters() {
         return new Object[][]{
@@ -188,4 +226,610 @@ public class ChunkSerializationTest extends SecureChannelFixture {
         assertEquals(decodedBuffer, messageBuffer);
     }
 
+    @Test(description = "A local max message size of 0 means no limit when decoding incrementally.")
+    public void testSymmetricMessageIncrementallyWithoutMaxMessageSize() throws Exception {
+        ChannelParameters unlimited = new ChannelParameters(
+                0,
+                ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+                ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+                ChannelConfig.DEFAULT_MAX_CHUNK_COUNT,
+                ChannelConfig.DEFAULT_MAX_MESSAGE_SIZE,
+                ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+                ChannelConfig.DEFAULT_MAX_CHUNK_SIZE,
+                ChannelConfig.DEFAULT_MAX_CHUNK_COUNT
+        );
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(unlimited);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.None, MessageSecurityMode.None);
+
+        byte[] messageBytes = new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 3];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetricRequest(
+                channels[0],
+                MessageType.SecureMessage,
+                messageBuffer
+        );
+
+        assertTrue(chunkBuffers.size() > 1);
+
+        ByteBuf decodedBuffer = null;
+        for (ByteBuf chunkBuffer : chunkBuffers) {
+            ByteBuf decoded = decoder.decodeSymmetricChunkIncrementally(channels[1], chunkBuffer);
+            if (decoded != null) decodedBuffer = decoded;
+        }
+
+        byte[] decodedBytes = new byte[messageBytes.length];
+        decodedBuffer.readBytes(decodedBytes);
+        decodedBuffer.release();
+
+        ReferenceCountUtil.releaseLater(messageBuffer);
+
+        assertEquals(decodedBytes, messageBytes);
+    }
+
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageChunkByChunk(SecurityPolicy securityPolicy,
+                                                 MessageSecurityMode messageSecurity,
+                                                 int messageSize) throws Exception {
+
+        logger.info("Symmetric chunk-by-chunk serialization, " +
+                        "securityPolicy={}, messageSecurityMode={}, messageSize={}",
+                securityPolicy, messageSecurity, messageSize);
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        SecureChannel clientChannel = channels[0];
+        SecureChannel serverChannel = channels[1];
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        for (int i = 0; i < 2; i++) {
+            ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+            List<ByteBuf> chunkBuffers = encoder.encodeSymmetricRequest(
+                    clientChannel,
+                    MessageType.SecureMessage,
+                    messageBuffer
+            );
+
+            ByteBuf decodedBuffer = null;
+
+            for (int j = 0; j < chunkBuffers.size(); j++) {
+                decodedBuffer = decoder.decodeSymmetricChunk(serverChannel, chunkBuffers.get(j));
+
+                if (j < chunkBuffers.size() - 1) {
+                    assertNull(decodedBuffer);
+                }
+            }
+
+            ReferenceCountUtil.releaseLater(messageBuffer);
+            ReferenceCountUtil.releaseLater(decodedBuffer);
+
+            messageBuffer.readerIndex(0);
+            assertEquals(decodedBuffer, messageBuffer);
+        }
+    }
+
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageInParallel(SecurityPolicy securityPolicy,
+                                               MessageSecurityMode messageSecurity,
+                                               int messageSize) throws Exception {
+
+        logger.info("Parallel symmetric chunk serialization, " +
+                        "securityPolicy={}, messageSecurityMode={}, messageSize={}",
+                securityPolicy, messageSecurity, messageSize);
+
+        ChunkEncoder serialEncoder = new ChunkEncoder(parameters);
+        ChunkEncoder parallelEncoder = new ChunkEncoder(parameters, chunkExecutor);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        SecureChannel clientChannel = channels[0];
+        SecureChannel serverChannel = channels[1];
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        for (int i = 0; i < 2; i++) {
+            ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+            List<ByteBuf> serialChunkBuffers = serialEncoder.encodeSymmetricRequest(
+                    clientChannel,
+                    MessageType.SecureMessage,
+                    messageBuffer
+            );
+
+            messageBuffer.readerIndex(0);
+
+            List<ByteBuf> parallelChunkBuffers = parallelEncoder.encodeSymmetricRequest(
+                    clientChannel,
+                    MessageType.SecureMessage,
+                    messageBuffer
+            );
+
+            assertEquals(parallelChunkBuffers, serialChunkBuffers);
+            serialChunkBuffers.forEach(ReferenceCountUtil::releaseLater);
+
+            ByteBuf decodedBuffer = decoder.decodeSymmetric(
+                    serverChannel,
+                    parallelChunkBuffers
+            );
+
+            ReferenceCountUtil.releaseLater(messageBuffer);
+            ReferenceCountUtil.releaseLater(decodedBuffer);
+
+            messageBuffer.readerIndex(0);
+            assertEquals(decodedBuffer, messageBuffer);
+        }
+    }
+
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageStreaming(SecurityPolicy securityPolicy,
+                                              MessageSecurityMode messageSecurity,
+                                              int messageSize) throws Exception {
+
+        logger.info("Streaming symmetric chunk serialization, " +
+                        "securityPolicy={}, messageSecurityMode={}, messageSize={}",
+                securityPolicy, messageSecurity, messageSize);
+
+        encodeStreaming(securityPolicy, messageSecurity, messageSize, null);
+    }
+
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageStreamingInParallel(SecurityPolicy securityPolicy,
+                                                        MessageSecurityMode messageSecurity,
+                                                        int messageSize) throws Exception {
+
+        logger.info("Parallel streaming symmetric chunk serialization, " +
+                        "securityPolicy={}, messageSecurityMode={}, messageSize={}",
+                securityPolicy, messageSecurity, messageSize);
+
+        AtomicInteger parallelTasks = new AtomicInteger(0);
+
+        int chunkCount = encodeStreaming(securityPolicy, messageSecurity, messageSize, task -> {
+            parallelTasks.incrementAndGet();
+            chunkExecutor.execute(task);
+        });
+
+        // Decided by the number of chunks, not by the size hint, which is the minimum estimate here.
+        if (chunkCount > 1 && messageSecurity != MessageSecurityMode.None) {
+            assertTrue(parallelTasks.get() > 0);
+        } else {
+            assertEquals(parallelTasks.get(), 0);
+        }
+    }
+
+    /**
+     * Stream a response through a {@link ChunkEncoder} with {@code parallelExecutor}, check its chunks are the same as
+     * those of the buffered encoder, and decode them.
+     *
+     * @return the number of chunks the response was streamed into.
+     */
+    private int encodeStreaming(SecurityPolicy securityPolicy,
+                                MessageSecurityMode messageSecurity,
+                                int messageSize,
+                                Executor parallelExecutor) throws Exception {
+
+        ChunkEncoder bufferedEncoder = new ChunkEncoder(parameters);
+        ChunkEncoder streamingEncoder = new ChunkEncoder(parameters, parallelExecutor);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        SecureChannel clientChannel = channels[0];
+        SecureChannel serverChannel = channels[1];
+
+        // Many small results, which reach a checkpoint after each one, and a large one that spills over several
+        // chunks before the next checkpoint.
+        DataValue[] results = new DataValue[messageSize / 256 + 1];
+        for (int i = 0; i < results.length; i++) {
+            int length = i == results.length / 2 ? messageSize / 4 : 100;
+            results[i] = new DataValue(new Variant(ByteString.of(new byte[length])));
+        }
+
+        ReadResponse response = new ReadResponse(
+                new ResponseHeader(DateTime.now(), uint(1), StatusCode.GOOD, null, null, null),
+                results,
+                null
+        );
+
+        ByteBuf messageBuffer = BufferUtil.buffer();
+        new BinaryEncoder().setBuffer(messageBuffer).encodeMessage(null, response);
+
+        List<ByteBuf> bufferedChunkBuffers = bufferedEncoder.encodeSymmetricResponse(
+                serverChannel,
+                MessageType.SecureMessage,
+                messageBuffer.duplicate(),
+                42L
+        );
+
+        List<ByteBuf> streamedChunkBuffers = Lists.newArrayList();
+
+        int encodedSize = streamingEncoder.encodeSymmetricResponse(
+                serverChannel,
+                MessageType.SecureMessage,
+                new BinaryEncoder(),
+                response,
+                42L,
+                EncodedSizeEstimator.MIN_ESTIMATE,
+                streamedChunkBuffers::add
+        );
+
+        assertEquals(encodedSize, messageBuffer.readableBytes());
+        assertEquals(streamedChunkBuffers, bufferedChunkBuffers);
+        bufferedChunkBuffers.forEach(ReferenceCountUtil::releaseLater);
+
+        ByteBuf decodedBuffer = decoder.decodeSymmetric(
+                clientChannel,
+                streamedChunkBuffers
+        );
+
+        ReferenceCountUtil.releaseLater(messageBuffer);
+        ReferenceCountUtil.releaseLater(decodedBuffer);
+
+        assertEquals(decoder.getLastRequestId(), 42L);
+        assertEquals(decodedBuffer, messageBuffer);
+
+        return streamedChunkBuffers.size();
+    }
+
+    @Test(expectedExceptions = MessageAbortedException.class)
+    public void testSymmetricMessageStreamingAborted() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+        SecureChannel clientChannel = channels[0];
+        SecureChannel serverChannel = channels[1];
+
+        // The last result exceeds the max string length, once a few chunks have already been handed over.
+        DataValue[] results = new DataValue[1000];
+        for (int i = 0; i < results.length; i++) {
+            int length = i == results.length - 1 ? 2000 : 1000;
+            results[i] = new DataValue(new Variant(Strings.repeat("x", length)));
+        }
+
+        ReadResponse response = new ReadResponse(
+                new ResponseHeader(DateTime.now(), uint(1), StatusCode.GOOD, null, null, null),
+                results,
+                null
+        );
+
+        List<ByteBuf> chunkBuffers = Lists.newArrayList();
+
+        try {
+            encoder.encodeSymmetricResponse(
+                    serverChannel,
+                    MessageType.SecureMessage,
+                    new BinaryEncoder(ChannelConfig.DEFAULT_MAX_ARRAY_LENGTH, 1000),
+                    response,
+                    42L,
+                    EncodedSizeEstimator.MIN_ESTIMATE,
+                    chunkBuffers::add
+            );
+
+            fail("expected encoding to fail");
+        } catch (UaSerializationException e) {
+            assertEquals(e.getStatusCode(), StatusCodes.Bad_EncodingLimitsExceeded);
+        }
+
+        assertTrue(chunkBuffers.size() > 1);
+        assertEquals((char) chunkBuffers.get(chunkBuffers.size() - 1).getByte(3), 'A');
+
+        decoder.decodeSymmetric(clientChannel, chunkBuffers);
+    }
+
+    @Test(expectedExceptions = MessageAbortedException.class)
+    public void testSymmetricMessageStreamingSealFailed() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+        SecureChannel clientChannel = channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        // Once the first chunk has been handed over, the next chunk fails to encrypt; the abort chunk doesn't.
+        AtomicBoolean failed = new AtomicBoolean(false);
+        ChannelSecurity failingSecurity = failingOnce(serverChannel, failed);
+
+        ReadResponse response = largeResponse();
+
+        List<ByteBuf> chunkBuffers = Lists.newArrayList();
+
+        try {
+            encoder.encodeSymmetricResponse(
+                    serverChannel,
+                    MessageType.SecureMessage,
+                    new BinaryEncoder(),
+                    response,
+                    42L,
+                    EncodedSizeEstimator.MIN_ESTIMATE,
+                    chunk -> {
+                        chunkBuffers.add(chunk);
+                        serverChannel.setChannelSecurity(failingSecurity);
+                    }
+            );
+
+            fail("expected sealing to fail");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_SecurityChecksFailed);
+        }
+
+        assertTrue(failed.get());
+        assertTrue(chunkBuffers.size() > 1);
+        assertEquals((char) chunkBuffers.get(chunkBuffers.size() - 1).getByte(3), 'A');
+
+        // The abort chunk takes the place of the chunk that failed, so no sequence number is skipped.
+        decoder.decodeSymmetric(clientChannel, chunkBuffers);
+    }
+
+    @Test
+    public void testSymmetricMessageStreamingInParallelSealFailed() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters, chunkExecutor);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic256Sha256, MessageSecurityMode.SignAndEncrypt);
+        SecureChannel clientChannel = channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        // Once the first batch of chunks has been handed over, a chunk in the next batch fails to encrypt.
+        AtomicBoolean failed = new AtomicBoolean(false);
+        ChannelSecurity failingSecurity = failingOnce(serverChannel, failed);
+
+        ReadResponse response = largeResponse();
+
+        List<ByteBuf> chunkBuffers = Lists.newArrayList();
+
+        try {
+            encoder.encodeSymmetricResponse(
+                    serverChannel,
+                    MessageType.SecureMessage,
+                    new BinaryEncoder(),
+                    response,
+                    42L,
+                    EncodedSizeEstimator.MIN_ESTIMATE,
+                    chunk -> {
+                        chunkBuffers.add(chunk);
+                        serverChannel.setChannelSecurity(failingSecurity);
+                    }
+            );
+
+            fail("expected sealing to fail");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_SecurityChecksFailed);
+        }
+
+        assertTrue(failed.get());
+        assertTrue(chunkBuffers.size() > 1);
+        assertEquals((char) chunkBuffers.get(chunkBuffers.size() - 1).getByte(3), 'A');
+
+        try {
+            decoder.decodeSymmetric(clientChannel, chunkBuffers);
+            fail("expected the message to be aborted");
+        } catch (MessageAbortedException expected) {
+            // The rest of the failed batch's sequence numbers are used by the next message.
+        }
+
+        List<ByteBuf> nextChunkBuffers = Lists.newArrayList();
+
+        encoder.encodeSymmetricResponse(
+                serverChannel,
+                MessageType.SecureMessage,
+                new BinaryEncoder(),
+                response,
+                43L,
+                EncodedSizeEstimator.MIN_ESTIMATE,
+                nextChunkBuffers::add
+        );
+
+        ReferenceCountUtil.releaseLater(decoder.decodeSymmetric(clientChannel, nextChunkBuffers));
+
+        assertEquals(decoder.getLastRequestId(), 43L);
+    }
+
+    /**
+     * @return a copy of the {@link ChannelSecurity} of {@code serverChannel} whose server encryption key is invalid
+     * the first time it is used, after which {@code failed} is set.
+     */
+    private ChannelSecurity failingOnce(ServerSecureChannel serverChannel, AtomicBoolean failed) {
+        ChannelSecurity security = serverChannel.getChannelSecurity();
+        ChannelSecurity.SecuritySecrets secrets = security.getCurrentKeys();
+        ChannelSecurity.SecretKeys keys = secrets.getServerKeys();
+
+        ChannelSecurity.SecretKeys failingKeys = new ChannelSecurity.SecretKeys(
+                keys.getSignatureKey(), keys.getEncryptionKey(), keys.getInitializationVector()) {
+
+            @Override
+            public byte[] getEncryptionKey() {
+                return failed.compareAndSet(false, true) ? new byte[3] : super.getEncryptionKey();
+            }
+        };
+
+        return new ChannelSecurity(
+                new ChannelSecurity.SecuritySecrets(secrets.getClientKeys(), failingKeys),
+                security.getCurrentToken());
+    }
+
+    /**
+     * @return a response of about a megabyte, which reaches a checkpoint after each of its results.
+     */
+    private ReadResponse largeResponse() {
+        DataValue[] results = new DataValue[1000];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new DataValue(new Variant(Strings.repeat("x", 1000)));
+        }
+
+        return new ReadResponse(
+                new ResponseHeader(DateTime.now(), uint(1), StatusCode.GOOD, null, null, null),
+                results,
+                null
+        );
+    }
+
+    @Test
+    public void testSymmetricChunkTruncated() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.None, MessageSecurityMode.None);
+        SecureChannel clientChannel = channels[0];
+        SecureChannel serverChannel = channels[1];
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(new byte[ChannelConfig.DEFAULT_MAX_CHUNK_SIZE * 2]);
+        ReferenceCountUtil.releaseLater(messageBuffer);
+
+        List<ByteBuf> chunkBuffers = encoder.encodeSymmetricRequest(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer
+        );
+
+        assertTrue(chunkBuffers.size() > 2);
+        assertNull(decoder.decodeSymmetricChunk(serverChannel, chunkBuffers.get(0)));
+
+        // Cut the second chunk off in the middle of its sequence header.
+        ByteBuf truncated = chunkBuffers.get(1);
+        truncated.writerIndex(16);
+
+        try {
+            decoder.decodeSymmetricChunk(serverChannel, truncated);
+            fail("expected decoding to fail");
+        } catch (IndexOutOfBoundsException expected) {
+            // Not a UaException, but the chunk and the partial message must still be released.
+        }
+
+        assertEquals(chunkBuffers.get(0).refCnt(), 0);
+        assertEquals(truncated.refCnt(), 0);
+
+        chunkBuffers.subList(2, chunkBuffers.size()).forEach(ReferenceCountUtil::release);
+    }
+
+    @Test(description = "A chunk that fails verification must not leave the decoder unable to decode the next one.")
+    public void testSymmetricMessageAfterTamperedChunk() throws Exception {
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(SecurityPolicy.Basic128Rsa15, MessageSecurityMode.SignAndEncrypt);
+        SecureChannel clientChannel = channels[0];
+        SecureChannel serverChannel = channels[1];
+
+        ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(new byte[1024]);
+        ReferenceCountUtil.releaseLater(messageBuffer);
+
+        List<ByteBuf> tampered = encoder.encodeSymmetricRequest(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer.duplicate()
+        );
+
+        List<ByteBuf> intact = encoder.encodeSymmetricRequest(
+                clientChannel,
+                MessageType.SecureMessage,
+                messageBuffer.duplicate()
+        );
+
+        ByteBuf chunk = tampered.get(0);
+        chunk.setByte(chunk.writerIndex() / 2, ~chunk.getByte(chunk.writerIndex() / 2));
+
+        try {
+            decoder.decodeSymmetric(serverChannel, tampered);
+            fail("expected decoding to fail");
+        } catch (UaException e) {
+            assertEquals(e.getStatusCode().getValue(), StatusCodes.Bad_SecurityChecksFailed);
+        }
+
+        ByteBuf decodedBuffer = decoder.decodeSymmetric(serverChannel, intact);
+        ReferenceCountUtil.releaseLater(decodedBuffer);
+
+        assertEquals(decodedBuffer, messageBuffer);
+    }
+
+    @Test(dataProvider = "getSymmetricSecurityParameters")
+    public void testSymmetricMessageAfterTokenRenewal(SecurityPolicy securityPolicy,
+                                                      MessageSecurityMode messageSecurity,
+                                                      int messageSize) throws Exception {
+
+        logger.info("Symmetric chunk serialization after token renewal, " +
+                        "securityPolicy={}, messageSecurityMode={}, messageSize={}",
+                securityPolicy, messageSecurity, messageSize);
+
+        ChunkEncoder encoder = new ChunkEncoder(parameters);
+        ChunkDecoder decoder = new ChunkDecoder(parameters);
+
+        SecureChannel[] channels = generateChannels(securityPolicy, messageSecurity);
+        ClientSecureChannel clientChannel = (ClientSecureChannel) channels[0];
+        ServerSecureChannel serverChannel = (ServerSecureChannel) channels[1];
+
+        byte[] messageBytes = new byte[messageSize];
+        for (int i = 0; i < messageBytes.length; i++) {
+            messageBytes[i] = (byte) i;
+        }
+
+        for (int tokenId = 2; tokenId <= 3; tokenId++) {
+            ByteBuf messageBuffer = BufferUtil.buffer().writeBytes(messageBytes);
+
+            List<ByteBuf> chunkBuffers = encoder.encodeSymmetricRequest(
+                    clientChannel,
+                    MessageType.SecureMessage,
+                    messageBuffer
+            );
+
+            ByteBuf decodedBuffer = decoder.decodeSymmetric(
+                    serverChannel,
+                    chunkBuffers
+            );
+
+            ReferenceCountUtil.releaseLater(messageBuffer);
+            ReferenceCountUtil.releaseLater(decodedBuffer);
+
+            messageBuffer.readerIndex(0);
+            assertEquals(decodedBuffer, messageBuffer);
+
+            renewToken(clientChannel, serverChannel, tokenId);
+        }
+    }
+
+    private void renewToken(ClientSecureChannel clientChannel,
+                            ServerSecureChannel serverChannel,
+                            long tokenId) {
+
+        ChannelSecurity clientSecurity = clientChannel.getChannelSecurity();
+        ChannelSecurity serverSecurity = serverChannel.getChannelSecurity();
+
+        if (clientSecurity == null || serverSecurity == null) return;
+
+        int nonceLength = getNonceLength(clientChannel.getSecurityPolicy().getSymmetricEncryptionAlgorithm());
+        ByteString clientNonce = generateNonce(nonceLength);
+        ByteString serverNonce = generateNonce(nonceLength);
+
+        ChannelSecurityToken token = new ChannelSecurityToken(uint(0), uint(tokenId), DateTime.now(), uint(60000));
+
+        clientChannel.setChannelSecurity(new ChannelSecurity(
+                ChannelSecurity.generateKeyPair(clientChannel, clientNonce, serverNonce),
+                token,
+                clientSecurity.getCurrentKeys(),
+                clientSecurity.getCurrentToken()
+        ));
+
+        serverChannel.setChannelSecurity(new ChannelSecurity(
+                ChannelSecurity.generateKeyPair(serverChannel, clientNonce, serverNonce),
+                token,
+                serverSecurity.getCurrentKeys(),
+                serverSecurity.getCurrentToken()
+        ));
+    }
+
 }
@@ -16,9 +16,11 @@
 
 package com.digitalpetri.opcua.stack;
 
+import java.nio.channels.ClosedChannelException;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.internal.Lists;
 import com.digitalpetri.opcua.stack.client.UaTcpStackClient;
@@ -49,6 +51,12 @@ import com.digitalpetri.opcua.stack.core.util.CryptoRestrictions;
 import com.digitalpetri.opcua.stack.server.config.UaTcpStackServerConfig;
 import com.digitalpetri.opcua.stack.server.tcp.SocketServer;
 import com.digitalpetri.opcua.stack.server.tcp.UaTcpStackServer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.AfterTest;
@@ -301,6 +309,45 @@ public class ClientServerTest extends SecurityFixture {
         logger.info("got response: {}", response1);
     }
 
+    @Test(description = "A request whose chunks are written just as the channel closes is retried, not left to time out.")
+    public void testClientReconnect_ClosedWhileWritingChunks() throws Exception {
+        EndpointDescription endpoint = endpoints[0];
+        Variant input = new Variant(42);
+
+        UaTcpStackClient client = createClient(endpoint);
+
+        RequestHeader header = new RequestHeader(
+                NodeId.NULL_VALUE,
+                DateTime.now(),
+                uint(0), uint(0), null, uint(60000), null);
+
+        TestStackRequest request = new TestStackRequest(header, uint(0), 0, input);
+
+        client.sendRequest(request).get();
+
+        /*
+         * The request's own write completes once it has been handed to the serialization queue; its chunks are
+         * written after. Close the channel as the first chunk is written, as if the server had just closed it.
+         */
+        Channel channel = client.getChannelFuture().get().getChannel();
+
+        channel.pipeline().addFirst(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                if (msg instanceof ByteBuf && ((ByteBuf) msg).isReadable()) {
+                    ReferenceCountUtil.release(msg);
+                    ctx.close();
+                    promise.setFailure(new ClosedChannelException());
+                } else {
+                    super.write(ctx, msg, promise);
+                }
+            }
+        });
+
+        UaResponseMessage response = client.sendRequest(request).get(10, TimeUnit.SECONDS);
+        logger.info("got response: {}", response);
+    }
+
     @Test
     public void testClientReconnect_InvalidSecureChannel() throws Exception {
         EndpointDescription endpoint = endpoints[0];
@@ -359,17 +406,17 @@ public class ClientServerTest extends SecurityFixture {
 
             requests.add(new TestStackRequest(header, uint(i), i, input));
 
-            CompletableFuture<TestStackResponse> future = new CompletableFuture<>();
-
-            future.thenAccept((response) -> assertEquals(response.getOutput(), input));
-
-            futures.add(future);
+            futures.add(new CompletableFuture<TestStackResponse>());
         }
 
         client.sendRequests(requests, futures);
 
         CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).get();
 
+        for (CompletableFuture<? extends UaResponseMessage> future : futures) {
+            assertEquals(((TestStackResponse) future.get()).getOutput(), input);
+        }
+
         client.disconnect().get();
         Thread.sleep(100);
     }